@@ -0,0 +1,61 @@
+package com.example.facturacion.configuracion;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinea las secuencias de ID con los datos existentes al iniciar la aplicación.
+ *
+ * Factura, DetalleFactura, MovimientoCuentaCorriente, ClienteServicio, Pago, NotaCredito y
+ * DetalleNotaCredito pasaron de IDENTITY a secuencias con asignación por bloques. En una base
+ * que ya tiene filas, ddl-auto=update crea las secuencias desde 1 y los nuevos IDs chocarían
+ * con los existentes; este paso adelanta cada secuencia por encima del MAX(id) de su tabla.
+ * Solo aplica en PostgreSQL y es idempotente (nunca retrocede una secuencia).
+ *
+ * Se ejecuta al terminar de crear los singletons (el esquema ya está actualizado) y antes de
+ * que arranque el servidor web, así ninguna solicitud puede insertar con una secuencia sin alinear.
+ */
+@Component
+public class AlineadorSecuencias implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(AlineadorSecuencias.class);
+
+    // Debe coincidir con el allocationSize de los @SequenceGenerator
+    private static final int BLOQUE = 50;
+
+    private static final Map<String, String> SECUENCIAS = Map.of(
+        "factura_seq", "factura",
+        "detalle_factura_seq", "detalle_factura",
+        "movimiento_cuenta_corriente_seq", "movimiento_cuenta_corriente",
+        "cliente_servicio_seq", "cliente_servicio",
+        "pago_seq", "pago",
+        "nota_credito_seq", "nota_credito",
+        "detalle_nota_credito_seq", "detalle_nota_credito"
+    );
+
+    @Autowired
+    private MotorBaseDatos motorBaseDatos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!motorBaseDatos.esPostgreSQL()) {
+            return;
+        }
+        SECUENCIAS.forEach((secuencia, tabla) -> {
+            Long valor = jdbcTemplate.queryForObject(
+                "SELECT setval('" + secuencia + "', GREATEST(" +
+                "(SELECT COALESCE(MAX(id), 0) FROM " + tabla + ") + " + BLOQUE + ", " +
+                "(SELECT last_value FROM " + secuencia + ")))", Long.class);
+            log.debug("Secuencia {} alineada en {}", secuencia, valor);
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.facturacion.configuracion;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa las columnas de desglose de IVA (DesgloseIva) de las facturas y notas de crédito
+ * emitidas antes de que existieran.
+ *
+ * ddl-auto=update las agrega vacías; al iniciar se suman desde los detalles de cada comprobante
+ * con la misma regla que DesgloseIva (neto = total - IVA, importe exento = subtotales al 0%).
+ * Es idempotente: solo toca comprobantes con monto_iva NULL. Se completan por lotes de IDs para
+ * no bloquear toda la tabla en una única transacción.
+ */
+@Component
+public class CompletadorDesgloseIva implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletadorDesgloseIva.class);
+    private static final int LOTE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int facturas = completar("factura", "detalle_factura", "factura_id");
+        int notas = completar("nota_credito", "detalle_nota_credito", "nota_credito_id");
+        if (facturas + notas > 0) {
+            log.info("Desglose de IVA completado en {} facturas y {} notas de crédito existentes", facturas, notas);
+        }
+    }
+
+    private int completar(String tabla, String tablaDetalle, String columnaPadre) {
+        String suma = "(SELECT COALESCE(SUM(d.%s), 0) FROM " + tablaDetalle + " d WHERE d." + columnaPadre + " = c.id%s)";
+        String actualizacion =
+            "UPDATE " + tabla + " c SET " +
+            "monto_iva = " + suma.formatted("monto_iva", "") + ", " +
+            "monto_neto = c.total - " + suma.formatted("monto_iva", "") + ", " +
+            "iva_27 = " + suma.formatted("monto_iva", " AND d.alicuota_iva = 27") + ", " +
+            "iva_21 = " + suma.formatted("monto_iva", " AND d.alicuota_iva = 21") + ", " +
+            "iva_10_5 = " + suma.formatted("monto_iva", " AND d.alicuota_iva = 10.5") + ", " +
+            "neto_exento = " + suma.formatted("subtotal", " AND d.alicuota_iva = 0") + " " +
+            "WHERE c.monto_iva IS NULL AND c.id BETWEEN ? AND ?";
+        int total = 0;
+        List<Long> lote;
+        do {
+            lote = jdbcTemplate.queryForList(
+                "SELECT id FROM " + tabla + " WHERE monto_iva IS NULL ORDER BY id LIMIT " + LOTE, Long.class);
+            if (!lote.isEmpty()) {
+                total += jdbcTemplate.update(actualizacion, lote.get(0), lote.get(lote.size() - 1));
+            }
+        } while (lote.size() == LOTE);
+        return total;
+    }
+}
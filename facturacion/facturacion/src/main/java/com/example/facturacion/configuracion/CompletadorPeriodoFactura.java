@@ -0,0 +1,60 @@
+package com.example.facturacion.configuracion;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa la columna factura.periodo de las facturas emitidas antes de que existiera.
+ *
+ * La detección de doble facturación busca por (cliente_id, periodo, anulada); una factura
+ * vieja sin periodo no se detectaría y su período podría volver a facturarse. ddl-auto=update
+ * agrega la columna vacía, así que al iniciar se deriva de fecha_inicio_periodo y
+ * fecha_fin_periodo con el mismo formato que Factura.periodo(). Solo aplica en PostgreSQL
+ * y es idempotente (solo toca filas con periodo NULL). Se completa por lotes de IDs para no
+ * bloquear toda la tabla en una única transacción.
+ *
+ * Se ejecuta antes de que arranque el servidor web (igual que AlineadorSecuencias): una
+ * facturación masiva pedida mientras quedan facturas sin periodo podría volver a facturarlas.
+ */
+@Component
+public class CompletadorPeriodoFactura implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletadorPeriodoFactura.class);
+    private static final int LOTE = 1000;
+
+    @Autowired
+    private MotorBaseDatos motorBaseDatos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!motorBaseDatos.esPostgreSQL()) {
+            return;
+        }
+        String pendientes = "periodo IS NULL AND fecha_inicio_periodo IS NOT NULL AND fecha_fin_periodo IS NOT NULL";
+        String actualizacion =
+            "UPDATE factura SET periodo = to_char(fecha_inicio_periodo, 'YYYY-MM-DD') || '/' || " +
+            "to_char(fecha_fin_periodo, 'YYYY-MM-DD') " +
+            "WHERE " + pendientes + " AND id BETWEEN ? AND ?";
+        int filas = 0;
+        List<Long> lote;
+        do {
+            lote = jdbcTemplate.queryForList(
+                "SELECT id FROM factura WHERE " + pendientes + " ORDER BY id LIMIT " + LOTE, Long.class);
+            if (!lote.isEmpty()) {
+                filas += jdbcTemplate.update(actualizacion, lote.get(0), lote.get(lote.size() - 1));
+            }
+        } while (lote.size() == LOTE);
+        if (filas > 0) {
+            log.info("Período completado en {} facturas existentes", filas);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.facturacion.configuracion;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Caché en memoria (Caffeine) del catálogo de servicios; los nombres, el tamaño y la expiración
+ * se configuran en application.properties (spring.cache.*).
+ *
+ * El interceptor de caché va por fuera del transaccional: los @CacheEvict de ServicioServicio
+ * se aplican recién cuando la transacción confirmó, así otro pedido no vuelve a cargar en la
+ * caché el servicio anterior al cambio.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class ConfiguracionCache {
+}
@@ -0,0 +1,60 @@
+package com.example.facturacion.configuracion;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conteo de sentencias SQL para las métricas: registra ContadorSentenciasSql en Hibernate y
+ * publica cuántas sentencias preparó cada solicitud HTTP ('facturacion.sql.solicitud',
+ * etiqueta 'uri' con el patrón de la ruta), incluidas las de la vista con sesión abierta, y
+ * advierte en el log las que superan el presupuesto (ver MetricasFacturacion).
+ *
+ * El resto de las métricas las publica Actuator: tiempos de las solicitudes HTTP, espera por
+ * una conexión del pool (hikaricp.connections.acquire) y aciertos de la caché (cache.gets).
+ */
+@Configuration
+public class ConfiguracionMetricas implements WebMvcConfigurer {
+
+    private static final String ATRIBUTO_SENTENCIAS = ConfiguracionMetricas.class.getName() + ".sentencias";
+
+    @Autowired
+    private MetricasFacturacion metricasFacturacion;
+
+    @Bean
+    public HibernatePropertiesCustomizer contadorSentenciasSql() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSentenciasSql());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.setAttribute(ATRIBUTO_SENTENCIAS, ContadorSentenciasSql.actual());
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                Long antes = (Long) request.getAttribute(ATRIBUTO_SENTENCIAS);
+                Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (antes != null) {
+                    metricasFacturacion.registrarSolicitud(request.getMethod(),
+                        ruta != null ? ruta.toString() : "DESCONOCIDA", ContadorSentenciasSql.actual() - antes);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.facturacion.configuracion;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Sesión JPA abierta durante la vista (open-in-view) solo donde hace falta.
+ *
+ * spring.jpa.open-in-view=false la desactiva para toda la aplicación; acá se vuelve a registrar
+ * para las vistas que todavía recorren relaciones diferidas de las entidades, excepto las
+ * que reciben filas ya resueltas (el listado de facturas), que así liberan la conexión
+ * antes de generar el HTML.
+ */
+@Configuration
+public class ConfiguracionWeb implements WebMvcConfigurer {
+
+    /** Rutas cuyas vistas no acceden a entidades JPA. */
+    static final String[] RUTAS_SIN_SESION_EN_VISTA = { "/facturas/listar" };
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(RUTAS_SIN_SESION_EN_VISTA);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.facturacion.configuracion;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta, por hilo, las sentencias SQL que prepara Hibernate (consultas, INSERT/UPDATE de
+ * entidades y consultas @Modifying). Se registra como 'hibernate.session_factory.statement_inspector'
+ * en ConfiguracionMetricas y no modifica el SQL.
+ *
+ * El contador es acumulativo y nunca se reinicia: quien mide toma el valor antes y después de la
+ * operación y registra la diferencia. Un lote JDBC cuenta una sola vez (una sentencia preparada),
+ * y las sentencias de JdbcTemplate no pasan por acá.
+ */
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final ThreadLocal<long[]> SENTENCIAS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        SENTENCIAS.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Sentencias preparadas hasta ahora por el hilo actual.
+     */
+    public static long actual() {
+        return SENTENCIAS.get()[0];
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.facturacion.configuracion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Instrumentación de los caminos críticos (facturación masiva, facturación de cada cliente,
+ * pagos, anulaciones y movimientos de cuenta corriente).
+ *
+ * Cada operación se registra como una Observation de Micrometer: Actuator la publica como timer
+ * (con histograma, ver management.metrics.distribution.* en application.properties) y, si se
+ * agrega un puente de trazas, también como span. Además se registra cuántas sentencias SQL
+ * preparó Hibernate durante la operación en el hilo que la ejecutó ('facturacion.sql.sentencias',
+ * etiqueta 'operacion'), para detectar consultas N+1.
+ *
+ * Presupuesto de sentencias: cada solicitud HTTP y cada cliente de la facturación masiva que
+ * supere 'facturacion.sql.presupuesto.solicitud' / 'facturacion.sql.presupuesto.cliente'
+ * sentencias se registra en el log como advertencia (0 = sin presupuesto).
+ */
+@Component
+public class MetricasFacturacion {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasFacturacion.class);
+
+    public static final String FACTURACION_MASIVA = "facturacion.masiva";
+    public static final String FACTURACION_CLIENTE = "facturacion.masiva.cliente";
+    public static final String REGISTRO_PAGO = "facturacion.pago";
+    public static final String ANULACION = "facturacion.anulacion";
+    public static final String MOVIMIENTO_CUENTA = "facturacion.movimiento";
+
+    static final String SENTENCIAS_SQL = "facturacion.sql.sentencias";
+    static final String SENTENCIAS_SOLICITUD = "facturacion.sql.solicitud";
+
+    // Sin Spring (tests unitarios) las mediciones no se publican en ningún registro
+    @Autowired
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    @Autowired
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${facturacion.sql.presupuesto.solicitud:0}")
+    private int presupuestoSolicitud;
+
+    @Value("${facturacion.sql.presupuesto.cliente:0}")
+    private int presupuestoCliente;
+
+    private final Map<String, DistributionSummary> sentenciasPorClave = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la operación dentro de una Observation con el nombre dado y registra las
+     * sentencias SQL que preparó. Las excepciones se registran en la observación y se propagan.
+     */
+    public <T> T observar(String operacion, Supplier<T> accion) {
+        return observar(operacion, null, accion);
+    }
+
+    /**
+     * Igual que la versión anterior; 'referencia' identifica la unidad de trabajo (por ejemplo,
+     * el ID del cliente facturado) en el log si se supera el presupuesto de sentencias.
+     */
+    public <T> T observar(String operacion, Object referencia, Supplier<T> accion) {
+        long sentenciasAntes = ContadorSentenciasSql.actual();
+        try {
+            return Observation.createNotStarted(operacion, observationRegistry).observe(accion);
+        } finally {
+            long sentencias = ContadorSentenciasSql.actual() - sentenciasAntes;
+            resumen(SENTENCIAS_SQL, "operacion", operacion).record(sentencias);
+            if (FACTURACION_CLIENTE.equals(operacion) && excede(sentencias, presupuestoCliente)) {
+                log.warn("{} [{}] preparó {} sentencias SQL, por encima del presupuesto de {}",
+                         operacion, referencia, sentencias, presupuestoCliente);
+            }
+        }
+    }
+
+    /**
+     * Suma 'cantidad' al contador con el nombre y la etiqueta dados (por ejemplo, clientes por resultado).
+     */
+    public void contar(String nombre, String etiqueta, String valor, long cantidad) {
+        meterRegistry.counter(nombre, etiqueta, valor).increment(cantidad);
+    }
+
+    /**
+     * Registra las sentencias SQL que preparó una solicitud HTTP, agrupadas por patrón de ruta.
+     */
+    void registrarSolicitud(String metodo, String ruta, long sentencias) {
+        resumen(SENTENCIAS_SOLICITUD, "uri", ruta).record(sentencias);
+        if (excede(sentencias, presupuestoSolicitud)) {
+            log.warn("{} {} preparó {} sentencias SQL, por encima del presupuesto de {}",
+                     metodo, ruta, sentencias, presupuestoSolicitud);
+        }
+    }
+
+    private static boolean excede(long sentencias, int presupuesto) {
+        return presupuesto > 0 && sentencias > presupuesto;
+    }
+
+    private DistributionSummary resumen(String nombre, String etiqueta, String valor) {
+        return sentenciasPorClave.computeIfAbsent(nombre + '|' + valor, clave -> DistributionSummary.builder(nombre)
+                .description("Sentencias SQL preparadas por Hibernate")
+                .baseUnit("sentencias")
+                .tag(etiqueta, valor)
+                .maximumExpectedValue(10_000.0)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.facturacion.configuracion;
+
+import java.sql.DatabaseMetaData;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Motor de la base de datos configurada, consultado una sola vez en los metadatos de la conexión.
+ *
+ * Los pasos de inicio que usan SQL propio de PostgreSQL (secuencias, funciones de fecha, índices
+ * de trigramas) lo consultan para no ejecutarse sobre la base H2 de los benchmarks.
+ */
+@Component
+public class MotorBaseDatos {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile String producto;
+
+    /**
+     * Nombre del producto informado por el driver (por ejemplo, "PostgreSQL" o "H2").
+     */
+    public String getProducto() {
+        String resultado = producto;
+        if (resultado == null) {
+            try {
+                resultado = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("No se pudo determinar el motor de la base de datos.", e);
+            }
+            producto = resultado;
+        }
+        return resultado;
+    }
+
+    public boolean esPostgreSQL() {
+        return POSTGRESQL.equals(getProducto());
+    }
+}
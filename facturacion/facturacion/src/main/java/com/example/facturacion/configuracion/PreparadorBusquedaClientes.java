@@ -0,0 +1,79 @@
+package com.example.facturacion.configuracion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.facturacion.modelo.TextoBusqueda;
+
+/**
+ * Prepara la columna cliente.texto_busqueda para las búsquedas por texto de clientes y facturas.
+ *
+ * ddl-auto=update agrega la columna vacía, así que al iniciar se completa (por lotes, con la misma
+ * normalización que Cliente) en los clientes que no la tengan; es idempotente. En PostgreSQL además
+ * se crea un índice GIN de trigramas (pg_trgm) sobre la columna, que permite resolver los
+ * LIKE '%texto%' sin recorrer la tabla. Si la extensión no está disponible se registra una
+ * advertencia y las búsquedas siguen funcionando sin el índice.
+ */
+@Component
+public class PreparadorBusquedaClientes implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PreparadorBusquedaClientes.class);
+    private static final int LOTE = 1000;
+
+    @Autowired
+    private MotorBaseDatos motorBaseDatos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        completarTextoBusqueda();
+        if (motorBaseDatos.esPostgreSQL()) {
+            crearIndiceTrigramas();
+        }
+    }
+
+    private void completarTextoBusqueda() {
+        int total = 0;
+        List<Object[]> lote;
+        do {
+            lote = new ArrayList<>(LOTE);
+            for (var fila : jdbcTemplate.queryForList(
+                    "SELECT id, razon_social, nombre, apellido, cuit, dni FROM cliente " +
+                    "WHERE texto_busqueda IS NULL ORDER BY id LIMIT " + LOTE)) {
+                lote.add(new Object[] {
+                    TextoBusqueda.unir((String) fila.get("razon_social"), (String) fila.get("nombre"),
+                        (String) fila.get("apellido"), (String) fila.get("cuit"), (String) fila.get("dni")),
+                    fila.get("id")
+                });
+            }
+            if (!lote.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE cliente SET texto_busqueda = ? WHERE id = ?", lote);
+                total += lote.size();
+            }
+        } while (lote.size() == LOTE);
+        if (total > 0) {
+            log.info("Texto de búsqueda completado en {} clientes existentes", total);
+        }
+    }
+
+    private void crearIndiceTrigramas() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_cliente_texto_busqueda_trgm " +
+                "ON cliente USING gin (texto_busqueda gin_trgm_ops)");
+        } catch (DataAccessException e) {
+            log.warn("No se pudo crear el índice de trigramas de cliente.texto_busqueda: {}", e.getMessage());
+        }
+    }
+}
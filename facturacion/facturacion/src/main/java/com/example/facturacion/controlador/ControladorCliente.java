@@ -5,6 +5,7 @@ import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -14,12 +15,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.MovimientoCuentaCorriente;
 import com.example.facturacion.modelo.enums.CondicionFiscal;
 import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente.ClienteBuscable;
 import com.example.facturacion.servicio.ServicioCliente;
 
 import jakarta.validation.Valid;
@@ -202,6 +205,11 @@ public class ControladorCliente {
             model.addAttribute("todosLosEstados", EstadoCliente.values());
             return "clientes/modificar";
             
+        } catch (OptimisticLockingFailureException ex) {
+            redirectAttrs.addFlashAttribute("error",
+                "El cliente fue modificado por otro usuario mientras lo editaba. Revise los datos actuales y vuelva a intentar.");
+            return "redirect:/clientes/modificar?id=" + cliente.getId();
+
         } catch (DataIntegrityViolationException ex) {
             Throwable root = ex.getRootCause();
             String rootMsg = (root != null) ? root.getMessage() : ex.getMessage();
@@ -296,4 +304,16 @@ redirectAttrs.addFlashAttribute("error", ex.getMessage());
             return "redirect:/clientes/listar";
         }
     }
-}
\ No newline at end of file
+
+    // ==================== API AJAX ====================
+
+    /**
+     * Buscador de clientes activos de los formularios (facturación individual, asignación de servicios).
+     */
+    @GetMapping("/api/buscar")
+    @ResponseBody
+    public List<ClienteBuscable> buscarClientesActivos(@RequestParam(value = "q", required = false) String texto,
+                                                       @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return servicioCliente.buscarClientesActivos(texto, limite);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.example.facturacion.modelo.ClienteServicio;
+import com.example.facturacion.repositorio.RepositorioCliente.ClienteBuscable;
 import com.example.facturacion.servicio.ServicioCliente;
 import com.example.facturacion.servicio.ServicioClienteServicio;
 import com.example.facturacion.servicio.ServicioServicio;
@@ -53,8 +54,7 @@ public class ControladorClienteServicio {
     @GetMapping("/crear")
     public String mostrarFormularioCrear(Model model) {
         model.addAttribute("clienteServicio", new ClienteServicio());
-        model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-        model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+        cargarOpciones(model, null);
         return "clientes-servicios/crear";
     }
 
@@ -66,8 +66,7 @@ public class ControladorClienteServicio {
                                        org.springframework.web.servlet.mvc.support.RedirectAttributes ra) {
         try {
             if (clienteId == null || servicioId == null) {
-                model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-                model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+                cargarOpciones(model, clienteId);
                 model.addAttribute("error", "Debe seleccionar cliente y servicio");
                 return "clientes-servicios/crear";
             }
@@ -75,8 +74,7 @@ public class ControladorClienteServicio {
             var cliente = servicioCliente.obtenerClientePorId(clienteId);
             var servicio = servicioServicio.obtenerServicioPorId(servicioId);
             if (cliente == null || servicio == null) {
-                model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-                model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+                cargarOpciones(model, clienteId);
                 model.addAttribute("error", "Cliente o Servicio no encontrado");
                 return "clientes-servicios/crear";
             }
@@ -87,8 +85,7 @@ public class ControladorClienteServicio {
             ra.addFlashAttribute("success", "Asignación creada");
             return "redirect:/clientes-servicios/listar";
         } catch (IllegalArgumentException e) {
-            model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-            model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+            cargarOpciones(model, clienteId);
             model.addAttribute("error", e.getMessage());
             return "clientes-servicios/crear";
         }
@@ -103,8 +100,7 @@ public class ControladorClienteServicio {
             return "redirect:/clientes-servicios/listar";
         }
         model.addAttribute("clienteServicio", clienteServicio);
-        model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-        model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+        cargarOpciones(model, clienteServicio.getCliente() != null ? clienteServicio.getCliente().getId() : null);
         return "clientes-servicios/modificar";
     }
 
@@ -119,8 +115,7 @@ public class ControladorClienteServicio {
             ra.addFlashAttribute("success", "Asignación modificada");
             return "redirect:/clientes-servicios/listar";
         } catch (IllegalArgumentException e) {
-            model.addAttribute("clientes", servicioCliente.obtenerClientesActivos());
-            model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+            cargarOpciones(model, clienteId);
             model.addAttribute("error", e.getMessage());
             return "clientes-servicios/modificar";
         }
@@ -137,4 +132,19 @@ public class ControladorClienteServicio {
         }
         return "redirect:/clientes-servicios/listar";
     }
-}
\ No newline at end of file
+
+    /**
+     * Opciones de los formularios: los servicios activos y, si ya se eligió un cliente, sus datos para
+     * el buscador de clientes (que consulta /clientes/api/buscar en lugar de listar todos los clientes).
+     */
+    private void cargarOpciones(Model model, Long clienteId) {
+        model.addAttribute("servicios", servicioServicio.obtenerServiciosActivos());
+        if (clienteId != null) {
+            try {
+                model.addAttribute("clienteSeleccionado", ClienteBuscable.de(servicioCliente.obtenerClientePorId(clienteId)));
+            } catch (IllegalArgumentException e) {
+                // El cliente ya no existe: el formulario lo pide de nuevo
+            }
+        }
+    }
+}
@@ -23,14 +23,19 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.example.facturacion.modelo.DetalleTrabajoFacturacion;
 import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.TrabajoAnulacion;
+import com.example.facturacion.modelo.TrabajoFacturacion;
 import com.example.facturacion.modelo.enums.EstadoFactura;
-import com.example.facturacion.servicio.ResultadoFacturacionMasiva;
-import com.example.facturacion.servicio.ServicioCliente;
+import com.example.facturacion.repositorio.RepositorioClienteServicio.ServicioAsignado;
+import com.example.facturacion.repositorio.RepositorioFactura.FacturaListado;
 import com.example.facturacion.servicio.ServicioClienteServicio;
 import com.example.facturacion.servicio.ServicioFacturacion;
 import com.example.facturacion.servicio.ServicioNotaCredito;
 import com.example.facturacion.servicio.ServicioPago;
+import com.example.facturacion.servicio.ServicioTrabajoAnulacion;
+import com.example.facturacion.servicio.ServicioTrabajoFacturacion;
 
 @Controller
 @RequestMapping("/facturas")
@@ -41,9 +46,6 @@ public class ControladorFactura {
     @Autowired
     private ServicioFacturacion servicioFacturacion;
 
-    @Autowired
-    private ServicioCliente servicioCliente;
-
     @Autowired
     private ServicioNotaCredito servicioNotaCredito;
     
@@ -56,19 +58,18 @@ public class ControladorFactura {
     @Autowired
     private com.example.facturacion.servicio.ServicioServicio servicioServicio;
 
+    @Autowired
+    private ServicioTrabajoFacturacion servicioTrabajoFacturacion;
+
+    @Autowired
+    private ServicioTrabajoAnulacion servicioTrabajoAnulacion;
+
     // ==================== API AJAX ====================
     @GetMapping("/api/servicios-cliente/{clienteId}")
     @ResponseBody
-    public List<Map<String, Object>> obtenerServiciosCliente(@PathVariable Long clienteId) {
-        return servicioClienteServicio.obtenerServiciosPorCliente(clienteId).stream()
-            .map(cs -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", cs.getId()); // ID de ClienteServicio
-                map.put("nombre", cs.getServicio().getNombre());
-                map.put("precio", cs.getPrecio() != null ? cs.getPrecio() : cs.getServicio().getPrecio());
-                return map;
-            })
-            .toList();
+    public List<ServicioAsignado> obtenerServiciosCliente(@PathVariable Long clienteId) {
+        // Cada fila se serializa como {id (de ClienteServicio), nombre, precio}
+        return servicioClienteServicio.obtenerServiciosPorCliente(clienteId);
     }
 
     // ==================== LISTADO Y FILTROS ====================
@@ -80,7 +81,6 @@ public class ControladorFactura {
 
     @GetMapping("/nueva-individual")
     public String nuevaIndividual(Model model) {
-        model.addAttribute("listaClientes", servicioCliente.obtenerClientesActivos());
         model.addAttribute("active", "facturas");
         return "facturas/crear-individual";
     }
@@ -107,12 +107,11 @@ public class ControladorFactura {
         LocalDateTime hasta = (fechaHasta != null) ? fechaHasta.atTime(LocalTime.MAX) : null;
 
         // 2. Obtener datos filtrados
-        Page<Factura> facturasPage = servicioFacturacion.obtenerFacturasFiltradas(busqueda, estado, desde, hasta, page, size);
+        // (filas ya resueltas: esta vista se procesa sin sesión JPA abierta, ver ConfiguracionWeb)
+        Page<FacturaListado> facturasPage = servicioFacturacion.obtenerFacturasFiltradas(busqueda, estado, desde, hasta, page, size);
         
         // 3. Cargar combos
-        model.addAttribute("listaClientes", servicioCliente.obtenerClientesActivos()); 
         model.addAttribute("listaEstados", EstadoFactura.values());
-        model.addAttribute("listaServicios", servicioServicio.obtenerTodosLosServicios());
 
         // 4. Cargar datos
         model.addAttribute("facturasPage", facturasPage);
@@ -135,7 +134,7 @@ public class ControladorFactura {
     @GetMapping("/ver/{id}")
     public String verFactura(@PathVariable("id") Long id, Model model, RedirectAttributes redirectAttrs) {
         try {
-            Factura factura = servicioFacturacion.obtenerFacturaPorId(id);
+            Factura factura = servicioFacturacion.obtenerComprobante(id);
             model.addAttribute("factura", factura);
             model.addAttribute("active", "facturas");
             return "facturas/ver";
@@ -231,6 +230,9 @@ public class ControladorFactura {
         }
     }
 
+    /**
+     * Encola la facturación masiva como trabajo en segundo plano y redirige a la página de avance.
+     */
     @PostMapping("/generar-masiva")
     public String procesarFacturacionMasiva(
             @RequestParam(value = "tipoFacturacion", required = false, defaultValue = "mensual") String tipoFacturacion,
@@ -241,17 +243,16 @@ public class ControladorFactura {
             @RequestParam(value = "serviciosIds", required = false) List<Long> serviciosIds,
             RedirectAttributes redirectAttrs) {
         try {
-            ResultadoFacturacionMasiva resultado;
-            
             if (fechaEmision == null) {
                 fechaEmision = LocalDate.now();
             }
 
+            LocalDate inicio;
+            LocalDate fin;
             if ("rango".equals(tipoFacturacion) && fechaInicio != null && fechaFin != null) {
                 // Facturación con rango personalizado
-                resultado = servicioFacturacion.ejecutarFacturacionMasivaConRango(
-                    fechaEmision, fechaInicio, fechaFin, serviciosIds
-                );
+                inicio = fechaInicio;
+                fin = fechaFin;
             } else {
                 // Facturación mensual (automática o seleccionada)
                 YearMonth mesFacturado;
@@ -261,35 +262,15 @@ public class ControladorFactura {
                     // Default: mes anterior
                     mesFacturado = YearMonth.from(LocalDate.now()).minusMonths(1);
                 }
-                
-                LocalDate inicio = mesFacturado.atDay(1);
-                LocalDate fin = mesFacturado.atEndOfMonth();
-
-                resultado = servicioFacturacion.ejecutarFacturacionMasivaConRango(
-                    fechaEmision, inicio, fin, serviciosIds
-                );
+                inicio = mesFacturado.atDay(1);
+                fin = mesFacturado.atEndOfMonth();
             }
-            
-            if (resultado.getExitosas() > 0) {
-                redirectAttrs.addFlashAttribute("exito", 
-                    String.format("Facturación masiva completada. " +
-                                "Exitosas: %d | Fallidas: %d | Omitidas: %d | " +
-                                "Total facturado: $%.2f", 
-                                resultado.getExitosas(), 
-                                resultado.getFallidas(),
-                                resultado.getOmitidas(),
-                                resultado.getMontoTotalFacturado()));
-            } else {
-                redirectAttrs.addFlashAttribute("info", 
-                    String.format("El proceso finalizó sin generar facturas. " +
-                                "Fallidas: %d | Omitidas: %d", 
-                                resultado.getFallidas(),
-                                resultado.getOmitidas()));
-            }
-            
-            // Opcional: guardar detalles para mostrar después
-            // redirectAttrs.addFlashAttribute("detalles", resultado.getDetalles());
-            
+
+            TrabajoFacturacion trabajo = servicioTrabajoFacturacion.encolar(fechaEmision, inicio, fin, serviciosIds);
+            redirectAttrs.addFlashAttribute("info",
+                "Facturación masiva encolada (trabajo N° " + trabajo.getId() + "). Puede seguir su avance en esta página.");
+            return "redirect:/facturas/trabajos/" + trabajo.getId();
+
         } catch (IllegalArgumentException ex) {
             redirectAttrs.addFlashAttribute("error", "Validación AFIP: " + ex.getMessage());
         } catch (Exception ex) {
@@ -299,18 +280,165 @@ public class ControladorFactura {
         return "redirect:/facturas/listar";
     }
 
+    // ==================== TRABAJOS DE FACTURACIÓN MASIVA ====================
+
+    @GetMapping("/trabajos/{id}")
+    public String verTrabajo(@PathVariable Long id, Model model, RedirectAttributes redirectAttrs) {
+        try {
+            model.addAttribute("trabajo", servicioTrabajoFacturacion.obtenerTrabajo(id));
+            model.addAttribute("active", "facturas");
+            return "facturas/trabajo";
+        } catch (IllegalArgumentException ex) {
+            redirectAttrs.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/facturas/listar";
+        }
+    }
+
+    /**
+     * Avance de un trabajo (consultado periódicamente por la página del trabajo).
+     */
+    @GetMapping("/api/trabajos/{id}/progreso")
+    @ResponseBody
+    public Map<String, Object> obtenerProgresoTrabajo(@PathVariable Long id) {
+        TrabajoFacturacion trabajo = servicioTrabajoFacturacion.obtenerTrabajo(id);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", trabajo.getId());
+        map.put("estado", trabajo.getEstado().name());
+        map.put("estadoDescripcion", trabajo.getEstado().getDescripcion());
+        map.put("finalizado", trabajo.getEstado().isFinalizado());
+        map.put("totalClientes", trabajo.getTotalClientes());
+        map.put("procesados", trabajo.getProcesados());
+        map.put("exitosas", trabajo.getExitosas());
+        map.put("fallidas", trabajo.getFallidas());
+        map.put("omitidas", trabajo.getOmitidas());
+        map.put("montoTotalFacturado", trabajo.getMontoTotalFacturado());
+        map.put("clientesPorSegundo", trabajo.calcularClientesPorSegundo(ahora));
+        map.put("segundosRestantes", trabajo.calcularSegundosRestantes(ahora));
+        map.put("mensajeError", trabajo.getMensajeError());
+        return map;
+    }
+
+    /**
+     * Detalle por cliente de un trabajo, paginado y opcionalmente filtrado por uno o más
+     * estados separados por coma (EXITOSA, FALLIDA u OMITIDA; "FALLIDA,OMITIDA" para las incidencias).
+     */
+    @GetMapping("/api/trabajos/{id}/detalles")
+    @ResponseBody
+    public Map<String, Object> obtenerDetallesTrabajo(@PathVariable Long id,
+                                                      @RequestParam(value = "estado", required = false) String estado,
+                                                      @RequestParam(value = "page", defaultValue = "0") int page,
+                                                      @RequestParam(value = "size", defaultValue = "20") int size) {
+        Page<DetalleTrabajoFacturacion> detalles =
+            servicioTrabajoFacturacion.obtenerDetalles(id, estado, page, Math.min(size, 200));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("contenido", detalles.getContent().stream()
+            .map(d -> {
+                Map<String, Object> fila = new HashMap<>();
+                fila.put("clienteId", d.getClienteId());
+                fila.put("razonSocial", d.getRazonSocial());
+                fila.put("facturaId", d.getFacturaId());
+                fila.put("estado", d.getEstado());
+                fila.put("motivo", d.getMotivo());
+                fila.put("monto", d.getMonto());
+                return fila;
+            })
+            .toList());
+        map.put("pagina", detalles.getNumber());
+        map.put("totalPaginas", detalles.getTotalPages());
+        map.put("totalElementos", detalles.getTotalElements());
+        return map;
+    }
+
     @PostMapping("/anular/{id}")
     public String anularFactura(@PathVariable("id") Long id, RedirectAttributes redirectAttrs) {
         try {
             // Validamos en el servicio si tiene pagos antes de anular (agregado en ServicioFacturacion)
             servicioFacturacion.anularFactura(id); // Llama al método que coordina la anulación y creación de NC
             redirectAttrs.addFlashAttribute("exito", "Factura anulada correctamente. Se generó la Nota de Crédito.");
-        } catch (IllegalArgumentException ex) {
+        } catch (IllegalArgumentException | IllegalStateException ex) {
             redirectAttrs.addFlashAttribute("error", ex.getMessage());
         }
         return "redirect:/facturas/ver/" + id;
     }
 
+    // ==================== ANULACIÓN MASIVA ====================
+
+    /**
+     * Encola la anulación de todas las facturas emitidas por un trabajo de facturación masiva.
+     */
+    @PostMapping("/trabajos/{id}/anular")
+    public String anularTrabajo(@PathVariable Long id,
+                                @RequestParam(value = "motivo", required = false) String motivo,
+                                RedirectAttributes redirectAttrs) {
+        try {
+            TrabajoAnulacion anulacion = servicioTrabajoAnulacion.encolarTrabajo(id, motivo);
+            redirectAttrs.addFlashAttribute("info", "Anulación masiva encolada. Puede seguir su avance en esta página.");
+            return "redirect:/facturas/anulaciones/" + anulacion.getId();
+        } catch (IllegalArgumentException ex) {
+            redirectAttrs.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/facturas/trabajos/" + id;
+        }
+    }
+
+    /**
+     * Encola la anulación de todas las facturas no anuladas de un período facturado.
+     */
+    @PostMapping("/anular-periodo")
+    public String anularPeriodo(@RequestParam("fechaInicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+                                @RequestParam("fechaFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                                @RequestParam(value = "motivo", required = false) String motivo,
+                                RedirectAttributes redirectAttrs) {
+        try {
+            TrabajoAnulacion anulacion = servicioTrabajoAnulacion.encolarPeriodo(fechaInicio, fechaFin, motivo);
+            redirectAttrs.addFlashAttribute("info", "Anulación masiva encolada. Puede seguir su avance en esta página.");
+            return "redirect:/facturas/anulaciones/" + anulacion.getId();
+        } catch (IllegalArgumentException ex) {
+            redirectAttrs.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/facturas/listar";
+        }
+    }
+
+    @GetMapping("/anulaciones/{id}")
+    public String verAnulacion(@PathVariable Long id, Model model, RedirectAttributes redirectAttrs) {
+        try {
+            model.addAttribute("anulacion", servicioTrabajoAnulacion.obtenerAnulacion(id));
+            model.addAttribute("active", "facturas");
+            return "facturas/anulacion";
+        } catch (IllegalArgumentException ex) {
+            redirectAttrs.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/facturas/listar";
+        }
+    }
+
+    /**
+     * Avance de una anulación masiva (consultado periódicamente por la página de la anulación).
+     */
+    @GetMapping("/api/anulaciones/{id}/progreso")
+    @ResponseBody
+    public Map<String, Object> obtenerProgresoAnulacion(@PathVariable Long id) {
+        TrabajoAnulacion anulacion = servicioTrabajoAnulacion.obtenerAnulacion(id);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", anulacion.getId());
+        map.put("estado", anulacion.getEstado().name());
+        map.put("estadoDescripcion", anulacion.getEstado().getDescripcion());
+        map.put("finalizado", anulacion.getEstado().isFinalizado());
+        map.put("totalFacturas", anulacion.getTotalFacturas());
+        map.put("procesadas", anulacion.getProcesadas());
+        map.put("anuladas", anulacion.getAnuladas());
+        map.put("omitidas", anulacion.getOmitidas());
+        map.put("fallidas", anulacion.getFallidas());
+        map.put("montoAnulado", anulacion.getMontoAnulado());
+        map.put("facturasPorSegundo", anulacion.calcularFacturasPorSegundo(ahora));
+        map.put("segundosRestantes", anulacion.calcularSegundosRestantes(ahora));
+        map.put("mensajeError", anulacion.getMensajeError());
+        return map;
+    }
+
     @GetMapping("/ver-nota-credito/factura/{facturaId}")
     public String verNotaCreditoPorFactura(@PathVariable("facturaId") Long facturaId, Model model, RedirectAttributes redirectAttrs) {
         try {
@@ -1,5 +1,7 @@
 package com.example.facturacion.controlador;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +13,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.facturacion.modelo.Factura;
 import com.example.facturacion.modelo.Pago;
 import com.example.facturacion.modelo.enums.MedioPago;
 import com.example.facturacion.servicio.ServicioFacturacion;
+import com.example.facturacion.servicio.ServicioImportacionPagos;
 import com.example.facturacion.servicio.ServicioPago;
 
 @Controller
@@ -29,6 +33,9 @@ public class ControladorPago {
     @Autowired
     private ServicioFacturacion servicioFacturacion;
 
+    @Autowired
+    private ServicioImportacionPagos servicioImportacionPagos;
+
     /**
      * Formulario para registrar pago de una factura.
      */
@@ -82,6 +89,34 @@ public class ControladorPago {
         }
     }
 
+    /**
+     * Formulario para importar un archivo de rendición de pagos.
+     */
+    @GetMapping("/importar")
+    public String formularioImportacion() {
+        return "pagos/importar";
+    }
+
+    /**
+     * Importa el archivo de pagos y muestra el informe de conciliación.
+     */
+    @PostMapping("/importar")
+    public String importarPagos(@RequestParam("archivo") MultipartFile archivo, Model model,
+                                RedirectAttributes redirectAttrs) {
+        if (archivo.isEmpty()) {
+            redirectAttrs.addFlashAttribute("error", "Seleccione un archivo de pagos.");
+            return "redirect:/pagos/importar";
+        }
+        try (InputStream contenido = archivo.getInputStream()) {
+            model.addAttribute("resultado", servicioImportacionPagos.importar(contenido));
+            model.addAttribute("nombreArchivo", archivo.getOriginalFilename());
+            return "pagos/importar";
+        } catch (IOException | IllegalArgumentException ex) {
+            redirectAttrs.addFlashAttribute("error", "Error al importar pagos: " + ex.getMessage());
+            return "redirect:/pagos/importar";
+        }
+    }
+
     /**
      * Ver comprobante individual (Recibo X)
      */
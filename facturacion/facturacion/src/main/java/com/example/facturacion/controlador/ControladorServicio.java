@@ -1,5 +1,6 @@
 package com.example.facturacion.controlador;
 
+import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.facturacion.modelo.Servicio;
@@ -165,4 +167,13 @@ public class ControladorServicio {
         }
         return "redirect:/servicios/listar";
     }
-}
\ No newline at end of file
+
+    /**
+     * Aciertos y fallos de la caché del catálogo de servicios (JSON).
+     */
+    @GetMapping("/api/cache")
+    @ResponseBody
+    public Map<String, Map<String, Object>> obtenerEstadisticasCache() {
+        return servicioServicio.obtenerEstadisticasCache();
+    }
+}
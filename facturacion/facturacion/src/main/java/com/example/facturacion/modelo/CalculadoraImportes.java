@@ -0,0 +1,65 @@
+package com.example.facturacion.modelo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.example.facturacion.modelo.enums.Alicuota;
+
+/**
+ * Cálculo de importes e IVA en centavos (long), para los detalles de factura.
+ *
+ * Con un precio de hasta dos decimales y una alícuota del enum Alicuota, el neto y el IVA son
+ * enteros de centavos y la tasa es un entero en diezmilésimos (Alicuota.getPuntosBasicos()),
+ * así que el cálculo se hace sin BigDecimal intermedios y con el mismo redondeo HALF_UP que
+ * ivaDecimal. El resultado es idéntico (valor y escala) al del cálculo decimal.
+ * Los casos que no entran en un long se informan con ArithmeticException.
+ */
+public final class CalculadoraImportes {
+
+    public static final int ESCALA = 2;
+    private static final long DIEZ_MIL = 10_000;
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    private CalculadoraImportes() {
+    }
+
+    /**
+     * Importe en centavos.
+     * @throws ArithmeticException si tiene más de dos decimales o no entra en un long
+     */
+    public static long centavos(BigDecimal importe) {
+        if (importe.scale() > ESCALA) {
+            throw new ArithmeticException("Importe con más de " + ESCALA + " decimales: " + importe);
+        }
+        return importe.movePointRight(ESCALA).longValueExact();
+    }
+
+    /**
+     * IVA en centavos de un neto en centavos, redondeado HALF_UP (los medios centavos se alejan de cero).
+     * @throws ArithmeticException si el producto no entra en un long
+     */
+    public static long ivaCentavos(long netoCentavos, Alicuota alicuota) {
+        long producto = Math.multiplyExact(netoCentavos, alicuota.getPuntosBasicos());
+        long iva = producto / DIEZ_MIL;
+        if (Math.abs(producto % DIEZ_MIL) * 2 >= DIEZ_MIL) {
+            iva += Long.signum(producto);
+        }
+        return iva;
+    }
+
+    /**
+     * Importe con dos decimales a partir de centavos.
+     */
+    public static BigDecimal importe(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    /**
+     * IVA de un neto con cualquier alícuota y escala: neto * (alícuota / 100, a 4 decimales),
+     * redondeado HALF_UP a centavos. Es la definición de referencia del cálculo en centavos.
+     */
+    public static BigDecimal ivaDecimal(BigDecimal neto, BigDecimal alicuotaIva) {
+        BigDecimal porcentaje = alicuotaIva.divide(CIEN, 4, RoundingMode.HALF_UP);
+        return neto.multiply(porcentaje).setScale(ESCALA, RoundingMode.HALF_UP);
+    }
+}
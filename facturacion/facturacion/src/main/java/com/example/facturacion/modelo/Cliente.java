@@ -4,6 +4,9 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.example.facturacion.modelo.enums.CondicionFiscal;
 import com.example.facturacion.modelo.enums.CondicionPago;
 import com.example.facturacion.modelo.enums.EstadoCliente;
@@ -21,11 +24,13 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -41,6 +46,7 @@ import lombok.ToString;
  */
 @Entity
 @Table(name = "cliente")
+@DynamicUpdate
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @ToString(exclude = {"movimientos", "facturas", "pagos"})
 public class Cliente {
@@ -49,6 +55,16 @@ public class Cliente {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para control optimista de las modificaciones de datos del cliente.
+     * El saldo se actualiza con un UPDATE atómico que no cambia la versión
+     * (ver RepositorioCliente.sumarSaldo), así los movimientos no invalidan una edición en curso.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotBlank(message = "El DNI es obligatorio")
     @Pattern(regexp = "\\d{7,8}", message = "DNI debe tener 7 u 8 dígitos")
     @Column(name = "dni", unique = true, nullable = false, length = 8)
@@ -125,11 +141,22 @@ public class Cliente {
      * Saldo actual de la cuenta corriente del cliente.
      * Positivo = a favor del cliente (crédito)
      * Negativo = deuda del cliente
+     * Se modifica con un UPDATE atómico al registrar movimientos (RepositorioCliente.sumarSaldo);
+     * con @DynamicUpdate, guardar un cliente leído antes de ese UPDATE no pisa el saldo.
      */
     @Column(name = "saldo_cuenta_corriente", nullable = false, precision = 19, scale = 2)
     @Builder.Default
     private BigDecimal saldoCuentaCorriente = BigDecimal.ZERO;
 
+    /**
+     * Razón social, nombre, apellido, CUIT y DNI normalizados en una sola columna (ver TextoBusqueda).
+     * Se recalcula al guardar; las búsquedas por texto filtran solo esta columna, que en PostgreSQL
+     * tiene un índice de trigramas (ver PreparadorBusquedaClientes).
+     */
+    @Column(name = "texto_busqueda", length = 600)
+    @Setter(AccessLevel.NONE)
+    private String textoBusqueda;
+
     /**
      * Movimientos de cuenta corriente asociados a este cliente.
      */
@@ -154,12 +181,13 @@ public class Cliente {
     // ==================== Métodos de Negocio ====================
 
     /**
-     * Sincroniza el campo 'activo' con el estado.
+     * Sincroniza el campo 'activo' con el estado y recalcula el texto de búsqueda.
      */
     @PrePersist
     @PreUpdate
     protected void sincronizarEstado() {
         this.activo = (this.estado == EstadoCliente.ACTIVO);
+        this.textoBusqueda = TextoBusqueda.unir(razonSocial, nombre, apellido, cuit, dni);
     }
 
     /**
@@ -193,47 +221,6 @@ public class Cliente {
         return this.estado == EstadoCliente.ACTIVO;
     }
 
-    /**
-     * Registra un movimiento en la cuenta corriente y actualiza el saldo.
-     * @param movimiento Movimiento a registrar
-     */
-    public void registrarMovimiento(MovimientoCuentaCorriente movimiento) {
-        movimiento.setCliente(this);
-        this.movimientos.add(movimiento);
-        
-        // LÓGICA DE SALDO SEGÚN TU ENUM
-        switch (movimiento.getTipoMovimiento()) {
-            case FACTURA:
-            case CARGO:
-                // Aumenta la deuda del cliente
-                this.saldoCuentaCorriente = this.saldoCuentaCorriente.add(movimiento.getMonto());
-                break;
-            case PAGO:
-            case CREDITO:
-            case ANULACION: 
-                // Disminuye la deuda del cliente
-                this.saldoCuentaCorriente = this.saldoCuentaCorriente.subtract(movimiento.getMonto());
-                break;
-        }
-        
-        // movimiento.setSaldoHistorico(this.saldoCuentaCorriente); 
-    }
-    /**
-     * Calcula el saldo actual sumando todos los movimientos.
-     */
-    public BigDecimal calcularSaldoActual() {
-        return movimientos.stream()
-            .map(MovimientoCuentaCorriente::calcularImpactoEnSaldo)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    /**
-     * Recalcula y actualiza el saldo de la cuenta corriente.
-     */
-    public void recalcularSaldo() {
-        this.saldoCuentaCorriente = calcularSaldoActual();
-    }
-
     /**
      * Obtiene el nombre completo del cliente.
      */
@@ -9,9 +9,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,11 +23,13 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "cliente_servicio")
+@Table(name = "cliente_servicio",
+       indexes = @Index(name = "idx_cliente_servicio_cliente_activo", columnList = "id_cliente, activo"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ClienteServicio {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_servicio_seq")
+    @SequenceGenerator(name = "cliente_servicio_seq", sequenceName = "cliente_servicio_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
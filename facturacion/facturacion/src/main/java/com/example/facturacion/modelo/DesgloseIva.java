@@ -0,0 +1,93 @@
+package com.example.facturacion.modelo;
+
+import java.math.BigDecimal;
+
+import com.example.facturacion.modelo.enums.Alicuota;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+
+/**
+ * Totales de IVA de un comprobante (Factura o NotaCredito), calculados una sola vez al emitirlo
+ * y guardados como columnas: las vistas y consultas los leen sin recorrer los detalles.
+ *
+ * Con alícuota 0% no hay IVA; para esa alícuota se guarda el importe exento (suma de los subtotales).
+ */
+@Embeddable
+@Getter
+public class DesgloseIva {
+
+    // Importe neto: total del comprobante menos el IVA
+    @Column(name = "monto_neto", precision = 19, scale = 2)
+    private BigDecimal montoNeto;
+
+    @Column(name = "monto_iva", precision = 19, scale = 2)
+    private BigDecimal montoIva;
+
+    @Column(name = "iva_27", precision = 19, scale = 2)
+    private BigDecimal iva27;
+
+    @Column(name = "iva_21", precision = 19, scale = 2)
+    private BigDecimal iva21;
+
+    @Column(name = "iva_10_5", precision = 19, scale = 2)
+    private BigDecimal iva105;
+
+    @Column(name = "neto_exento", precision = 19, scale = 2)
+    private BigDecimal netoExento;
+
+    public DesgloseIva() {
+        this.montoNeto = BigDecimal.ZERO;
+        this.montoIva = BigDecimal.ZERO;
+        this.iva27 = BigDecimal.ZERO;
+        this.iva21 = BigDecimal.ZERO;
+        this.iva105 = BigDecimal.ZERO;
+        this.netoExento = BigDecimal.ZERO;
+    }
+
+    /**
+     * Suma un detalle del comprobante a los totales.
+     * @param alicuotaIva Porcentaje del detalle (27, 21, 10.5 o 0)
+     * @param montoIva IVA del detalle (null se toma como 0)
+     * @param subtotal Subtotal del detalle, IVA incluido
+     */
+    public void sumar(BigDecimal alicuotaIva, BigDecimal montoIva, BigDecimal subtotal) {
+        BigDecimal iva = montoIva != null ? montoIva : BigDecimal.ZERO;
+        this.montoIva = this.montoIva.add(iva);
+        // Una alícuota fuera del enum suma al IVA total, pero no a ninguna columna por alícuota
+        Alicuota alicuota = alicuotaIva != null ? Alicuota.buscar(alicuotaIva) : null;
+        if (alicuota == null) {
+            return;
+        }
+        switch (alicuota) {
+            case ALICUOTA_27 -> this.iva27 = this.iva27.add(iva);
+            case ALICUOTA_21 -> this.iva21 = this.iva21.add(iva);
+            case ALICUOTA_10_5 -> this.iva105 = this.iva105.add(iva);
+            case ALICUOTA_0 -> this.netoExento = this.netoExento.add(subtotal != null ? subtotal : BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Calcula el importe neto una vez sumados todos los detalles.
+     */
+    public void cerrar(BigDecimal total) {
+        this.montoNeto = (total != null ? total : BigDecimal.ZERO).subtract(montoIva);
+    }
+
+    /**
+     * IVA de una alícuota (0 para la alícuota exenta o un valor que no corresponde a ninguna).
+     */
+    public BigDecimal getIvaPorAlicuota(double valorAlicuota) {
+        Alicuota alicuota = Alicuota.buscar(valorAlicuota);
+        if (alicuota == null) {
+            return BigDecimal.ZERO;
+        }
+        return switch (alicuota) {
+            case ALICUOTA_27 -> iva27;
+            case ALICUOTA_21 -> iva21;
+            case ALICUOTA_10_5 -> iva105;
+            case ALICUOTA_0 -> BigDecimal.ZERO;
+        };
+    }
+}
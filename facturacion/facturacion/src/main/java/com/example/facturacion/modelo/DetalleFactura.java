@@ -1,7 +1,8 @@
 package com.example.facturacion.modelo;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+
+import com.example.facturacion.modelo.enums.Alicuota;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,20 +10,25 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "detalle_factura")
+// Índice por factura: lectura de los detalles de una factura
+@Table(name = "detalle_factura",
+       indexes = @Index(name = "idx_detalle_factura_factura", columnList = "factura_id"))
 @Getter @Setter @NoArgsConstructor
 public class DetalleFactura {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_factura_seq")
+    @SequenceGenerator(name = "detalle_factura_seq", sequenceName = "detalle_factura_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -54,6 +60,8 @@ public class DetalleFactura {
 
     /**
      * Calcula IVA y Subtotal basado en precio unitario, alícuota y cantidad.
+     * Con precios en centavos y alícuotas del enum Alicuota se calcula en long (CalculadoraImportes);
+     * el resto de los casos usa el cálculo decimal, con idéntico resultado.
      */
     public void calcularMontos() {
         if (precioUnitario == null || cantidad == null || alicuotaIva == null) {
@@ -62,17 +70,26 @@ public class DetalleFactura {
             return;
         }
 
-        BigDecimal cantidadBD = BigDecimal.valueOf(cantidad);
+        Alicuota alicuota = Alicuota.buscar(alicuotaIva);
+        if (alicuota != null && precioUnitario.scale() <= CalculadoraImportes.ESCALA) {
+            try {
+                long netoCentavos = Math.multiplyExact(CalculadoraImportes.centavos(precioUnitario), cantidad);
+                long ivaCentavos = CalculadoraImportes.ivaCentavos(netoCentavos, alicuota);
+                this.montoIva = CalculadoraImportes.importe(ivaCentavos);
+                this.subtotal = CalculadoraImportes.importe(Math.addExact(netoCentavos, ivaCentavos));
+                return;
+            } catch (ArithmeticException e) {
+                // Importes fuera del rango de long: se calcula en decimal
+            }
+        }
 
-        // 1. Calcular precio total neto (sin IVA) de este ítem
-        BigDecimal totalNeto = precioUnitario.multiply(cantidadBD);
+        // 1. Precio total neto (sin IVA) de este ítem
+        BigDecimal totalNeto = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
 
-        // 2. Calcular monto de IVA
-        // Fórmula: TotalNeto * (Alicuota / 100)
-        BigDecimal porcentaje = alicuotaIva.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
-        this.montoIva = totalNeto.multiply(porcentaje).setScale(2, RoundingMode.HALF_UP);
+        // 2. Monto de IVA: TotalNeto * (Alicuota / 100)
+        this.montoIva = CalculadoraImportes.ivaDecimal(totalNeto, alicuotaIva);
 
         // 3. Subtotal Final = Neto + IVA
         this.subtotal = totalNeto.add(this.montoIva);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.example.facturacion.modelo;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de un cliente dentro de un trabajo de facturación masiva.
+ * Se guarda el ID del trabajo (sin relación) porque cada fila se inserta en la transacción
+ * que factura al cliente y solo se consultan paginadas por trabajo.
+ */
+@Entity
+@Table(name = "detalle_trabajo_facturacion",
+       indexes = @Index(name = "idx_detalle_trabajo_estado", columnList = "trabajo_id, estado, id"))
+@Getter @Setter @NoArgsConstructor
+public class DetalleTrabajoFacturacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_trabajo_facturacion_seq")
+    @SequenceGenerator(name = "detalle_trabajo_facturacion_seq", sequenceName = "detalle_trabajo_facturacion_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "trabajo_id", nullable = false)
+    private Long trabajoId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "razon_social")
+    private String razonSocial;
+
+    @Column(name = "factura_id")
+    private Long facturaId;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "motivo", length = 1000)
+    private String motivo;
+
+    @Column(name = "monto", precision = 19, scale = 2)
+    private BigDecimal monto;
+}
@@ -6,11 +6,14 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.example.facturacion.modelo.enums.EstadoFactura;
 import com.example.facturacion.modelo.enums.TipoComprobante;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -18,24 +21,47 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "factura")
+@Table(name = "factura",
+       uniqueConstraints = @UniqueConstraint(name = Factura.RESTRICCION_CLAVE_IDEMPOTENCIA, columnNames = "clave_idempotencia"),
+       indexes = {
+           @Index(name = "idx_factura_cliente_periodo", columnList = "cliente_id, periodo, anulada"),
+           @Index(name = "idx_factura_periodo", columnList = "periodo, id")
+       })
 @Getter @Setter @NoArgsConstructor
 public class Factura {
 
+    public static final String RESTRICCION_CLAVE_IDEMPOTENCIA = "uk_factura_clave_idempotencia";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques (optimizador pooled): permite que Hibernate agrupe los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "factura_seq")
+    @SequenceGenerator(name = "factura_seq", sequenceName = "factura_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Versión para control optimista: dos pagos o anulaciones concurrentes sobre la misma factura
+     * no pueden pisarse el monto pagado ni el estado (la segunda falla y se reintenta).
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
@@ -57,6 +83,12 @@ public class Factura {
     @Column(name = "fecha_fin_periodo")
     private LocalDate fechaFinPeriodo;
 
+    // Período facturado como clave "inicio/fin" (ISO), derivada de las dos fechas anteriores.
+    // Con el índice (cliente_id, periodo, anulada) la detección de doble facturación es una
+    // búsqueda puntual que se resuelve solo con el índice.
+    @Column(name = "periodo", length = 21)
+    private String periodo;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "tipo_comprobante", nullable = false)
     private TipoComprobante tipoComprobante;
@@ -75,53 +107,104 @@ public class Factura {
     @Column(nullable = false)
     private boolean anulada = false;
 
+    // Clave única cliente|inicio|fin: impide facturar dos veces el mismo período a un cliente.
+    // Se libera al anular la factura y queda vacía en las refacturaciones forzadas.
+    @Column(name = "clave_idempotencia", length = 64)
+    private String claveIdempotencia;
+
     @OneToMany(mappedBy = "factura", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<DetalleFactura> detalles = new ArrayList<>();
 
+    // Neto e IVA por alícuota, calculados al emitir la factura (ver calcularDesgloseIva)
+    @Embedded
+    @Setter(AccessLevel.NONE)
+    private DesgloseIva desgloseIva;
+
     public void agregarDetalle(DetalleFactura detalle) {
         this.detalles.add(detalle);
         detalle.setFactura(this);
     }
 
     /**
-     * Suma el IVA de todos los detalles.
+     * Calcula los totales de IVA a partir de los detalles y el total (se guardan con la factura).
+     */
+    public void calcularDesgloseIva() {
+        this.desgloseIva = desgloseDeDetalles();
+    }
+
+    /**
+     * IVA total de la factura.
      * Thymeleaf lo llama como: factura.montoTotalIVA
      */
     public BigDecimal getMontoTotalIVA() {
-        if (detalles == null || detalles.isEmpty()) return BigDecimal.ZERO;
-        
-        return detalles.stream()
-                .map(d -> d.getMontoIva() != null ? d.getMontoIva() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return desglose().getMontoIva();
     }
 
     /**
-     * Calcula el Neto (Total - IVA).
+     * Importe neto (Total - IVA).
      * Thymeleaf lo llama como: factura.montoTotalNeto
      */
     public BigDecimal getMontoTotalNeto() {
-        // Si total es null, devolvemos 0
-        BigDecimal totalSeguro = this.total != null ? this.total : BigDecimal.ZERO;
-        return totalSeguro.subtract(getMontoTotalIVA());
+        return desglose().getMontoNeto();
     }
 
     /**
-     * Filtra y suma el IVA por alícuota (para el desglose del footer).
+     * IVA de una alícuota (para el desglose del footer).
      * Thymeleaf lo llama como: factura.getIvaPorAlicuota(21.0)
      */
     public BigDecimal getIvaPorAlicuota(double valorAlicuota) {
-        if (detalles == null || detalles.isEmpty()) return BigDecimal.ZERO;
-
-        BigDecimal target = BigDecimal.valueOf(valorAlicuota);
-        
-        return detalles.stream()
-                .filter(d -> d.getAlicuotaIva() != null && 
-                             d.getAlicuotaIva().stripTrailingZeros().compareTo(target.stripTrailingZeros()) == 0)
-                .map(DetalleFactura::getMontoIva)
-                .filter(val -> val != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return desglose().getIvaPorAlicuota(valorAlicuota);
+    }
+
+    // Las facturas emitidas antes de las columnas de desglose las tienen vacías hasta que
+    // CompletadorDesgloseIva las completa: mientras tanto se calcula desde los detalles
+    private DesgloseIva desglose() {
+        return desgloseIva != null ? desgloseIva : desgloseDeDetalles();
+    }
+
+    private DesgloseIva desgloseDeDetalles() {
+        DesgloseIva desglose = new DesgloseIva();
+        if (detalles != null) {
+            for (DetalleFactura detalle : detalles) {
+                desglose.sumar(detalle.getAlicuotaIva(), detalle.getMontoIva(), detalle.getSubtotal());
+            }
+        }
+        desglose.cerrar(total);
+        return desglose;
     }
 
+    /**
+     * Arma la clave de idempotencia de la factura de un cliente para un período.
+     */
+    public static String claveIdempotencia(Long clienteId, LocalDate inicioPeriodo, LocalDate finPeriodo) {
+        return clienteId + "|" + inicioPeriodo + "|" + finPeriodo;
+    }
+
+    /**
+     * Clave del período facturado: "inicio/fin" en formato ISO (null si falta alguna fecha).
+     */
+    public static String periodo(LocalDate inicioPeriodo, LocalDate finPeriodo) {
+        if (inicioPeriodo == null || finPeriodo == null) {
+            return null;
+        }
+        return inicioPeriodo + "/" + finPeriodo;
+    }
+
+    /**
+     * Asigna la clave de idempotencia según el cliente y el período facturado.
+     */
+    public void asignarClaveIdempotencia() {
+        this.claveIdempotencia = claveIdempotencia(cliente.getId(), fechaInicioPeriodo, fechaFinPeriodo);
+    }
+
+    /**
+     * Marca la factura como anulada y libera su clave, permitiendo volver a facturar el período.
+     */
+    public void anular() {
+        this.anulada = true;
+        this.estado = EstadoFactura.ANULADA;
+        this.claveIdempotencia = null;
+    }
 
     @PrePersist
     public void prePersist() {
@@ -135,6 +218,10 @@ public class Factura {
         if (this.estado == null) {
             this.estado = EstadoFactura.PENDIENTE_PAGO;
         }
+        this.periodo = periodo(fechaInicioPeriodo, fechaFinPeriodo);
+        if (this.desgloseIva == null) {
+            calcularDesgloseIva();
+        }
         // Regla AFIP: Almacenamiento obligatorio por 10 años (Esto se gestiona a nivel Backup/DB)
     }
 
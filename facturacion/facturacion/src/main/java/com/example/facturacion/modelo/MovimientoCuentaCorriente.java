@@ -13,20 +13,24 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "movimiento_cuenta_corriente")
+@Table(name = "movimiento_cuenta_corriente",
+       indexes = @Index(name = "idx_movimiento_cliente_fecha", columnList = "cliente_id, fecha_movimiento, id"))
 @Getter @Setter @NoArgsConstructor
 public class MovimientoCuentaCorriente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_cuenta_corriente_seq")
+    @SequenceGenerator(name = "movimiento_cuenta_corriente_seq", sequenceName = "movimiento_cuenta_corriente_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -63,18 +67,31 @@ public class MovimientoCuentaCorriente {
     @Column(name = "usuario_registro")
     private String usuarioRegistro;
 
+    // Saldo de la cuenta corriente inmediatamente después de este movimiento (libro con saldo acumulado).
+    // Permite obtener el saldo a cualquier fecha leyendo una sola fila por índice.
+    @Column(name = "saldo_resultante", precision = 19, scale = 2)
+    private BigDecimal saldoResultante;
+
     // === MÉTODO CLAVE PARA LA VISTA ===
     public BigDecimal calcularImpactoEnSaldo() {
-        if (this.monto == null) return BigDecimal.ZERO;
+        return impactoEnSaldo(this.tipoMovimiento, this.monto);
+    }
+
+    /**
+     * Impacto en el saldo de un movimiento del tipo y monto dados (positivo = aumenta la deuda).
+     * Lo usan también los recorridos que leen movimientos sin cargar la entidad.
+     */
+    public static BigDecimal impactoEnSaldo(TipoMovimiento tipoMovimiento, BigDecimal monto) {
+        if (monto == null || tipoMovimiento == null) return BigDecimal.ZERO;
         
-        switch (this.tipoMovimiento) {
+        switch (tipoMovimiento) {
             case FACTURA:
             case CARGO:
-                return this.monto; // Suman Deuda (Positivo)
+                return monto; // Suman Deuda (Positivo)
             case PAGO:
             case CREDITO:
             case ANULACION:
-                return this.monto.negate(); // Restan Deuda (Negativo)
+                return monto.negate(); // Restan Deuda (Negativo)
             default:
                 return BigDecimal.ZERO;
         }
@@ -9,6 +9,7 @@ import com.example.facturacion.modelo.enums.TipoComprobante;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -21,7 +22,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -32,7 +35,9 @@ import lombok.Setter;
 public class NotaCredito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques: permite agrupar en lotes JDBC los INSERT de la anulación masiva
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nota_credito_seq")
+    @SequenceGenerator(name = "nota_credito_seq", sequenceName = "nota_credito_seq", allocationSize = 50)
     private Long id;
 
     // Relación directa con la factura que anula
@@ -64,6 +69,11 @@ public class NotaCredito {
     @OneToMany(mappedBy = "notaCredito", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DetalleNotaCredito> detalles = new ArrayList<>();
 
+    // Neto e IVA por alícuota, calculados al emitir la NC (ver calcularDesgloseIva)
+    @Embedded
+    @Setter(AccessLevel.NONE)
+    private DesgloseIva desgloseIva;
+
     public void agregarDetalle(DetalleNotaCredito detalle) {
         this.detalles.add(detalle);
         detalle.setNotaCredito(this);
@@ -89,6 +99,9 @@ public class NotaCredito {
         if (this.tipoComprobante == null && this.cliente != null) {
             this.tipoComprobante = TipoComprobante.getTipoNotaCredito(this.cliente.getCondicionFiscal());
         }
+        if (this.desgloseIva == null) {
+            calcularDesgloseIva();
+        }
     }
     
     // Métodos puente
@@ -102,36 +115,48 @@ public class NotaCredito {
     // =============================================================
 
     /**
-     * Calcula el total de IVA de toda la NC.
+     * Calcula los totales de IVA a partir de los detalles y el total (se guardan con la NC).
+     */
+    public void calcularDesgloseIva() {
+        this.desgloseIva = desgloseDeDetalles();
+    }
+
+    /**
+     * Total de IVA de toda la NC.
      */
     public BigDecimal getTotalIva() {
-        if (detalles == null) return BigDecimal.ZERO;
-        return detalles.stream()
-                .map(DetalleNotaCredito::getMontoIva)
-                .filter(java.util.Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return desglose().getMontoIva();
     }
+
     /**
-     * Calcula el Importe Neto Gravado (Total Final - Total IVA).
+     * Importe Neto Gravado (Total Final - Total IVA).
      */
     public BigDecimal getImporteNetoGravado() {
-        if (this.total == null) return BigDecimal.ZERO;
-        return this.total.subtract(getTotalIva());
+        return desglose().getMontoNeto();
     }
 
     /**
-     * Calcula el total de IVA para una alícuota específica (ej: 21.0).
+     * Total de IVA para una alícuota específica (ej: 21.0).
      * Se usa para mostrar el desglose en el pie de página.
      */
     public BigDecimal getIvaPorAlicuota(double valorAlicuota) {
-        if (detalles == null) return BigDecimal.ZERO;
-        BigDecimal target = BigDecimal.valueOf(valorAlicuota);
-        
-        return detalles.stream()
-                .filter(d -> d.getAlicuotaIva() != null && 
-                             d.getAlicuotaIva().stripTrailingZeros().compareTo(target.stripTrailingZeros()) == 0)
-                .map(DetalleNotaCredito::getMontoIva)
-                .filter(java.util.Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return desglose().getIvaPorAlicuota(valorAlicuota);
+    }
+
+    // Las NC emitidas antes de las columnas de desglose las tienen vacías hasta que
+    // CompletadorDesgloseIva las completa: mientras tanto se calcula desde los detalles
+    private DesgloseIva desglose() {
+        return desgloseIva != null ? desgloseIva : desgloseDeDetalles();
+    }
+
+    private DesgloseIva desgloseDeDetalles() {
+        DesgloseIva desglose = new DesgloseIva();
+        if (detalles != null) {
+            for (DetalleNotaCredito detalle : detalles) {
+                desglose.sumar(detalle.getAlicuotaIva(), detalle.getMontoIva(), detalle.getSubtotal());
+            }
+        }
+        desglose.cerrar(total);
+        return desglose;
     }
-}
\ No newline at end of file
+}
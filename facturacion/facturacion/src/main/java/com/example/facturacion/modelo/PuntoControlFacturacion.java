@@ -0,0 +1,65 @@
+package com.example.facturacion.modelo;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Punto de control de una partición de clientes dentro de un trabajo de facturación masiva.
+ * Guarda el ID del último cliente cuyo lote quedó confirmado; al reanudar el trabajo la
+ * partición se recorre desde el cliente siguiente en lugar de hacerlo desde el principio.
+ * La partición se identifica por su ID final, que no cambia entre reanudaciones.
+ */
+@Entity
+@Table(name = "punto_control_facturacion",
+       uniqueConstraints = @UniqueConstraint(name = "uk_punto_control_particion",
+                                             columnNames = {"trabajo_id", "hasta_id"}))
+@Getter @Setter @NoArgsConstructor
+public class PuntoControlFacturacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trabajo_id", nullable = false)
+    private Long trabajoId;
+
+    @Column(name = "desde_id", nullable = false)
+    private Long desdeId;
+
+    @Column(name = "hasta_id", nullable = false)
+    private Long hastaId;
+
+    /**
+     * Último cliente procesado de la partición (null = todavía no se procesó ningún lote).
+     */
+    @Column(name = "ultimo_cliente_id")
+    private Long ultimoClienteId;
+
+    public PuntoControlFacturacion(Long trabajoId, Long desdeId, Long hastaId) {
+        this.trabajoId = trabajoId;
+        this.desdeId = desdeId;
+        this.hastaId = hastaId;
+    }
+
+    /**
+     * Primer ID de cliente que falta procesar en la partición.
+     */
+    public Long getSiguienteId() {
+        return ultimoClienteId != null ? ultimoClienteId + 1 : desdeId;
+    }
+
+    /**
+     * Indica si ya se procesaron todos los IDs de la partición.
+     */
+    public boolean isCompletado() {
+        return getSiguienteId() > hastaId;
+    }
+}
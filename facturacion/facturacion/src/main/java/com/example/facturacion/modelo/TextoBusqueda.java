@@ -0,0 +1,48 @@
+package com.example.facturacion.modelo;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Normalización de texto para búsquedas: minúsculas, sin acentos y con las palabras separadas por
+ * un único espacio. Los separadores entre dígitos se quitan, así "20-12345678-9" y "12.345.678"
+ * se comparan como "20123456789" y "12345678".
+ *
+ * Se usa igual al guardar (Cliente.textoBusqueda) y al buscar, para que ambos lados coincidan.
+ */
+public final class TextoBusqueda {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADOR_NUMERICO = Pattern.compile("(?<=\\d)[-.](?=\\d)");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private TextoBusqueda() {
+    }
+
+    /**
+     * Texto normalizado ("" si es nulo o no tiene letras ni dígitos).
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return "";
+        }
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        String unido = SEPARADOR_NUMERICO.matcher(sinAcentos).replaceAll("");
+        return SEPARADORES.matcher(unido.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /**
+     * Normaliza y une varios campos (los nulos se omiten).
+     */
+    public static String unir(String... campos) {
+        return Stream.of(campos)
+            .filter(Objects::nonNull)
+            .map(TextoBusqueda::normalizar)
+            .filter(campo -> !campo.isEmpty())
+            .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.facturacion.modelo;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Anulación masiva de facturas encolada desde la interfaz y ejecutada en segundo plano.
+ * Anula las facturas de un trabajo de facturación (trabajoFacturacionId) o las de un período
+ * (periodoInicio y periodoFin). Guarda los contadores de avance y el último ID recorrido,
+ * de modo que una anulación interrumpida por un reinicio continúa desde ese punto.
+ */
+@Entity
+@Table(name = "trabajo_anulacion")
+@Getter @Setter @NoArgsConstructor
+public class TrabajoAnulacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoTrabajoFacturacion estado = EstadoTrabajoFacturacion.PENDIENTE;
+
+    @Column(name = "trabajo_facturacion_id")
+    private Long trabajoFacturacionId;
+
+    @Column(name = "periodo_inicio")
+    private LocalDate periodoInicio;
+
+    @Column(name = "periodo_fin")
+    private LocalDate periodoFin;
+
+    /**
+     * Motivo indicado por el usuario (null = el motivo por defecto de la anulación masiva).
+     */
+    @Column(name = "motivo", length = 500)
+    private String motivo;
+
+    /**
+     * Cantidad de facturas a anular al iniciar (estimación para calcular el avance).
+     */
+    @Column(name = "total_facturas")
+    private Long totalFacturas;
+
+    @Column(name = "procesadas", nullable = false)
+    private long procesadas;
+
+    @Column(name = "anuladas", nullable = false)
+    private long anuladas;
+
+    @Column(name = "omitidas", nullable = false)
+    private long omitidas;
+
+    @Column(name = "fallidas", nullable = false)
+    private long fallidas;
+
+    @Column(name = "monto_anulado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal montoAnulado = BigDecimal.ZERO;
+
+    /**
+     * Clave del último lote procesado (ID de detalle del trabajo o ID de factura del período).
+     */
+    @Column(name = "ultimo_id", nullable = false)
+    private long ultimoId;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
+    @Column(name = "mensaje_error", length = 1000)
+    private String mensajeError;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
+
+    // ==================== Métodos de Negocio ====================
+
+    /**
+     * Indica si anula las facturas de un trabajo de facturación (si no, las de un período).
+     */
+    public boolean isPorTrabajo() {
+        return trabajoFacturacionId != null;
+    }
+
+    /**
+     * Marca la anulación como iniciada desde el principio y reinicia los contadores.
+     */
+    public void iniciar(Long totalFacturas) {
+        this.estado = EstadoTrabajoFacturacion.EN_CURSO;
+        this.fechaInicio = LocalDateTime.now();
+        this.fechaFin = null;
+        this.mensajeError = null;
+        this.totalFacturas = totalFacturas;
+        this.procesadas = 0;
+        this.anuladas = 0;
+        this.omitidas = 0;
+        this.fallidas = 0;
+        this.montoAnulado = BigDecimal.ZERO;
+        this.ultimoId = 0;
+    }
+
+    /**
+     * Marca la anulación como completada.
+     */
+    public void completar() {
+        this.estado = EstadoTrabajoFacturacion.COMPLETADO;
+        this.fechaFin = LocalDateTime.now();
+    }
+
+    /**
+     * Marca la anulación como fallida con el motivo indicado.
+     */
+    public void fallar(String motivo) {
+        this.estado = EstadoTrabajoFacturacion.FALLIDO;
+        this.fechaFin = LocalDateTime.now();
+        this.mensajeError = motivo != null && motivo.length() > 1000 ? motivo.substring(0, 1000) : motivo;
+    }
+
+    /**
+     * Facturas procesadas por segundo desde el inicio (0 si todavía no empezó).
+     */
+    public double calcularFacturasPorSegundo(LocalDateTime ahora) {
+        if (fechaInicio == null || procesadas == 0) {
+            return 0;
+        }
+        LocalDateTime hasta = fechaFin != null ? fechaFin : ahora;
+        double segundos = Duration.between(fechaInicio, hasta).toMillis() / 1000.0;
+        return segundos > 0 ? procesadas / segundos : 0;
+    }
+
+    /**
+     * Segundos estimados hasta terminar según el ritmo actual (null si no se puede estimar).
+     */
+    public Long calcularSegundosRestantes(LocalDateTime ahora) {
+        if (estado.isFinalizado()) {
+            return 0L;
+        }
+        double ritmo = calcularFacturasPorSegundo(ahora);
+        if (totalFacturas == null || ritmo <= 0) {
+            return null;
+        }
+        long restantes = Math.max(0, totalFacturas - procesadas);
+        return Math.round(restantes / ritmo);
+    }
+}
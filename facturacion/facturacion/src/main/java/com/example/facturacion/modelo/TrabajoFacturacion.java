@@ -0,0 +1,179 @@
+package com.example.facturacion.modelo;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Trabajo de facturación masiva encolado desde la interfaz y ejecutado en segundo plano.
+ * Guarda los parámetros del proceso y los contadores de avance, de modo que el estado
+ * sobrevive a un reinicio de la aplicación.
+ */
+@Entity
+@Table(name = "trabajo_facturacion")
+@Getter @Setter @NoArgsConstructor
+public class TrabajoFacturacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoTrabajoFacturacion estado = EstadoTrabajoFacturacion.PENDIENTE;
+
+    @Column(name = "fecha_emision", nullable = false)
+    private LocalDate fechaEmision;
+
+    @Column(name = "periodo_inicio", nullable = false)
+    private LocalDate periodoInicio;
+
+    @Column(name = "periodo_fin", nullable = false)
+    private LocalDate periodoFin;
+
+    /**
+     * IDs de servicios a facturar separados por coma (null = todos).
+     */
+    @Column(name = "servicios_ids", length = 1000)
+    private String serviciosIds;
+
+    /**
+     * Cantidad de clientes activos al iniciar (estimación para calcular el avance).
+     */
+    @Column(name = "total_clientes")
+    private Long totalClientes;
+
+    @Column(name = "procesados", nullable = false)
+    private long procesados;
+
+    @Column(name = "exitosas", nullable = false)
+    private long exitosas;
+
+    @Column(name = "fallidas", nullable = false)
+    private long fallidas;
+
+    @Column(name = "omitidas", nullable = false)
+    private long omitidas;
+
+    @Column(name = "monto_total_facturado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal montoTotalFacturado = BigDecimal.ZERO;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
+    @Column(name = "mensaje_error", length = 1000)
+    private String mensajeError;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
+
+    // ==================== Métodos de Negocio ====================
+
+    /**
+     * Asigna los servicios a facturar (null o vacío = todos).
+     */
+    public void setServiciosIdsLista(List<Long> ids) {
+        this.serviciosIds = (ids == null || ids.isEmpty())
+            ? null
+            : ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Obtiene los servicios a facturar (null = todos).
+     */
+    public List<Long> getServiciosIdsLista() {
+        if (serviciosIds == null || serviciosIds.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(serviciosIds.split(",")).map(Long::valueOf).toList();
+    }
+
+    /**
+     * Marca el trabajo como iniciado y reinicia los contadores.
+     */
+    public void iniciar(Long totalClientes) {
+        this.estado = EstadoTrabajoFacturacion.EN_CURSO;
+        this.fechaInicio = LocalDateTime.now();
+        this.fechaFin = null;
+        this.mensajeError = null;
+        this.totalClientes = totalClientes;
+        this.procesados = 0;
+        this.exitosas = 0;
+        this.fallidas = 0;
+        this.omitidas = 0;
+        this.montoTotalFacturado = BigDecimal.ZERO;
+    }
+
+    /**
+     * Marca el trabajo como completado.
+     */
+    public void completar() {
+        this.estado = EstadoTrabajoFacturacion.COMPLETADO;
+        this.fechaFin = LocalDateTime.now();
+    }
+
+    /**
+     * Marca el trabajo como fallido con el motivo indicado.
+     */
+    public void fallar(String motivo) {
+        this.estado = EstadoTrabajoFacturacion.FALLIDO;
+        this.fechaFin = LocalDateTime.now();
+        this.mensajeError = motivo != null && motivo.length() > 1000 ? motivo.substring(0, 1000) : motivo;
+    }
+
+    /**
+     * Clientes procesados por segundo desde el inicio (0 si todavía no empezó).
+     */
+    public double calcularClientesPorSegundo(LocalDateTime ahora) {
+        if (fechaInicio == null || procesados == 0) {
+            return 0;
+        }
+        LocalDateTime hasta = fechaFin != null ? fechaFin : ahora;
+        double segundos = Duration.between(fechaInicio, hasta).toMillis() / 1000.0;
+        return segundos > 0 ? procesados / segundos : 0;
+    }
+
+    /**
+     * Segundos estimados hasta terminar según el ritmo actual (null si no se puede estimar).
+     */
+    public Long calcularSegundosRestantes(LocalDateTime ahora) {
+        if (estado.isFinalizado()) {
+            return 0L;
+        }
+        double ritmo = calcularClientesPorSegundo(ahora);
+        if (totalClientes == null || ritmo <= 0) {
+            return null;
+        }
+        long restantes = Math.max(0, totalClientes - procesados);
+        return Math.round(restantes / ritmo);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.facturacion.modelo.enums;
 
+import java.math.BigDecimal;
+
 /**
  * Enum para los tipos de alícuota de IVA en Argentina.
  * Hay tres tasas, conocidas como alícuotas:
@@ -23,11 +25,18 @@ public enum Alicuota {
     ALICUOTA_10_5(10.5, "Reducida - Productos esenciales"),
     ALICUOTA_0(0.0, "Exento - No gravado");
 
+    // values() copia el arreglo en cada llamada: la búsqueda por valor usa esta copia única
+    private static final Alicuota[] TODAS = values();
+
     private final double valor;
+    private final BigDecimal valorDecimal;
+    private final int puntosBasicos;
     private final String descripcion;
 
     Alicuota(double valor, String descripcion) {
         this.valor = valor;
+        this.valorDecimal = BigDecimal.valueOf(valor);
+        this.puntosBasicos = (int) Math.round(valor * 100);
         this.descripcion = descripcion;
     }
 
@@ -35,10 +44,57 @@ public enum Alicuota {
         return valor;
     }
 
+    /**
+     * Porcentaje como BigDecimal (igual a BigDecimal.valueOf(getValor())), creado una sola vez
+     * para no instanciarlo en cada detalle facturado.
+     */
+    public BigDecimal getValorDecimal() {
+        return valorDecimal;
+    }
+
+    /**
+     * Tasa en diezmilésimos (21% = 2100, 10,5% = 1050), para el cálculo en centavos de CalculadoraImportes.
+     */
+    public int getPuntosBasicos() {
+        return puntosBasicos;
+    }
+
     public String getDescripcion() {
         return descripcion;
     }
     
+    /**
+     * Alícuota correspondiente al porcentaje guardado en la base.
+     * @throws IllegalArgumentException si el valor no corresponde a ninguna alícuota
+     */
+    public static Alicuota desdeValor(double valor) {
+        for (Alicuota alicuota : TODAS) {
+            if (Double.compare(alicuota.valor, valor) == 0) {
+                return alicuota;
+            }
+        }
+        throw new IllegalArgumentException("Valor de alícuota desconocido: " + valor);
+    }
+
+    /**
+     * Alícuota con el porcentaje dado (por ejemplo, el guardado en un detalle), o null si no hay ninguna.
+     */
+    public static Alicuota buscar(BigDecimal valor) {
+        return buscar(valor.doubleValue());
+    }
+
+    /**
+     * Igual que la versión anterior, sin convertir el porcentaje a BigDecimal.
+     */
+    public static Alicuota buscar(double valor) {
+        for (Alicuota alicuota : TODAS) {
+            if (Double.compare(alicuota.valor, valor) == 0) {
+                return alicuota;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return valor + "%";
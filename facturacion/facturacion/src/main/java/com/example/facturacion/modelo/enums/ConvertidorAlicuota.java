@@ -14,11 +14,6 @@ public class ConvertidorAlicuota implements AttributeConverter<Alicuota, Double>
     @Override
     public Alicuota convertToEntityAttribute(Double dbData) {
         if (dbData == null) return null;
-        for (Alicuota a : Alicuota.values()) {
-            if (Double.compare(a.getValor(), dbData) == 0) {
-                return a;
-            }
-        }
-        throw new IllegalArgumentException("Valor de alícuota desconocido: " + dbData);
+        return Alicuota.desdeValor(dbData);
     }
 }
\ No newline at end of file
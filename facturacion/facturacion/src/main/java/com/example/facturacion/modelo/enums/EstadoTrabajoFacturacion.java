@@ -0,0 +1,28 @@
+package com.example.facturacion.modelo.enums;
+
+/**
+ * Estados de un trabajo ejecutado en segundo plano (facturación o anulación masiva).
+ */
+public enum EstadoTrabajoFacturacion {
+    PENDIENTE("Pendiente"),
+    EN_CURSO("En curso"),
+    COMPLETADO("Completado"),
+    FALLIDO("Fallido");
+
+    private final String descripcion;
+
+    EstadoTrabajoFacturacion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Indica si el trabajo ya no va a avanzar.
+     */
+    public boolean isFinalizado() {
+        return this == COMPLETADO || this == FALLIDO;
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.facturacion.repositorio;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,12 +18,44 @@ import org.springframework.stereotype.Repository;
 import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.enums.EstadoCliente;
 
+import jakarta.persistence.LockModeType;
+
 /**
  * Repositorio para la entidad Cliente.
  * Proporciona métodos para operaciones CRUD y consultas personalizadas.
  */
 @Repository
 public interface RepositorioCliente extends JpaRepository<Cliente, Long> {
+
+    /**
+     * Obtiene el cliente con bloqueo de escritura (SELECT ... FOR UPDATE) hasta el fin de la
+     * transacción. Serializa los registros de movimientos de un mismo cliente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cliente c WHERE c.id = :id")
+    Optional<Cliente> findByIdParaActualizar(@Param("id") Long id);
+
+    /**
+     * Suma delta al saldo de cuenta corriente con un único UPDATE atómico, sin cargar el cliente.
+     * El UPDATE bloquea la fila hasta el fin de la transacción, por lo que los registros
+     * concurrentes de un mismo cliente se serializan.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cliente c SET c.saldoCuentaCorriente = c.saldoCuentaCorriente + :delta WHERE c.id = :id")
+    int sumarSaldo(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    /**
+     * Lee el saldo de cuenta corriente actual de la base (sin pasar por el contexto de persistencia).
+     */
+    @Query("SELECT c.saldoCuentaCorriente FROM Cliente c WHERE c.id = :id")
+    BigDecimal findSaldoById(@Param("id") Long id);
+
+    /**
+     * Versión por lote de findSaldoById: lee el saldo actual de varios clientes en una consulta.
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioCliente$SaldoCliente(c.id, c.saldoCuentaCorriente) " +
+           "FROM Cliente c WHERE c.id IN :ids")
+    List<SaldoCliente> findSaldosByIdIn(@Param("ids") Collection<Long> ids);
     
     // ==================== Validaciones de unicidad ====================
     
@@ -85,6 +123,54 @@ public interface RepositorioCliente extends JpaRepository<Cliente, Long> {
      */
     Page<Cliente> findByEstado(EstadoCliente estado, Pageable pageable);
     
+    /**
+     * Paginación por clave (seek): obtiene el siguiente lote de clientes con ID mayor a
+     * 'ultimoId' y hasta 'hastaId' inclusive, ordenado por ID.
+     * A diferencia de OFFSET, el costo no crece con la posición y no se saltea filas si
+     * cambia el estado de clientes ya recorridos. Usado por la facturación masiva.
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.estado = :estado AND c.id > :ultimoId AND c.id <= :hastaId ORDER BY c.id")
+    List<Cliente> findSiguienteLote(@Param("estado") EstadoCliente estado,
+                                    @Param("ultimoId") Long ultimoId,
+                                    @Param("hastaId") Long hastaId,
+                                    Limit limite);
+
+    /**
+     * Obtiene los IDs de clientes (de cualquier estado) siguientes a ultimoId, en orden ascendente.
+     * Permite recorrer todos los clientes por clave sin cargar las entidades.
+     */
+    @Query("SELECT c.id FROM Cliente c WHERE c.id > :ultimoId ORDER BY c.id")
+    List<Long> findIdsSiguientes(@Param("ultimoId") Long ultimoId, Limit limite);
+
+    /**
+     * Obtiene los datos de búsqueda (razón social, nombre, apellido, CUIT y DNI) de los clientes
+     * con el estado dado e ID mayor a ultimoId, en orden ascendente, sin cargar las entidades.
+     * Usado para armar el índice de búsqueda de clientes (IndiceClientes).
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioCliente$ClienteBuscable(" +
+           "c.id, c.razonSocial, c.nombre, c.apellido, c.cuit, c.dni) " +
+           "FROM Cliente c WHERE c.estado = :estado AND c.id > :ultimoId ORDER BY c.id")
+    List<ClienteBuscable> findBuscablesSiguientes(@Param("estado") EstadoCliente estado,
+                                                 @Param("ultimoId") Long ultimoId,
+                                                 Limit limite);
+
+    /**
+     * Cuenta los clientes con el estado dado.
+     */
+    long countByEstado(EstadoCliente estado);
+
+    /**
+     * Obtiene el menor ID de cliente con el estado dado (null si no hay clientes).
+     */
+    @Query("SELECT MIN(c.id) FROM Cliente c WHERE c.estado = :estado")
+    Long findMinIdByEstado(@Param("estado") EstadoCliente estado);
+
+    /**
+     * Obtiene el mayor ID de cliente con el estado dado (null si no hay clientes).
+     */
+    @Query("SELECT MAX(c.id) FROM Cliente c WHERE c.estado = :estado")
+    Long findMaxIdByEstado(@Param("estado") EstadoCliente estado);
+
     /**
      * Obtiene todos los clientes activos (usando enum EstadoCliente).
      */
@@ -104,13 +190,39 @@ public interface RepositorioCliente extends JpaRepository<Cliente, Long> {
     List<Cliente> findClientesConSaldoAFavor();
     
     /**
-     * Busca clientes por nombre, apellido, DNI o CUIT (búsqueda flexible).
+     * Busca clientes cuyo texto de búsqueda (razón social, nombre, apellido, CUIT y DNI normalizados)
+     * contiene el patrón. Filtra una sola columna, que en PostgreSQL tiene un índice de trigramas.
+     * @param patron Patrón LIKE ya normalizado, por ejemplo "%perez%" (ver PlanificadorBusqueda)
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.textoBusqueda LIKE :patron")
+    Page<Cliente> buscarPorTexto(@Param("patron") String patron, Pageable pageable);
+
+    /**
+     * Obtiene el ID del cliente con el CUIT dado (búsqueda exacta por índice único).
+     */
+    @Query("SELECT c.id FROM Cliente c WHERE c.cuit = :cuit")
+    Optional<Long> findIdByCuit(@Param("cuit") String cuit);
+
+    /**
+     * Obtiene el ID del cliente con el DNI dado (búsqueda exacta por índice único).
      */
-    @Query("SELECT c FROM Cliente c WHERE " +
-           "LOWER(c.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(c.apellido) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(c.razonSocial) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "c.dni LIKE CONCAT('%', :busqueda, '%') OR " +
-           "c.cuit LIKE CONCAT('%', :busqueda, '%')")
-    Page<Cliente> buscarClientes(@Param("busqueda") String busqueda, Pageable pageable);
-}
\ No newline at end of file
+    @Query("SELECT c.id FROM Cliente c WHERE c.dni = :dni")
+    Optional<Long> findIdByDni(@Param("dni") String dni);
+
+    /**
+     * Proyección cliente - saldo de cuenta corriente.
+     */
+    record SaldoCliente(Long clienteId, BigDecimal saldo) {
+    }
+
+    /**
+     * Proyección con los campos por los que se busca un cliente (y que muestra el buscador).
+     */
+    record ClienteBuscable(Long id, String razonSocial, String nombre, String apellido, String cuit, String dni) {
+
+        public static ClienteBuscable de(Cliente cliente) {
+            return new ClienteBuscable(cliente.getId(), cliente.getRazonSocial(), cliente.getNombre(),
+                                       cliente.getApellido(), cliente.getCuit(), cliente.getDni());
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.facturacion.repositorio;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,12 +33,52 @@ public interface RepositorioClienteServicio extends JpaRepository<ClienteServici
 
 	java.util.Optional<ClienteServicio> findByClienteIdAndServicioIdAndActivoTrue(Long clienteId, Long servicioId);
 
-    @Query("SELECT cs FROM ClienteServicio cs WHERE " +
+    String FILTROS_ASIGNACIONES =
            "(:activo IS NULL OR cs.activo = :activo) AND " +
-           "(:cliente IS NULL OR LOWER(cs.cliente.nombre) LIKE :cliente OR LOWER(cs.cliente.apellido) LIKE :cliente) AND " +
-           "(:servicio IS NULL OR LOWER(cs.servicio.nombre) LIKE :servicio)")
+           "(:cliente IS NULL OR LOWER(c.nombre) LIKE :cliente OR LOWER(c.apellido) LIKE :cliente) AND " +
+           "(:servicio IS NULL OR LOWER(s.nombre) LIKE :servicio)";
+
+    /**
+     * Página de asignaciones filtradas, con su cliente y servicio (fetch join): la vista del
+     * listado los muestra, y así no se cargan de a uno por fila.
+     */
+    @Query(value = "SELECT cs FROM ClienteServicio cs JOIN FETCH cs.cliente c JOIN FETCH cs.servicio s WHERE " +
+                   FILTROS_ASIGNACIONES,
+           countQuery = "SELECT COUNT(cs) FROM ClienteServicio cs JOIN cs.cliente c JOIN cs.servicio s WHERE " +
+                        FILTROS_ASIGNACIONES)
     Page<ClienteServicio> buscarClientesServicios(@Param("activo") Boolean activo, 
                                                   @Param("cliente") String cliente, 
                                                   @Param("servicio") String servicio, 
                                                   Pageable pageable);
+
+    /**
+     * Obtiene las asignaciones activas de un lote de clientes junto con su servicio (fetch join),
+     * en una sola consulta. Usado por la precarga de la facturación masiva.
+     */
+    @Query("SELECT cs FROM ClienteServicio cs JOIN FETCH cs.servicio " +
+           "WHERE cs.cliente.id IN :clienteIds AND cs.activo = true")
+    List<ClienteServicio> findActivosConServicioByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds);
+
+    /**
+     * Servicios activos de un cliente como filas livianas (sin entidades), resuelto con el índice
+     * (id_cliente, activo). El precio es el personalizado de la asignación o, si no tiene, el del servicio.
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioClienteServicio$ServicioAsignado(" +
+           "cs.id, s.nombre, COALESCE(cs.precio, s.precio)) " +
+           "FROM ClienteServicio cs JOIN cs.servicio s " +
+           "WHERE cs.cliente.id = :clienteId AND cs.activo = true ORDER BY cs.id")
+    List<ServicioAsignado> findServiciosAsignadosByClienteId(@Param("clienteId") Long clienteId);
+
+    /**
+     * Marca como facturadas las asignaciones indicadas con un único UPDATE.
+     */
+    @Modifying
+    @Query("UPDATE ClienteServicio cs SET cs.estaFacturado = true WHERE cs.id IN :ids")
+    int marcarFacturados(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Proyección de una asignación activa para elegir los servicios a facturar (ID de la asignación).
+     */
+    record ServicioAsignado(Long id, String nombre, BigDecimal precio) {
+    }
 }
@@ -0,0 +1,84 @@
+package com.example.facturacion.repositorio;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.facturacion.modelo.DetalleTrabajoFacturacion;
+
+/**
+ * Repositorio para el detalle por cliente de los trabajos de facturación masiva.
+ */
+@Repository
+public interface RepositorioDetalleTrabajoFacturacion extends JpaRepository<DetalleTrabajoFacturacion, Long> {
+
+    /**
+     * Obtiene una página del detalle de un trabajo.
+     */
+    Page<DetalleTrabajoFacturacion> findByTrabajoId(Long trabajoId, Pageable pageable);
+
+    /**
+     * Obtiene una página del detalle de un trabajo filtrado por estado (EXITOSA, FALLIDA u OMITIDA).
+     */
+    Page<DetalleTrabajoFacturacion> findByTrabajoIdAndEstado(Long trabajoId, String estado, Pageable pageable);
+
+    /**
+     * Obtiene una página del detalle de un trabajo con cualquiera de los estados dados
+     * (por ejemplo, fallidas y omitidas juntas).
+     */
+    Page<DetalleTrabajoFacturacion> findByTrabajoIdAndEstadoIn(Long trabajoId, Collection<String> estados, Pageable pageable);
+
+    /**
+     * Obtiene, en orden de ID de detalle, las facturas emitidas por un trabajo posteriores a desdeId
+     * (paginación por clave sobre el índice (trabajo_id, estado, id)).
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion$FacturaDeTrabajo(d.id, d.facturaId) " +
+           "FROM DetalleTrabajoFacturacion d " +
+           "WHERE d.trabajoId = :trabajoId AND d.estado = :estado AND d.facturaId IS NOT NULL AND d.id > :desdeId " +
+           "ORDER BY d.id")
+    List<FacturaDeTrabajo> findFacturasDeTrabajo(@Param("trabajoId") Long trabajoId,
+                                                 @Param("estado") String estado,
+                                                 @Param("desdeId") Long desdeId,
+                                                 Limit limite);
+
+    /**
+     * Cuenta el detalle de un trabajo por estado, con el monto facturado de cada estado
+     * (null si ninguna fila tiene monto). Permite rehacer los contadores de un trabajo a partir
+     * de su detalle al retomarlo.
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion$ConteoPorEstado(d.estado, COUNT(d), SUM(d.monto)) " +
+           "FROM DetalleTrabajoFacturacion d " +
+           "WHERE d.trabajoId = :trabajoId " +
+           "GROUP BY d.estado")
+    List<ConteoPorEstado> contarPorEstado(@Param("trabajoId") Long trabajoId);
+
+    /**
+     * Elimina el detalle de un trabajo (al reiniciarlo).
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DetalleTrabajoFacturacion d WHERE d.trabajoId = :trabajoId")
+    int eliminarPorTrabajo(@Param("trabajoId") Long trabajoId);
+
+    /**
+     * Proyección detalle de trabajo - factura emitida.
+     */
+    record FacturaDeTrabajo(Long detalleId, Long facturaId) {
+    }
+
+    /**
+     * Proyección estado - cantidad de clientes - monto facturado.
+     */
+    record ConteoPorEstado(String estado, Long cantidad, BigDecimal monto) {
+    }
+}
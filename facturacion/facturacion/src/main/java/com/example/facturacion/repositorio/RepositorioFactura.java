@@ -1,9 +1,12 @@
 package com.example.facturacion.repositorio;
 
-import java.time.LocalDate;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,42 +21,170 @@ import com.example.facturacion.modelo.enums.EstadoFactura;
 @Repository
 public interface RepositorioFactura extends JpaRepository<Factura, Long> {
     
-    @Query("SELECT f FROM Factura f WHERE " +
-           "(" +
-               ":busqueda IS NULL OR :busqueda = '' OR " +
-               "LOWER(f.cliente.razonSocial) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-               "LOWER(f.cliente.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-               "LOWER(f.cliente.apellido) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-               "f.cliente.cuit LIKE CONCAT('%', :busqueda, '%') OR " +
-               "f.cliente.dni LIKE CONCAT('%', :busqueda, '%')" +
-           ") " +
-           "AND (:estado IS NULL OR f.estado = :estado) " +
+    /**
+     * Selección común de los listados de facturas: una fila FacturaListado por factura, con los datos
+     * del cliente y el IVA guardado en la factura, en una sola consulta (sin entidades ni cargas diferidas).
+     * El IVA se informa en 0 mientras CompletadorDesgloseIva no completó las facturas anteriores al desglose.
+     */
+    String SELECT_LISTADO = "SELECT new com.example.facturacion.repositorio.RepositorioFactura$FacturaListado(" +
+           "f.id, f.fechaEmision, c.razonSocial, c.nombre, c.apellido, c.cuit, f.total, " +
+           "COALESCE(f.desgloseIva.montoIva, 0), " +
+           "f.montoPagado, f.estado, f.anulada) " +
+           "FROM Factura f JOIN f.cliente c ";
+
+    String FILTROS_LISTADO = "(:estado IS NULL OR f.estado = :estado) " +
            "AND (cast(:fechaDesde as timestamp) IS NULL OR f.fechaEmision >= :fechaDesde) " +
-           "AND (cast(:fechaHasta as timestamp) IS NULL OR f.fechaEmision <= :fechaHasta)")
-    Page<Factura> buscarConFiltros(
-            @Param("busqueda") String busqueda,
+           "AND (cast(:fechaHasta as timestamp) IS NULL OR f.fechaEmision <= :fechaHasta)";
+
+    /**
+     * Listado de facturas filtradas por estado y rango de fecha de emisión (los filtros nulos no se aplican).
+     */
+    @Query(value = SELECT_LISTADO + "WHERE " + FILTROS_LISTADO,
+           countQuery = "SELECT COUNT(f) FROM Factura f WHERE " + FILTROS_LISTADO)
+    Page<FacturaListado> buscarConFiltros(
             @Param("estado") EstadoFactura estado,
             @Param("fechaDesde") LocalDateTime fechaDesde,
             @Param("fechaHasta") LocalDateTime fechaHasta,
             Pageable pageable
     );
-    
+
+    /**
+     * Igual que buscarConFiltros, para las facturas de un cliente (búsqueda exacta por CUIT o DNI).
+     */
+    @Query(value = SELECT_LISTADO + "WHERE c.id = :clienteId AND " + FILTROS_LISTADO,
+           countQuery = "SELECT COUNT(f) FROM Factura f WHERE f.cliente.id = :clienteId AND " + FILTROS_LISTADO)
+    Page<FacturaListado> buscarDeClienteConFiltros(
+            @Param("clienteId") Long clienteId,
+            @Param("estado") EstadoFactura estado,
+            @Param("fechaDesde") LocalDateTime fechaDesde,
+            @Param("fechaHasta") LocalDateTime fechaHasta,
+            Pageable pageable
+    );
+
+    /**
+     * Igual que buscarConFiltros, para las facturas de clientes cuyo texto de búsqueda contiene el
+     * patrón (una sola columna de cliente, con índice de trigramas en PostgreSQL).
+     */
+    @Query(value = SELECT_LISTADO + "WHERE c.textoBusqueda LIKE :patron AND " + FILTROS_LISTADO,
+           countQuery = "SELECT COUNT(f) FROM Factura f WHERE f.cliente.textoBusqueda LIKE :patron AND " + FILTROS_LISTADO)
+    Page<FacturaListado> buscarPorTextoConFiltros(
+            @Param("patron") String patron,
+            @Param("estado") EstadoFactura estado,
+            @Param("fechaDesde") LocalDateTime fechaDesde,
+            @Param("fechaHasta") LocalDateTime fechaHasta,
+            Pageable pageable
+    );
+
     List<Factura> findByCliente(Cliente cliente);
     Page<Factura> findByCliente(Cliente cliente, Pageable pageable);
     Page<Factura> findAllByOrderByFechaEmisionDesc(Pageable pageable);
+
+    /**
+     * Obtiene el ID del cliente de una factura sin cargar la factura
+     * (para tomar el bloqueo de su cuenta antes de abrir la transacción).
+     */
+    @Query("SELECT f.cliente.id FROM Factura f WHERE f.id = :id")
+    Optional<Long> findClienteIdById(@Param("id") Long id);
     
     /**
-     * Verifica si existe una factura para un cliente en un período de fechas.
-     * Usado para evitar doble facturación del mismo período.
+     * Verifica si el cliente tiene una factura no anulada del período indicado (clave "inicio/fin").
+     * Usado para evitar doble facturación del mismo período. Todas las columnas consultadas
+     * están en el índice (cliente_id, periodo, anulada), por lo que PostgreSQL puede
+     * resolverla con un index-only scan sin leer las filas de la tabla.
      */
-    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Factura f " +
-           "WHERE f.cliente = :cliente " +
-           "AND FUNCTION('DATE', f.fechaEmision) >= :inicio " +
-           "AND FUNCTION('DATE', f.fechaEmision) <= :fin " +
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM factura f " +
+                   "WHERE f.cliente_id = :clienteId AND f.periodo = :periodo AND f.anulada = false)",
+           nativeQuery = true)
+    boolean existePeriodoFacturado(
+            @Param("clienteId") Long clienteId,
+            @Param("periodo") String periodo
+    );
+
+    /**
+     * Obtiene, entre los clientes indicados, los que ya tienen una factura no anulada del período.
+     * Versión por lote de existePeriodoFacturado, usada por la facturación masiva.
+     */
+    @Query("SELECT DISTINCT f.cliente.id FROM Factura f " +
+           "WHERE f.cliente.id IN :clienteIds " +
+           "AND f.periodo = :periodo " +
            "AND f.anulada = false")
-    boolean existsByClienteAndFechaEmisionBetween(
-            @Param("cliente") Cliente cliente,
-            @Param("inicio") LocalDate inicio,
-            @Param("fin") LocalDate fin
+    List<Long> findClienteIdsFacturadosEnPeriodo(
+            @Param("clienteIds") Collection<Long> clienteIds,
+            @Param("periodo") String periodo
+    );
+
+    /**
+     * Obtiene el cliente de cada una de las facturas indicadas, en una sola consulta.
+     * Las facturas inexistentes no aparecen en el resultado.
+     * Usado por la importación de pagos para agrupar un lote de pagos por cliente.
+     */
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioFactura$ClienteFactura(f.id, f.cliente.id) " +
+           "FROM Factura f WHERE f.id IN :facturaIds")
+    List<ClienteFactura> findClientesDeFacturas(@Param("facturaIds") Collection<Long> facturaIds);
+
+    /**
+     * Obtiene, en orden, los IDs de las facturas no anuladas del período (clave "inicio/fin")
+     * posteriores a desdeId. Paginación por clave para recorrer las facturas de un período
+     * sin OFFSET; usa el índice (periodo, id).
+     */
+    @Query("SELECT f.id FROM Factura f " +
+           "WHERE f.periodo = :periodo AND f.anulada = false AND f.id > :desdeId " +
+           "ORDER BY f.id")
+    List<Long> findIdsNoAnuladasDelPeriodo(
+            @Param("periodo") String periodo,
+            @Param("desdeId") Long desdeId,
+            Limit limite
     );
-}
\ No newline at end of file
+
+    /**
+     * Cuenta las facturas no anuladas del período (clave "inicio/fin"), para estimar el avance
+     * de su anulación masiva. Usa el índice (periodo, id).
+     */
+    @Query("SELECT COUNT(f) FROM Factura f WHERE f.periodo = :periodo AND f.anulada = false")
+    long countNoAnuladasDelPeriodo(@Param("periodo") String periodo);
+
+    /**
+     * Carga una factura con su cliente, sus detalles y el servicio de cada detalle en una sola
+     * consulta, para mostrar el comprobante completo.
+     */
+    @Query("SELECT f FROM Factura f " +
+           "JOIN FETCH f.cliente " +
+           "LEFT JOIN FETCH f.detalles d " +
+           "LEFT JOIN FETCH d.servicio " +
+           "WHERE f.id = :id")
+    Optional<Factura> findComprobanteById(@Param("id") Long id);
+
+    /**
+     * Carga las facturas no anuladas indicadas con su cliente y sus detalles en una sola consulta,
+     * para anularlas por lote. Las facturas inexistentes o ya anuladas no aparecen en el resultado.
+     */
+    @Query("SELECT DISTINCT f FROM Factura f " +
+           "JOIN FETCH f.cliente " +
+           "LEFT JOIN FETCH f.detalles " +
+           "WHERE f.id IN :facturaIds AND f.anulada = false")
+    List<Factura> findParaAnular(@Param("facturaIds") Collection<Long> facturaIds);
+
+    /**
+     * Proyección factura - cliente.
+     */
+    record ClienteFactura(Long facturaId, Long clienteId) {
+    }
+
+    /**
+     * Fila del listado de facturas (facturas/listar).
+     */
+    record FacturaListado(Long id, LocalDateTime fechaEmision, String razonSocial, String nombre, String apellido,
+                          String cuit, BigDecimal total, BigDecimal montoIva, BigDecimal montoPagado,
+                          EstadoFactura estado, boolean anulada) {
+
+        /**
+         * Razón social del cliente o, si no tiene, su nombre y apellido.
+         */
+        public String nombreCliente() {
+            if (razonSocial != null && !razonSocial.isBlank()) {
+                return razonSocial;
+            }
+            return ((nombre != null ? nombre : "") + " " + (apellido != null ? apellido : "")).strip();
+        }
+    }
+}
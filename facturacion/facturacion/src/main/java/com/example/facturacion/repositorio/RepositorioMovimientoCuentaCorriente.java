@@ -1,12 +1,18 @@
 package com.example.facturacion.repositorio;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +20,8 @@ import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.MovimientoCuentaCorriente;
 import com.example.facturacion.modelo.enums.TipoMovimiento;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repositorio para MovimientoCuentaCorriente.
  */
@@ -48,4 +56,34 @@ public interface RepositorioMovimientoCuentaCorriente
         @Param("cliente") Cliente cliente,
         @Param("fechaDesde") LocalDate fechaDesde,
         @Param("fechaHasta") LocalDate fechaHasta);
-}
\ No newline at end of file
+
+    /**
+     * Saldo resultante del último movimiento del cliente hasta la fecha dada (inclusive).
+     * Con el índice (cliente_id, fecha_movimiento, id) es una sola lectura de índice,
+     * sin importar la cantidad de movimientos. Usar con Limit.of(1).
+     */
+    @Query("SELECT m.saldoResultante FROM MovimientoCuentaCorriente m " +
+           "WHERE m.cliente.id = :clienteId AND m.fechaMovimiento <= :fecha " +
+           "ORDER BY m.fechaMovimiento DESC, m.id DESC")
+    List<BigDecimal> findSaldoAl(
+        @Param("clienteId") Long clienteId,
+        @Param("fecha") LocalDateTime fecha,
+        Limit limite);
+
+    /**
+     * Recorre los movimientos de un cliente en el orden del libro, sin cargar entidades,
+     * para verificar el saldo acumulado con memoria constante.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.facturacion.repositorio.RepositorioMovimientoCuentaCorriente$SaldoMovimiento(" +
+           "m.id, m.tipoMovimiento, m.monto, m.saldoResultante) " +
+           "FROM MovimientoCuentaCorriente m WHERE m.cliente.id = :clienteId " +
+           "ORDER BY m.fechaMovimiento, m.id")
+    Stream<SaldoMovimiento> streamSaldosPorCliente(@Param("clienteId") Long clienteId);
+
+    /**
+     * Datos de un movimiento necesarios para recalcular el saldo acumulado.
+     */
+    record SaldoMovimiento(Long id, TipoMovimiento tipoMovimiento, BigDecimal monto, BigDecimal saldoResultante) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.facturacion.repositorio;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.facturacion.modelo.PuntoControlFacturacion;
+
+/**
+ * Repositorio para los puntos de control por partición de los trabajos de facturación masiva.
+ */
+@Repository
+public interface RepositorioPuntoControlFacturacion extends JpaRepository<PuntoControlFacturacion, Long> {
+
+    /**
+     * Obtiene los puntos de control de un trabajo en orden de partición.
+     */
+    List<PuntoControlFacturacion> findByTrabajoIdOrderByDesdeIdAsc(Long trabajoId);
+
+    /**
+     * Registra el último cliente procesado de una partición. Nunca retrocede: si llega un
+     * ID menor al ya registrado, no se modifica.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PuntoControlFacturacion p SET p.ultimoClienteId = :ultimoClienteId " +
+           "WHERE p.trabajoId = :trabajoId AND p.hastaId = :hastaId " +
+           "AND (p.ultimoClienteId IS NULL OR p.ultimoClienteId < :ultimoClienteId)")
+    int avanzar(@Param("trabajoId") Long trabajoId,
+                @Param("hastaId") Long hastaId,
+                @Param("ultimoClienteId") Long ultimoClienteId);
+
+    /**
+     * Elimina los puntos de control de un trabajo (al iniciarlo desde cero).
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PuntoControlFacturacion p WHERE p.trabajoId = :trabajoId")
+    int eliminarPorTrabajo(@Param("trabajoId") Long trabajoId);
+}
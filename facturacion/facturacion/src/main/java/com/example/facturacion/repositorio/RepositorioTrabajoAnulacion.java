@@ -0,0 +1,46 @@
+package com.example.facturacion.repositorio;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.facturacion.modelo.TrabajoAnulacion;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+
+/**
+ * Repositorio para las anulaciones masivas en segundo plano.
+ */
+@Repository
+public interface RepositorioTrabajoAnulacion extends JpaRepository<TrabajoAnulacion, Long> {
+
+    /**
+     * Obtiene las anulaciones en los estados dados, en orden de creación.
+     */
+    List<TrabajoAnulacion> findByEstadoInOrderByIdAsc(Collection<EstadoTrabajoFacturacion> estados);
+
+    /**
+     * Suma el resultado de un lote a los contadores de una anulación en curso y guarda la clave
+     * del último lote procesado, con un único UPDATE y sin cargar la entidad.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoAnulacion t SET t.procesadas = t.procesadas + :procesadas, " +
+           "t.anuladas = t.anuladas + :anuladas, t.omitidas = t.omitidas + :omitidas, " +
+           "t.fallidas = t.fallidas + :fallidas, t.montoAnulado = t.montoAnulado + :monto, " +
+           "t.ultimoId = :ultimoId " +
+           "WHERE t.id = :id")
+    int sumarProgreso(@Param("id") Long id,
+                      @Param("procesadas") long procesadas,
+                      @Param("anuladas") long anuladas,
+                      @Param("omitidas") long omitidas,
+                      @Param("fallidas") long fallidas,
+                      @Param("monto") BigDecimal monto,
+                      @Param("ultimoId") long ultimoId);
+}
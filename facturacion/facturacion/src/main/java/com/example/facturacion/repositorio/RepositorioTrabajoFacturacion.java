@@ -0,0 +1,53 @@
+package com.example.facturacion.repositorio;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.facturacion.modelo.TrabajoFacturacion;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+
+/**
+ * Repositorio para los trabajos de facturación masiva.
+ */
+@Repository
+public interface RepositorioTrabajoFacturacion extends JpaRepository<TrabajoFacturacion, Long> {
+
+    /**
+     * Obtiene los trabajos en los estados dados, en orden de creación.
+     */
+    List<TrabajoFacturacion> findByEstadoInOrderByIdAsc(Collection<EstadoTrabajoFacturacion> estados);
+
+    /**
+     * Obtiene una página de trabajos, los más recientes primero.
+     */
+    Page<TrabajoFacturacion> findAllByOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Suma el avance de un lote a los contadores de un trabajo en curso con un único UPDATE,
+     * sin cargar la entidad. Al ser incremental, las particiones que terminan lotes en
+     * paralelo no se pisan entre sí.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrabajoFacturacion t SET t.procesados = t.procesados + :procesados, " +
+           "t.exitosas = t.exitosas + :exitosas, t.fallidas = t.fallidas + :fallidas, " +
+           "t.omitidas = t.omitidas + :omitidas, " +
+           "t.montoTotalFacturado = t.montoTotalFacturado + :monto " +
+           "WHERE t.id = :id")
+    int sumarProgreso(@Param("id") Long id,
+                      @Param("procesados") long procesados,
+                      @Param("exitosas") long exitosas,
+                      @Param("fallidas") long fallidas,
+                      @Param("omitidas") long omitidas,
+                      @Param("monto") BigDecimal monto);
+}
@@ -0,0 +1,127 @@
+package com.example.facturacion.servicio;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Control de concurrencia de las operaciones sobre la cuenta corriente de un cliente
+ * (pagos, anulaciones).
+ *
+ * Combina dos mecanismos:
+ * - Un bloqueo en memoria por franjas, indexado por ID de cliente: las operaciones de un mismo
+ *   cliente dentro de esta JVM se ejecutan de a una (cuentas con mucho movimiento no generan
+ *   conflictos en cadena), mientras que las de clientes distintos avanzan en paralelo.
+ * - Control optimista (@Version en Cliente y Factura) con reintento acotado: si otra instancia
+ *   o proceso modificó las mismas filas, la transacción falla al escribir y se repite completa.
+ */
+@Component
+public class ControlConcurrenciaCuentas {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlConcurrenciaCuentas.class);
+    // Potencia de 2; con IDs secuenciales los clientes se reparten de forma pareja entre las franjas
+    private static final int FRANJAS = 64;
+    private static final long ESPERA_BASE_MS = 10;
+
+    private final ReentrantLock[] bloqueos = new ReentrantLock[FRANJAS];
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Cantidad máxima de intentos ante un conflicto de versión.
+     */
+    @Value("${facturacion.cuentas.max-intentos:3}")
+    private int maxIntentos;
+
+    public ControlConcurrenciaCuentas() {
+        for (int i = 0; i < FRANJAS; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Ejecuta la operación sobre la cuenta del cliente en su propia transacción, con la franja
+     * del cliente bloqueada hasta el commit, y la reintenta ante un conflicto de versión.
+     * Si ya hay una transacción en curso, la operación se ejecuta una sola vez dentro de ella:
+     * un reintento no puede deshacer lo hecho antes por el llamador, que es quien debe reintentar.
+     *
+     * @param clienteId Cliente cuya cuenta se modifica
+     * @param operacion Operación transaccional; debe poder repetirse desde el principio
+     * @return Resultado de la operación
+     * @throws IllegalStateException si se agotan los intentos
+     */
+    public <T> T ejecutar(Long clienteId, Supplier<T> operacion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operacion.get();
+        }
+        return ejecutarBloqueado(new int[] { franja(clienteId) }, "La cuenta del cliente " + clienteId + " fue modificada", operacion);
+    }
+
+    /**
+     * Igual que ejecutar(clienteId, operacion), para una operación que modifica las cuentas de
+     * varios clientes en una misma transacción (operaciones por lotes). Las franjas se toman en
+     * orden ascendente, de modo que dos operaciones por lotes no pueden bloquearse mutuamente.
+     * Mientras dura la transacción se demoran las operaciones de cualquier cliente de esas franjas:
+     * conviene usarla con lotes acotados.
+     */
+    public <T> T ejecutar(Collection<Long> clienteIds, Supplier<T> operacion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operacion.get();
+        }
+        int[] franjas = clienteIds.stream().mapToInt(ControlConcurrenciaCuentas::franja).distinct().sorted().toArray();
+        return ejecutarBloqueado(franjas, "Las cuentas de " + clienteIds.size() + " clientes fueron modificadas", operacion);
+    }
+
+    private <T> T ejecutarBloqueado(int[] franjas, String conflicto, Supplier<T> operacion) {
+        int bloqueadas = 0;
+        try {
+            for (int franja : franjas) {
+                bloqueos[franja].lock();
+                bloqueadas++;
+            }
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            int intentos = Math.max(1, maxIntentos);
+            for (int intento = 1; ; intento++) {
+                try {
+                    return transaccion.execute(status -> operacion.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (intento >= intentos) {
+                        throw new IllegalStateException(conflicto + " por otra operación en simultáneo. Intente nuevamente.", e);
+                    }
+                    log.debug("{} (intento {}/{})", conflicto, intento, intentos);
+                    esperar(intento);
+                }
+            }
+        } finally {
+            for (int i = bloqueadas - 1; i >= 0; i--) {
+                bloqueos[franjas[i]].unlock();
+            }
+        }
+    }
+
+    static int franja(Long clienteId) {
+        return Long.hashCode(clienteId) & (FRANJAS - 1);
+    }
+
+    // Espera creciente con una parte al azar, para que dos instancias en conflicto no reintenten a la vez
+    private void esperar(int intento) {
+        try {
+            Thread.sleep(ESPERA_BASE_MS * intento + ThreadLocalRandom.current().nextLong(ESPERA_BASE_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+}
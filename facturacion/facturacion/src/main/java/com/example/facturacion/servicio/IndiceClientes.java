@@ -0,0 +1,217 @@
+package com.example.facturacion.servicio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.TextoBusqueda;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioCliente.ClienteBuscable;
+
+/**
+ * Índice en memoria, por prefijo, de los clientes activos para el buscador de clientes
+ * de los formularios (reemplaza a los combos que cargaban todos los clientes).
+ *
+ * Cada palabra de la razón social, el nombre y el apellido, el CUIT y el DNI se guardan
+ * normalizados (TextoBusqueda) en un mapa ordenado: los clientes cuyo término empieza
+ * con un texto son un rango contiguo del mapa, así que buscar los primeros k cuesta O(log n + k)
+ * sin consultar la base. Con varias palabras, cada una debe ser prefijo de algún término del cliente.
+ *
+ * Se arma con una lectura por lotes la primera vez que se usa, y luego se actualiza con cada alta,
+ * modificación, baja, suspensión y reactivación hecha por ServicioCliente, una vez confirmada
+ * la transacción. Las lecturas no se bloquean; las actualizaciones se aplican de a una.
+ */
+@Component
+public class IndiceClientes {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceClientes.class);
+    private static final int LOTE_CARGA = 1000;
+
+    // Clave: término + '\0' + ID (un cliente puede compartir término con otros) -> ID de cliente
+    private final ConcurrentSkipListMap<String, Long> terminos = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entrada> clientes = new ConcurrentHashMap<>();
+    private volatile boolean cargado = false;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    /**
+     * Cliente indexado y las claves que ocupa en el mapa de términos.
+     */
+    private record Entrada(ClienteBuscable cliente, List<String> terminos, List<String> claves) {
+
+        boolean coincide(List<String> palabras) {
+            for (String palabra : palabras) {
+                if (terminos.stream().noneMatch(t -> t.startsWith(palabra))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Busca clientes activos cuyos términos empiecen con las palabras del texto.
+     * @param texto Texto ingresado (una o más palabras, o parte del CUIT/DNI)
+     * @param limite Cantidad máxima de resultados
+     * @return Hasta 'limite' clientes; con una palabra, en orden alfabético del término coincidente
+     */
+    public List<ClienteBuscable> buscar(String texto, int limite) {
+        List<String> palabras = normalizar(texto);
+        if (palabras.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        asegurarCargado();
+
+        // Se recorren a la vez los rangos de todas las palabras, uno por vez cada uno: los candidatos
+        // de la palabra más selectiva aparecen pronto aunque las demás coincidan con casi todos
+        List<Iterator<Long>> rangos = new ArrayList<>(palabras.size());
+        for (String palabra : palabras) {
+            rangos.add(terminos.subMap(palabra, palabra + Character.MAX_VALUE).values().iterator());
+        }
+        List<ClienteBuscable> resultado = new ArrayList<>(Math.min(limite, 64));
+        Set<Long> vistos = new HashSet<>();
+        while (resultado.size() < limite && rangos.stream().anyMatch(Iterator::hasNext)) {
+            for (int i = 0; i < rangos.size() && resultado.size() < limite; i++) {
+                Iterator<Long> rango = rangos.get(i);
+                if (!rango.hasNext()) {
+                    continue;
+                }
+                Long id = rango.next();
+                if (!vistos.add(id)) {
+                    continue;
+                }
+                Entrada entrada = clientes.get(id);
+                if (entrada != null && entrada.coincide(palabras)) {
+                    resultado.add(entrada.cliente());
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Refleja en el índice el estado actual del cliente: lo agrega o reemplaza si está activo
+     * y lo quita si no. Dentro de una transacción, el cambio se aplica recién al confirmarla.
+     */
+    public void actualizar(Cliente cliente) {
+        ClienteBuscable datos = ClienteBuscable.de(cliente);
+        boolean activo = cliente.getEstado() == EstadoCliente.ACTIVO;
+        Runnable cambio = () -> {
+            if (activo) {
+                agregar(datos);
+            } else {
+                quitar(datos.id());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    /**
+     * Cantidad de clientes indexados (0 si el índice todavía no se armó).
+     */
+    public int getCantidad() {
+        return clientes.size();
+    }
+
+    private void asegurarCargado() {
+        if (!cargado) {
+            cargar();
+        }
+    }
+
+    private synchronized void cargar() {
+        if (cargado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long ultimoId = 0;
+        List<ClienteBuscable> lote;
+        do {
+            lote = repositorioCliente.findBuscablesSiguientes(EstadoCliente.ACTIVO, ultimoId, Limit.of(LOTE_CARGA));
+            for (ClienteBuscable cliente : lote) {
+                indexar(cliente);
+            }
+            if (!lote.isEmpty()) {
+                ultimoId = lote.get(lote.size() - 1).id();
+            }
+        } while (lote.size() == LOTE_CARGA);
+        cargado = true;
+        log.info("Índice de clientes armado: {} clientes activos, {} términos en {} ms",
+                 clientes.size(), terminos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Antes de la primera búsqueda no hay nada que actualizar: la carga leerá el estado confirmado
+    private synchronized void agregar(ClienteBuscable cliente) {
+        if (cargado) {
+            indexar(cliente);
+        }
+    }
+
+    private synchronized void quitar(Long id) {
+        if (cargado) {
+            desindexar(id);
+        }
+    }
+
+    private void indexar(ClienteBuscable cliente) {
+        desindexar(cliente.id());
+        List<String> terminosCliente = normalizar(String.join(" ",
+            nulo(cliente.razonSocial()), nulo(cliente.nombre()), nulo(cliente.apellido()),
+            nulo(cliente.cuit()), nulo(cliente.dni())));
+        List<String> claves = new ArrayList<>(terminosCliente.size());
+        for (String termino : terminosCliente) {
+            String clave = termino + '\0' + cliente.id();
+            terminos.put(clave, cliente.id());
+            claves.add(clave);
+        }
+        clientes.put(cliente.id(), new Entrada(cliente, terminosCliente, claves));
+    }
+
+    private void desindexar(Long id) {
+        Entrada anterior = clientes.remove(id);
+        if (anterior != null) {
+            anterior.claves().forEach(terminos::remove);
+        }
+    }
+
+    /**
+     * Palabras distintas del texto, normalizadas como en TextoBusqueda.
+     */
+    static List<String> normalizar(String texto) {
+        String normalizado = TextoBusqueda.normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(normalizado.split(" ")).distinct().toList();
+    }
+
+    private static String nulo(String valor) {
+        return valor == null ? "" : valor;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.facturacion.servicio;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Motor de facturación masiva particionada.
+ *
+ * Divide el espacio de IDs de clientes activos en rangos y los procesa en un pool
+ * acotado de hilos. Cada partición se ejecuta en su propia transacción y produce un
+ * ResultadoFacturacionMasiva parcial (solo contadores); al finalizar, los parciales se combinan.
+ */
+@Component
+public class MotorFacturacionMasiva {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorFacturacionMasiva.class);
+    private static final int BATCH_SIZE = 50;
+    // Más particiones que hilos para repartir mejor la carga si los IDs no son uniformes
+    private static final int PARTICIONES_POR_HILO = 4;
+    // Lectura de la partición + transacción REQUIRES_NEW del cliente
+    private static final int CONEXIONES_POR_HILO = 2;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Cantidad de hilos que procesan particiones en simultáneo (1 = secuencial).
+     */
+    @Value("${facturacion.masiva.paralelismo:4}")
+    private int paralelismo;
+
+    /**
+     * Cada cuántos clientes se vacía el contexto de persistencia de una partición.
+     */
+    @Value("${facturacion.masiva.limpiar-cada:200}")
+    private int limpiarCada;
+
+    /**
+     * Si es true, se cuenta una única vez el total de clientes activos para informar el avance.
+     */
+    @Value("${facturacion.masiva.contar-total:true}")
+    private boolean contarTotal;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Cada hilo ocupa dos conexiones a la vez y el resto de la aplicación necesita al menos una
+     * libre: si el pool de Hikari no alcanza para el paralelismo configurado, se reduce al máximo
+     * que entra y se advierte en el log, en lugar de que los hilos esperen una conexión hasta
+     * agotar connection-timeout.
+     */
+    @PostConstruct
+    void ajustarParalelismoAlPool() throws SQLException {
+        if (dataSource == null || !dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        int maximoPool = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        int permitido = Math.max(1, (maximoPool - 1) / CONEXIONES_POR_HILO);
+        if (paralelismo > permitido) {
+            log.warn("facturacion.masiva.paralelismo={} necesita más de {} conexiones, pero " +
+                     "spring.datasource.hikari.maximum-pool-size={}: se usan {} hilos",
+                     paralelismo, paralelismo * CONEXIONES_POR_HILO, maximoPool, permitido);
+            paralelismo = permitido;
+        }
+    }
+
+    /**
+     * Procesa todos los clientes activos entregándolos al procesador de a lotes ordenados por ID.
+     *
+     * @param procesador Lógica de facturación de un lote; recibe el resultado parcial de su partición
+     * @return Resultado combinado de todas las particiones
+     */
+    public ResultadoFacturacionMasiva ejecutar(ProcesadorLote procesador) {
+        return ejecutar(calcularParticiones(), procesador);
+    }
+
+    /**
+     * Divide el rango de IDs de los clientes activos en particiones según el paralelismo
+     * configurado. Devuelve una lista vacía si no hay clientes activos.
+     */
+    public List<RangoClientes> calcularParticiones() {
+        Long minId = repositorioCliente.findMinIdByEstado(EstadoCliente.ACTIVO);
+        Long maxId = repositorioCliente.findMaxIdByEstado(EstadoCliente.ACTIVO);
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+        return particionar(minId, maxId, Math.max(1, paralelismo) * PARTICIONES_POR_HILO);
+    }
+
+    /**
+     * Procesa los clientes activos de las particiones dadas. Permite retomar un recorrido
+     * interrumpido pasando solo los rangos que faltaban procesar.
+     *
+     * @param particiones Rangos de IDs a recorrer, sin solapamiento
+     * @param procesador Lógica de facturación de un lote; recibe el resultado parcial de su partición
+     * @return Resultado combinado de todas las particiones
+     */
+    public ResultadoFacturacionMasiva ejecutar(List<RangoClientes> particiones, ProcesadorLote procesador) {
+        ResultadoFacturacionMasiva resultado = new ResultadoFacturacionMasiva();
+        if (particiones.isEmpty()) {
+            log.info("No hay clientes activos para facturar");
+            return resultado;
+        }
+
+        int hilos = Math.max(1, Math.min(paralelismo, particiones.size()));
+        log.info("Facturación masiva particionada: IDs {} a {} en {} particiones con {} hilos",
+                 particiones.get(0).desdeId(), particiones.get(particiones.size() - 1).hastaId(),
+                 particiones.size(), hilos);
+
+        // Conteo único opcional, solo para informar el avance
+        Long totalEstimado = contarTotal ? repositorioCliente.countByEstado(EstadoCliente.ACTIVO) : null;
+        ProgresoRecorrido progreso = new ProgresoRecorrido(totalEstimado);
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, new FabricaHilos());
+        try {
+            List<Future<ResultadoFacturacionMasiva>> futuros = new ArrayList<>(particiones.size());
+            for (RangoClientes rango : particiones) {
+                futuros.add(pool.submit(() -> procesarParticion(rango, procesador, progreso)));
+            }
+            for (int i = 0; i < futuros.size(); i++) {
+                resultado.combinar(esperar(futuros.get(i), particiones.get(i)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre una partición en su propia transacción de solo lectura, de a lotes ordenados por ID
+     * usando paginación por clave (id > último ID procesado), sin OFFSET ni COUNT por página.
+     * Las escrituras de cada cliente las hace el procesador en transacciones independientes,
+     * por lo que esta transacción solo acumula los clientes leídos: se vacía cada
+     * 'facturacion.masiva.limpiar-cada' clientes para mantener acotado el contexto de persistencia.
+     */
+    private ResultadoFacturacionMasiva procesarParticion(RangoClientes rango, ProcesadorLote procesador,
+                                                         ProgresoRecorrido progreso) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+        return transaccion.execute(status -> {
+            ResultadoFacturacionMasiva parcial = new ResultadoFacturacionMasiva();
+            long ultimoId = rango.desdeId() - 1;
+            int procesados = 0;
+            List<Cliente> lote;
+            do {
+                lote = repositorioCliente.findSiguienteLote(
+                    EstadoCliente.ACTIVO, ultimoId, rango.hastaId(), Limit.of(BATCH_SIZE));
+
+                if (lote.isEmpty()) {
+                    break;
+                }
+                ultimoId = lote.get(lote.size() - 1).getId();
+                procesador.procesar(rango, lote, parcial);
+
+                // Se limpia entre lotes (nunca durante uno): el procesador puede tener datos
+                // precargados del lote que dependen del contexto de persistencia
+                int anteriores = procesados;
+                procesados += lote.size();
+                if (procesados / Math.max(1, limpiarCada) != anteriores / Math.max(1, limpiarCada)) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+                progreso.avanzar(lote.size());
+            } while (lote.size() == BATCH_SIZE);
+
+            log.debug("Partición {}-{} finalizada: {} clientes", rango.desdeId(), rango.hastaId(), parcial.getTotal());
+            return parcial;
+        });
+    }
+
+    private ResultadoFacturacionMasiva esperar(Future<ResultadoFacturacionMasiva> futuro, RangoClientes rango) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Facturación masiva interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                "Fallo al procesar la partición de clientes " + rango.desdeId() + " a " + rango.hastaId(), e.getCause());
+        }
+    }
+
+    /**
+     * Divide el rango [minId, maxId] en como máximo {@code cantidad} rangos contiguos sin solapamiento.
+     */
+    static List<RangoClientes> particionar(long minId, long maxId, int cantidad) {
+        long totalIds = maxId - minId + 1;
+        long tamanio = Math.max(1, (totalIds + cantidad - 1) / cantidad);
+        List<RangoClientes> rangos = new ArrayList<>();
+        for (long desde = minId; desde <= maxId; desde += tamanio) {
+            rangos.add(new RangoClientes(desde, Math.min(maxId, desde + tamanio - 1)));
+        }
+        return rangos;
+    }
+
+    /**
+     * Rango de IDs de clientes (ambos extremos inclusive).
+     */
+    public record RangoClientes(Long desdeId, Long hastaId) {
+    }
+
+    /**
+     * Lógica aplicada a cada lote de clientes de una partición. Recibir el lote completo
+     * permite precargar con pocas consultas los datos que necesitan todos sus clientes.
+     * También recibe la partición a la que pertenece el lote, para registrar puntos de control.
+     */
+    @FunctionalInterface
+    public interface ProcesadorLote {
+        void procesar(RangoClientes particion, List<Cliente> lote, ResultadoFacturacionMasiva resultado);
+    }
+
+    /**
+     * Avance global del recorrido, compartido por todas las particiones.
+     */
+    private static class ProgresoRecorrido {
+        private static final int INFORMAR_CADA = 1000;
+
+        private final Long totalEstimado;
+        private final AtomicLong leidos = new AtomicLong();
+
+        ProgresoRecorrido(Long totalEstimado) {
+            this.totalEstimado = totalEstimado;
+        }
+
+        void avanzar(int cantidad) {
+            long actual = leidos.addAndGet(cantidad);
+            if (actual / INFORMAR_CADA != (actual - cantidad) / INFORMAR_CADA) {
+                if (totalEstimado != null) {
+                    log.info("Facturación masiva: {}/{} clientes recorridos", actual, totalEstimado);
+                } else {
+                    log.info("Facturación masiva: {} clientes recorridos", actual);
+                }
+            }
+        }
+    }
+
+    private static class FabricaHilos implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread hilo = new Thread(r, "facturacion-masiva-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.facturacion.servicio;
+
+/**
+ * Recibe el resultado de cada lote a medida que la anulación masiva lo procesa.
+ */
+@FunctionalInterface
+public interface ObservadorAnulacion {
+
+    /**
+     * Observador que no hace nada.
+     */
+    ObservadorAnulacion NINGUNO = (lote, ultimoId) -> { };
+
+    /**
+     * Se invoca una vez por lote, después de confirmada (o revertida) su transacción.
+     *
+     * @param lote Resultado del lote
+     * @param ultimoId Clave del último elemento del lote: pasada como 'desdeId', la anulación
+     *                 continúa con el lote siguiente
+     */
+    void loteProcesado(ResultadoAnulacionMasiva lote, long ultimoId);
+}
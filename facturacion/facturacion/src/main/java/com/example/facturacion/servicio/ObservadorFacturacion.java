@@ -0,0 +1,42 @@
+package com.example.facturacion.servicio;
+
+import java.util.List;
+
+import com.example.facturacion.servicio.MotorFacturacionMasiva.RangoClientes;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva.DetalleFacturacion;
+
+/**
+ * Recibe el resultado de cada cliente y de cada lote de clientes a medida que la facturación
+ * masiva los procesa. Se invoca desde los hilos del motor, por lo que las implementaciones deben
+ * ser seguras para uso concurrente.
+ */
+public interface ObservadorFacturacion {
+
+    /**
+     * Observador que no hace nada.
+     */
+    ObservadorFacturacion NINGUNO = new ObservadorFacturacion() { };
+
+    /**
+     * Se invoca una vez por cliente, dentro de la transacción que lo factura: lo que el observador
+     * escriba en la base se confirma o se revierte junto con la factura. Si esa transacción se
+     * revirtió (cliente fallido o factura duplicada), se invoca en una transacción propia para
+     * registrar el resultado. Los clientes de una partición llegan en orden ascendente de ID.
+     *
+     * @param particion Partición del motor a la que pertenece el cliente
+     * @param detalle Resultado del cliente
+     */
+    default void clienteProcesado(RangoClientes particion, DetalleFacturacion detalle) {
+    }
+
+    /**
+     * Se invoca una vez por lote, después de confirmadas (o revertidas) las transacciones de
+     * todos sus clientes, dentro de la transacción de solo lectura de la partición: si escribe
+     * en la base, debe hacerlo en una transacción propia.
+     *
+     * @param particion Partición del motor a la que pertenece el lote
+     * @param detalles Resultado de cada cliente del lote
+     */
+    default void loteProcesado(RangoClientes particion, List<DetalleFacturacion> detalles) {
+    }
+}
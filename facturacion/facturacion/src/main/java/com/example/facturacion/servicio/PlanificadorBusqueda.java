@@ -0,0 +1,76 @@
+package com.example.facturacion.servicio;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.facturacion.modelo.TextoBusqueda;
+import com.example.facturacion.repositorio.RepositorioCliente;
+
+/**
+ * Elige la forma más barata de resolver el texto de búsqueda de los listados de clientes y facturas:
+ * - Vacío: sin filtro de texto.
+ * - CUIT completo (11 dígitos, con o sin guiones): búsqueda exacta por el índice único de cliente.cuit.
+ * - DNI completo (7 u 8 dígitos, con o sin puntos): búsqueda exacta por el índice único de cliente.dni;
+ *   si ningún cliente tiene ese DNI, puede ser parte de un CUIT y se busca por texto.
+ * - Cualquier otro texto: "contiene" sobre la columna normalizada cliente.texto_busqueda
+ *   (índice de trigramas en PostgreSQL), en lugar de cinco LOWER(...) LIKE unidos con OR.
+ */
+@Component
+public class PlanificadorBusqueda {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanificadorBusqueda.class);
+    private static final Pattern CUIT = Pattern.compile("\\d{11}");
+    private static final Pattern DNI = Pattern.compile("\\d{7,8}");
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    public enum Ruta {
+        /** Sin texto de búsqueda. */
+        TODOS,
+        /** CUIT o DNI exacto: solo el cliente encontrado. */
+        CLIENTE,
+        /** CUIT exacto que no corresponde a ningún cliente: no hay resultados. */
+        NINGUNO,
+        /** Búsqueda por contenido en el texto normalizado. */
+        TEXTO
+    }
+
+    /**
+     * Ruta elegida, con el ID del cliente (ruta CLIENTE) o el patrón LIKE (ruta TEXTO).
+     * El patrón no necesita escapes: la normalización deja solo letras, dígitos y espacios.
+     */
+    public record Plan(Ruta ruta, Long clienteId, String patron) {
+    }
+
+    public Plan planificar(String busqueda) {
+        String texto = TextoBusqueda.normalizar(busqueda);
+        Plan plan;
+        if (texto.isEmpty()) {
+            plan = new Plan(Ruta.TODOS, null, null);
+        } else if (CUIT.matcher(texto).matches()) {
+            plan = porCliente(repositorioCliente.findIdByCuit(texto))
+                .orElse(new Plan(Ruta.NINGUNO, null, null));
+        } else if (DNI.matcher(texto).matches()) {
+            plan = porCliente(repositorioCliente.findIdByDni(texto))
+                .orElse(porTexto(texto));
+        } else {
+            plan = porTexto(texto);
+        }
+        log.debug("Búsqueda '{}': ruta {}", busqueda, plan.ruta());
+        return plan;
+    }
+
+    private static Optional<Plan> porCliente(Optional<Long> clienteId) {
+        return clienteId.map(id -> new Plan(Ruta.CLIENTE, id, null));
+    }
+
+    private static Plan porTexto(String texto) {
+        return new Plan(Ruta.TEXTO, null, "%" + texto + "%");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.facturacion.servicio;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.facturacion.modelo.ClienteServicio;
+
+/**
+ * Datos de un lote de clientes cargados de antemano para la facturación masiva:
+ * las asignaciones activas de cada cliente (con su servicio) y los clientes ya
+ * facturados en el período. Permite validar y facturar cada cliente sin consultas
+ * individuales.
+ */
+public class PrecargaLoteFacturacion {
+
+    private final Map<Long, List<ClienteServicio>> serviciosPorCliente;
+    private final Set<Long> clientesFacturados;
+
+    public PrecargaLoteFacturacion(Map<Long, List<ClienteServicio>> serviciosPorCliente, Set<Long> clientesFacturados) {
+        this.serviciosPorCliente = serviciosPorCliente;
+        this.clientesFacturados = clientesFacturados;
+    }
+
+    /**
+     * Asignaciones activas del cliente (lista vacía si no tiene).
+     */
+    public List<ClienteServicio> serviciosActivos(Long clienteId) {
+        return serviciosPorCliente.getOrDefault(clienteId, Collections.emptyList());
+    }
+
+    /**
+     * Indica si el cliente ya tiene una factura no anulada en el período.
+     */
+    public boolean yaFacturado(Long clienteId) {
+        return clientesFacturados.contains(clienteId);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.facturacion.servicio;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de una anulación masiva de facturas.
+ * Solo guarda contadores y el monto total: su tamaño no depende de la cantidad de facturas.
+ */
+public class ResultadoAnulacionMasiva {
+
+    private int anuladas = 0;
+    private int omitidas = 0;
+    private int fallidas = 0;
+
+    private BigDecimal montoAnulado = BigDecimal.ZERO;
+
+    public int getAnuladas() {
+        return anuladas;
+    }
+
+    /**
+     * Facturas que ya estaban anuladas (o ya no existían) al procesar su lote.
+     */
+    public int getOmitidas() {
+        return omitidas;
+    }
+
+    /**
+     * Facturas de lotes que no se pudieron anular (se pueden reintentar con la misma anulación).
+     */
+    public int getFallidas() {
+        return fallidas;
+    }
+
+    public int getTotal() {
+        return anuladas + omitidas + fallidas;
+    }
+
+    public BigDecimal getMontoAnulado() {
+        return montoAnulado;
+    }
+
+    public void agregarAnulada(BigDecimal monto) {
+        anuladas++;
+        montoAnulado = montoAnulado.add(monto);
+    }
+
+    public void agregarOmitidas(int cantidad) {
+        omitidas += cantidad;
+    }
+
+    public void agregarFallidas(int cantidad) {
+        fallidas += cantidad;
+    }
+
+    /**
+     * Acumula en este resultado los de otro resultado parcial (por ejemplo, el de un lote).
+     */
+    public void combinar(ResultadoAnulacionMasiva otro) {
+        anuladas += otro.anuladas;
+        omitidas += otro.omitidas;
+        fallidas += otro.fallidas;
+        montoAnulado = montoAnulado.add(otro.montoAnulado);
+    }
+}
@@ -2,12 +2,13 @@ package com.example.facturacion.servicio;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Clase que encapsula los resultados de un proceso de facturación masiva.
- * Incluye estadísticas y detalles de cada operación.
+ * Solo guarda contadores y el monto total: su tamaño no depende de la cantidad de clientes.
+ * El detalle de cada cliente se entrega a medida que se procesa a un ObservadorFacturacion
+ * (los trabajos en segundo plano lo persisten en detalle_trabajo_facturacion y lo exponen
+ * paginado).
  */
 public class ResultadoFacturacionMasiva {
     
@@ -21,8 +22,6 @@ public class ResultadoFacturacionMasiva {
     
     private BigDecimal montoTotalFacturado = BigDecimal.ZERO;
     
-    private List<DetalleFacturacion> detalles = new ArrayList<>();
-    
     // Getters y Setters
     
     public LocalDate getFechaEmision() {
@@ -65,34 +64,56 @@ public class ResultadoFacturacionMasiva {
         return montoTotalFacturado;
     }
     
-    public List<DetalleFacturacion> getDetalles() {
-        return detalles;
-    }
-    
     public void agregarExitoso(Long clienteId, String razonSocial, Long facturaId, BigDecimal monto) {
-        exitosas++;
-        montoTotalFacturado = montoTotalFacturado.add(monto);
-        detalles.add(new DetalleFacturacion(clienteId, razonSocial, facturaId, "EXITOSA", null, monto));
+        registrar(DetalleFacturacion.exitoso(clienteId, razonSocial, facturaId, monto));
     }
     
     public void agregarFallido(Long clienteId, String razonSocial, String motivo) {
-        fallidas++;
-        detalles.add(new DetalleFacturacion(clienteId, razonSocial, null, "FALLIDA", motivo, null));
+        registrar(DetalleFacturacion.fallido(clienteId, razonSocial, motivo));
     }
     
     public void agregarOmitido(Long clienteId, String razonSocial, String motivo) {
-        omitidas++;
-        detalles.add(new DetalleFacturacion(clienteId, razonSocial, null, "OMITIDA", motivo, null));
+        registrar(DetalleFacturacion.omitido(clienteId, razonSocial, motivo));
+    }
+
+    /**
+     * Actualiza los contadores según el estado del detalle de un cliente procesado.
+     * El detalle no se conserva.
+     */
+    public void registrar(DetalleFacturacion detalle) {
+        switch (detalle.getEstado()) {
+            case DetalleFacturacion.EXITOSA -> {
+                exitosas++;
+                montoTotalFacturado = montoTotalFacturado.add(detalle.getMonto());
+            }
+            case DetalleFacturacion.FALLIDA -> fallidas++;
+            default -> omitidas++;
+        }
     }
     
     public int getTotal() {
         return exitosas + fallidas + omitidas;
     }
-    
+
+    /**
+     * Acumula en este resultado los contadores y montos de otro resultado parcial
+     * (por ejemplo, el de una partición procesada por otro hilo).
+     */
+    public void combinar(ResultadoFacturacionMasiva otro) {
+        exitosas += otro.exitosas;
+        fallidas += otro.fallidas;
+        omitidas += otro.omitidas;
+        montoTotalFacturado = montoTotalFacturado.add(otro.montoTotalFacturado);
+    }
+
     /**
      * Clase interna que representa el detalle de cada cliente procesado.
      */
     public static class DetalleFacturacion {
+        public static final String EXITOSA = "EXITOSA";
+        public static final String FALLIDA = "FALLIDA";
+        public static final String OMITIDA = "OMITIDA";
+
         private final Long clienteId;
         private final String razonSocial;
         private final Long facturaId;
@@ -109,6 +130,18 @@ public class ResultadoFacturacionMasiva {
             this.motivo = motivo;
             this.monto = monto;
         }
+
+        public static DetalleFacturacion exitoso(Long clienteId, String razonSocial, Long facturaId, BigDecimal monto) {
+            return new DetalleFacturacion(clienteId, razonSocial, facturaId, EXITOSA, null, monto);
+        }
+
+        public static DetalleFacturacion fallido(Long clienteId, String razonSocial, String motivo) {
+            return new DetalleFacturacion(clienteId, razonSocial, null, FALLIDA, motivo, null);
+        }
+
+        public static DetalleFacturacion omitido(Long clienteId, String razonSocial, String motivo) {
+            return new DetalleFacturacion(clienteId, razonSocial, null, OMITIDA, motivo, null);
+        }
         
         public Long getClienteId() {
             return clienteId;
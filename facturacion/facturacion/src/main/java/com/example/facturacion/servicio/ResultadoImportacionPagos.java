@@ -0,0 +1,128 @@
+package com.example.facturacion.servicio;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Informe de conciliación de una importación de pagos.
+ * Cuenta todas las filas, pero solo conserva el detalle de las que no se aplicaron
+ * (sin factura, sobrepagos y rechazadas), hasta MAX_INCIDENCIAS: su tamaño no depende
+ * del tamaño del archivo.
+ */
+public class ResultadoImportacionPagos {
+
+    public static final int MAX_INCIDENCIAS = 1000;
+
+    public static final String SIN_FACTURA = "SIN_FACTURA";
+    public static final String SOBREPAGO = "SOBREPAGO";
+    public static final String RECHAZADA = "RECHAZADA";
+
+    private int aplicados = 0;
+    private int sinFactura = 0;
+    private int sobrepagos = 0;
+    private int rechazados = 0;
+
+    private BigDecimal montoAplicado = BigDecimal.ZERO;
+    private BigDecimal montoNoAplicado = BigDecimal.ZERO;
+
+    private final List<Incidencia> incidencias = new ArrayList<>();
+
+    public int getAplicados() {
+        return aplicados;
+    }
+
+    public int getSinFactura() {
+        return sinFactura;
+    }
+
+    public int getSobrepagos() {
+        return sobrepagos;
+    }
+
+    public int getRechazados() {
+        return rechazados;
+    }
+
+    public int getTotal() {
+        return aplicados + sinFactura + sobrepagos + rechazados;
+    }
+
+    public BigDecimal getMontoAplicado() {
+        return montoAplicado;
+    }
+
+    /**
+     * Suma de los montos leídos que no se aplicaron (las filas ilegibles no suman).
+     */
+    public BigDecimal getMontoNoAplicado() {
+        return montoNoAplicado;
+    }
+
+    public List<Incidencia> getIncidencias() {
+        return incidencias;
+    }
+
+    /**
+     * Indica si hubo más incidencias que las conservadas en el detalle.
+     */
+    public boolean isIncidenciasTruncadas() {
+        return incidencias.size() < getTotal() - aplicados;
+    }
+
+    public void agregarAplicado(BigDecimal monto) {
+        aplicados++;
+        montoAplicado = montoAplicado.add(monto);
+    }
+
+    public void agregarSinFactura(int linea, Long facturaId, BigDecimal monto) {
+        sinFactura++;
+        agregarIncidencia(new Incidencia(linea, facturaId, monto, SIN_FACTURA, "No existe la factura N° " + facturaId));
+    }
+
+    public void agregarSobrepago(int linea, Long facturaId, BigDecimal monto, BigDecimal saldoPendiente) {
+        sobrepagos++;
+        agregarIncidencia(new Incidencia(linea, facturaId, monto, SOBREPAGO,
+            "El pago excede el saldo pendiente de la factura ($" + saldoPendiente + ")"));
+    }
+
+    public void agregarRechazado(int linea, Long facturaId, BigDecimal monto, String motivo) {
+        rechazados++;
+        agregarIncidencia(new Incidencia(linea, facturaId, monto, RECHAZADA, motivo));
+    }
+
+    private void agregarIncidencia(Incidencia incidencia) {
+        if (incidencia.monto() != null) {
+            montoNoAplicado = montoNoAplicado.add(incidencia.monto());
+        }
+        if (incidencias.size() < MAX_INCIDENCIAS) {
+            incidencias.add(incidencia);
+        }
+    }
+
+    /**
+     * Acumula en este resultado los de otro resultado parcial (por ejemplo, el de un cliente).
+     */
+    public void combinar(ResultadoImportacionPagos otro) {
+        aplicados += otro.aplicados;
+        sinFactura += otro.sinFactura;
+        sobrepagos += otro.sobrepagos;
+        rechazados += otro.rechazados;
+        montoAplicado = montoAplicado.add(otro.montoAplicado);
+        montoNoAplicado = montoNoAplicado.add(otro.montoNoAplicado);
+        for (Incidencia incidencia : otro.incidencias) {
+            if (incidencias.size() >= MAX_INCIDENCIAS) {
+                break;
+            }
+            incidencias.add(incidencia);
+        }
+    }
+
+    /**
+     * Fila del archivo que no se aplicó.
+     *
+     * @param linea Número de línea en el archivo
+     */
+    public record Incidencia(int linea, Long facturaId, BigDecimal monto, String tipo, String motivo) {
+    }
+}
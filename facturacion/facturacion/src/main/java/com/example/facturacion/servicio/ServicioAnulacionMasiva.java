@@ -0,0 +1,241 @@
+package com.example.facturacion.servicio;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.NotaCredito;
+import com.example.facturacion.modelo.TrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion.FacturaDeTrabajo;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.ClienteFactura;
+import com.example.facturacion.repositorio.RepositorioNotaCredito;
+import com.example.facturacion.repositorio.RepositorioTrabajoFacturacion;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva.DetalleFacturacion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Anulación masiva de facturas (por ejemplo, todas las de un trabajo de facturación que salió mal).
+ *
+ * Hace lo mismo que la anulación individual (ServicioNotaCredito), pero de a LOTE facturas por
+ * transacción: las facturas se cargan con sus detalles y su cliente en una consulta, las Notas de
+ * Crédito espejo y sus detalles se insertan en lotes JDBC junto con los UPDATE de las facturas,
+ * y la reversión en cuenta corriente actualiza el saldo una vez por cliente
+ * (ServicioCliente.registrarMovimientos). Las cuentas de los clientes del lote quedan bloqueadas
+ * durante su transacción (ver ControlConcurrenciaCuentas).
+ *
+ * Las facturas que ya están anuladas se omiten, así que una anulación interrumpida o con lotes
+ * fallidos puede repetirse sin duplicar Notas de Crédito.
+ *
+ * Desde la interfaz se ejecuta en segundo plano (ServicioTrabajoAnulacion), que recibe el avance
+ * de cada lote mediante un ObservadorAnulacion y lo retoma desde el último lote procesado.
+ */
+@Service
+public class ServicioAnulacionMasiva {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicioAnulacionMasiva.class);
+    private static final int LOTE = 200;
+    private static final String USUARIO_ANULACION = "ANULACION_MASIVA";
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private RepositorioNotaCredito repositorioNotaCredito;
+
+    @Autowired
+    private RepositorioTrabajoFacturacion repositorioTrabajo;
+
+    @Autowired
+    private RepositorioDetalleTrabajoFacturacion repositorioDetalleTrabajo;
+
+    @Autowired
+    private ServicioNotaCredito servicioNotaCredito;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Anula todas las facturas emitidas por un trabajo de facturación masiva finalizado.
+     */
+    public ResultadoAnulacionMasiva anularTrabajo(Long trabajoId, String motivo) {
+        return anularTrabajo(trabajoId, motivo, 0, ObservadorAnulacion.NINGUNO);
+    }
+
+    /**
+     * Igual que la versión anterior, continuando después del detalle de trabajo 'desdeId'
+     * (0 = desde el principio) e informando cada lote al observador.
+     */
+    public ResultadoAnulacionMasiva anularTrabajo(Long trabajoId, String motivo, long desdeId,
+                                                 ObservadorAnulacion observador) {
+        validarTrabajo(trabajoId);
+        String motivoNotas = motivoOPorDefecto(motivo, "Anulación masiva del trabajo de facturación N° " + trabajoId);
+
+        ResultadoAnulacionMasiva resultado = new ResultadoAnulacionMasiva();
+        long ultimoId = desdeId;
+        List<FacturaDeTrabajo> pagina;
+        do {
+            pagina = repositorioDetalleTrabajo.findFacturasDeTrabajo(
+                trabajoId, DetalleFacturacion.EXITOSA, ultimoId, Limit.of(LOTE));
+            if (pagina.isEmpty()) {
+                break;
+            }
+            ultimoId = pagina.get(pagina.size() - 1).detalleId();
+            ResultadoAnulacionMasiva lote = anularLote(pagina.stream().map(FacturaDeTrabajo::facturaId).toList(), motivoNotas);
+            resultado.combinar(lote);
+            observador.loteProcesado(lote, ultimoId);
+        } while (pagina.size() == LOTE);
+
+        log.info("Anulación masiva del trabajo {}: {} anuladas (${}), {} omitidas, {} fallidas",
+                 trabajoId, resultado.getAnuladas(), resultado.getMontoAnulado(), resultado.getOmitidas(), resultado.getFallidas());
+        return resultado;
+    }
+
+    /**
+     * Anula todas las facturas no anuladas del período facturado indicado.
+     */
+    public ResultadoAnulacionMasiva anularPeriodo(LocalDate inicioPeriodo, LocalDate finPeriodo, String motivo) {
+        return anularPeriodo(inicioPeriodo, finPeriodo, motivo, 0, ObservadorAnulacion.NINGUNO);
+    }
+
+    /**
+     * Igual que la versión anterior, continuando después de la factura 'desdeId'
+     * (0 = desde el principio) e informando cada lote al observador.
+     */
+    public ResultadoAnulacionMasiva anularPeriodo(LocalDate inicioPeriodo, LocalDate finPeriodo, String motivo,
+                                                 long desdeId, ObservadorAnulacion observador) {
+        validarPeriodo(inicioPeriodo, finPeriodo);
+        String periodo = Factura.periodo(inicioPeriodo, finPeriodo);
+        String motivoNotas = motivoOPorDefecto(motivo, "Anulación masiva del período " + inicioPeriodo + " a " + finPeriodo);
+
+        ResultadoAnulacionMasiva resultado = new ResultadoAnulacionMasiva();
+        long ultimoId = desdeId;
+        List<Long> pagina;
+        do {
+            pagina = repositorioFactura.findIdsNoAnuladasDelPeriodo(periodo, ultimoId, Limit.of(LOTE));
+            if (pagina.isEmpty()) {
+                break;
+            }
+            ultimoId = pagina.get(pagina.size() - 1);
+            ResultadoAnulacionMasiva lote = anularLote(pagina, motivoNotas);
+            resultado.combinar(lote);
+            observador.loteProcesado(lote, ultimoId);
+        } while (pagina.size() == LOTE);
+
+        log.info("Anulación masiva del período {}: {} anuladas (${}), {} omitidas, {} fallidas",
+                 periodo, resultado.getAnuladas(), resultado.getMontoAnulado(), resultado.getOmitidas(), resultado.getFallidas());
+        return resultado;
+    }
+
+    /**
+     * Verifica que el trabajo de facturación exista y haya finalizado.
+     */
+    TrabajoFacturacion validarTrabajo(Long trabajoId) {
+        TrabajoFacturacion trabajo = repositorioTrabajo.findById(trabajoId)
+            .orElseThrow(() -> new IllegalArgumentException("Trabajo de facturación no encontrado con ID: " + trabajoId));
+        if (!trabajo.getEstado().isFinalizado()) {
+            throw new IllegalArgumentException("El trabajo de facturación " + trabajoId + " todavía no finalizó");
+        }
+        return trabajo;
+    }
+
+    static void validarPeriodo(LocalDate inicioPeriodo, LocalDate finPeriodo) {
+        if (inicioPeriodo == null || finPeriodo == null) {
+            throw new IllegalArgumentException("Las fechas de inicio y fin del período son obligatorias");
+        }
+        if (inicioPeriodo.isAfter(finPeriodo)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+    }
+
+    /**
+     * Anula un lote de facturas en una transacción, con las cuentas de sus clientes bloqueadas.
+     * Si el lote falla (por ejemplo, por agotar los reintentos ante pagos simultáneos) no se anula
+     * ninguna de sus facturas y se continúa con el siguiente.
+     */
+    private ResultadoAnulacionMasiva anularLote(List<Long> facturaIds, String motivo) {
+        ResultadoAnulacionMasiva resultado = new ResultadoAnulacionMasiva();
+        List<Long> clienteIds = repositorioFactura.findClientesDeFacturas(facturaIds).stream()
+            .map(ClienteFactura::clienteId)
+            .distinct()
+            .toList();
+        if (clienteIds.isEmpty()) {
+            resultado.agregarOmitidas(facturaIds.size());
+            return resultado;
+        }
+        try {
+            resultado.combinar(controlConcurrencia.ejecutar(clienteIds, () -> anularEnTransaccion(facturaIds, motivo)));
+        } catch (IllegalStateException | DataAccessException e) {
+            log.warn("No se pudo anular un lote de {} facturas ({} a {}): {}", facturaIds.size(),
+                     facturaIds.get(0), facturaIds.get(facturaIds.size() - 1), e.getMessage());
+            resultado.agregarFallidas(facturaIds.size());
+        }
+        // Las entidades del lote ya no se usan
+        entityManager.clear();
+        return resultado;
+    }
+
+    /**
+     * Anula las facturas del lote dentro de la transacción en curso.
+     * Devuelve un resultado parcial nuevo en cada intento, para que un reintento no cuente dos veces.
+     */
+    private ResultadoAnulacionMasiva anularEnTransaccion(List<Long> facturaIds, String motivo) {
+        ResultadoAnulacionMasiva parcial = new ResultadoAnulacionMasiva();
+        List<Factura> facturas = repositorioFactura.findParaAnular(facturaIds);
+        parcial.agregarOmitidas(facturaIds.size() - facturas.size());
+        if (facturas.isEmpty()) {
+            return parcial;
+        }
+
+        // 1. Anular las facturas y armar las NC espejo
+        List<NotaCredito> notas = new ArrayList<>(facturas.size());
+        for (Factura factura : facturas) {
+            factura.anular();
+            notas.add(servicioNotaCredito.armarNotaCredito(factura, motivo));
+        }
+
+        // 2. Guardar NC: el ID sale de la secuencia y los INSERT quedan para el flush, en lotes
+        repositorioNotaCredito.saveAll(notas);
+
+        // 3. Reversión en cuenta corriente: un movimiento por NC y un UPDATE de saldo por cliente
+        Map<Long, List<MovimientoCuentaCorriente>> movimientos = new HashMap<>();
+        for (NotaCredito nc : notas) {
+            movimientos.computeIfAbsent(nc.getCliente().getId(), id -> new ArrayList<>())
+                .add(MovimientoCuentaCorriente.porAnulacion(nc.getCliente(), nc, USUARIO_ANULACION));
+            parcial.agregarAnulada(nc.getTotal());
+        }
+        servicioCliente.registrarMovimientos(movimientos);
+        return parcial;
+    }
+
+    // El motivo se guarda en cada Nota de Crédito (hasta 500 caracteres)
+    static String motivoOPorDefecto(String motivo, String porDefecto) {
+        if (motivo == null || motivo.isBlank()) {
+            return porDefecto;
+        }
+        if (motivo.strip().length() > 500) {
+            throw new IllegalArgumentException("El motivo no puede superar los 500 caracteres");
+        }
+        return motivo.strip();
+    }
+}
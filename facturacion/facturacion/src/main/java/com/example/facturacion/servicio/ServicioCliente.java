@@ -1,22 +1,35 @@
     package com.example.facturacion.servicio;
 
     import java.math.BigDecimal;
+    import java.time.LocalDateTime;
+    import java.util.ArrayList;
+    import java.util.HashMap;
     import java.util.List;
+    import java.util.Map;
     import java.util.Objects;
+    import java.util.TreeMap;
 
     import org.springframework.beans.factory.annotation.Autowired;
+    import org.springframework.data.domain.Limit;
     import org.springframework.data.domain.Page;
+    import org.springframework.data.domain.PageImpl;
     import org.springframework.data.domain.PageRequest;
     import org.springframework.data.domain.Pageable;
     import org.springframework.data.domain.Sort;
+    import org.springframework.jdbc.core.JdbcTemplate;
+    import org.springframework.orm.ObjectOptimisticLockingFailureException;
     import org.springframework.stereotype.Service;
     import org.springframework.transaction.annotation.Transactional;
 
+    import com.example.facturacion.configuracion.MetricasFacturacion;
     import com.example.facturacion.modelo.Cliente;
     import com.example.facturacion.modelo.MovimientoCuentaCorriente;
     import com.example.facturacion.modelo.enums.EstadoCliente;
     import com.example.facturacion.repositorio.RepositorioCliente;
+    import com.example.facturacion.repositorio.RepositorioCliente.ClienteBuscable;
+    import com.example.facturacion.repositorio.RepositorioCliente.SaldoCliente;
     import com.example.facturacion.repositorio.RepositorioMovimientoCuentaCorriente;
+    import com.example.facturacion.servicio.PlanificadorBusqueda.Plan;
 
     /**
      * Servicio para manejar la lógica de negocio relacionada con los clientes.
@@ -34,6 +47,21 @@
         @Autowired
         private RepositorioMovimientoCuentaCorriente repositorioMovimiento;
 
+        @Autowired
+        private ServicioVerificacionSaldos servicioVerificacionSaldos;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private IndiceClientes indiceClientes;
+
+        @Autowired
+        private PlanificadorBusqueda planificadorBusqueda;
+
+        @Autowired
+        private MetricasFacturacion metricasFacturacion;
+
         // ==================== HU-01: Alta de Cliente ====================
         
         /**
@@ -56,7 +84,9 @@
                 cliente.setSaldoCuentaCorriente(BigDecimal.ZERO);
             }
             
-            return repositorioCliente.save(cliente);
+            Cliente guardado = repositorioCliente.save(cliente);
+            indiceClientes.actualizar(guardado);
+            return guardado;
         }
 
         /**
@@ -95,6 +125,14 @@
                 .orElseThrow(() -> new IllegalArgumentException(
                     "El cliente con ID " + id + " no existe"));
             
+            // Control optimista: el formulario trae la versión leída; si otro usuario guardó
+            // el cliente mientras tanto, se rechaza en lugar de pisar sus cambios
+            if (cliente.getVersion() == null) {
+                cliente.setVersion(clienteExistente.getVersion());
+            } else if (!cliente.getVersion().equals(clienteExistente.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Cliente.class, id);
+            }
+            
             // HU-02: DNI y CUIT no pueden modificarse
             if (!clienteExistente.getDni().equals(cliente.getDni())) {
                 throw new IllegalArgumentException(
@@ -118,7 +156,9 @@
             // Preservar el saldo de cuenta corriente (no se modifica en edición simple)
             cliente.setSaldoCuentaCorriente(clienteExistente.getSaldoCuentaCorriente());
             
-            return repositorioCliente.save(cliente);
+            Cliente actualizado = repositorioCliente.save(cliente);
+            indiceClientes.actualizar(actualizado);
+            return actualizado;
         }
 
         // ==================== HU-03: Baja de Cliente ====================
@@ -148,6 +188,7 @@
             
             cliente.darDeBaja();
             repositorioCliente.save(cliente);
+            indiceClientes.actualizar(cliente);
         }
         
         /**
@@ -158,6 +199,7 @@
             Cliente cliente = obtenerClientePorId(id);
             cliente.suspender();
             repositorioCliente.save(cliente);
+            indiceClientes.actualizar(cliente);
         }
         
         /**
@@ -168,6 +210,7 @@
             Cliente cliente = obtenerClientePorId(id);
             cliente.activar();
             repositorioCliente.save(cliente);
+            indiceClientes.actualizar(cliente);
         }
 
         // ==================== Consultas ====================
@@ -229,14 +272,25 @@
 
         /**
          * Obtiene todos los clientes activos (usando el enum).
+         * Carga todas las entidades: para elegir un cliente en un formulario usar buscarClientesActivos.
          */
         @Transactional(readOnly = true)
         public List<Cliente> obtenerClientesActivos() {
             return repositorioCliente.findClientesActivos();
         }
         
+        /**
+         * Sugerencias para el buscador de clientes: los primeros clientes activos cuya razón social,
+         * nombre, apellido, CUIT o DNI empiezan con el texto. Se resuelve en memoria (IndiceClientes).
+         */
+        public List<ClienteBuscable> buscarClientesActivos(String texto, int limite) {
+            return indiceClientes.buscar(texto, Math.max(1, Math.min(limite, 50)));
+        }
+        
         /**
          * Busca clientes por texto (nombre, apellido, DNI, CUIT, razón social).
+         * Un CUIT o DNI completo se busca en forma exacta; el resto, en el texto normalizado
+         * del cliente (ver PlanificadorBusqueda).
          */
         @Transactional(readOnly = true)
         public Page<Cliente> buscarClientes(String busqueda, int page, int size) {
@@ -244,7 +298,18 @@
             final int safeSize = Math.max(1, Math.min(size, 100));
             Pageable pageable = PageRequest.of(safePage, safeSize, 
                 Sort.by(Sort.Direction.DESC, "id"));
-            return repositorioCliente.buscarClientes(busqueda, pageable);
+            Plan plan = planificadorBusqueda.planificar(busqueda);
+            return switch (plan.ruta()) {
+                case TODOS -> repositorioCliente.findAll(pageable);
+                case CLIENTE -> {
+                    List<Cliente> encontrado = pageable.getOffset() == 0
+                        ? repositorioCliente.findById(plan.clienteId()).map(List::of).orElse(List.of())
+                        : List.of();
+                    yield new PageImpl<>(encontrado, pageable, 1);
+                }
+                case NINGUNO -> Page.empty(pageable);
+                case TEXTO -> repositorioCliente.buscarPorTexto(plan.patron(), pageable);
+            };
         }
 
         // ==================== Cuenta Corriente ====================
@@ -270,32 +335,124 @@
         }
         
         /**
-         * Registra un movimiento manual en la cuenta corriente.
+         * Registra un movimiento en la cuenta corriente (libro de solo agregado).
+         * No carga el cliente ni su colección de movimientos: aplica el impacto en el saldo con
+         * un UPDATE atómico, lee el saldo resultante e inserta el movimiento directamente.
+         * El UPDATE deja la fila del cliente bloqueada hasta el commit, así que los registros
+         * concurrentes de un mismo cliente se serializan y cada movimiento guarda el saldo
+         * acumulado correcto. La fecha del movimiento se fija bajo ese bloqueo, para que el
+         * orden por fecha coincida con el orden del saldo acumulado.
          */
         @Transactional
         public MovimientoCuentaCorriente registrarMovimiento(Long clienteId, MovimientoCuentaCorriente movimiento) {
-            Cliente cliente = obtenerClientePorId(clienteId);
-            
-            // 1. Agregar a la lista y actualizar el saldo en memoria
-            cliente.registrarMovimiento(movimiento);
-            
-            // 2. Guardar Cliente
-            // Al tener CascadeType.ALL, esto actualiza el saldo del cliente en la DB
-            // Y TAMBIÉN inserta el movimiento automáticamente.
-            repositorioCliente.save(cliente);
-            
-            return movimiento; 
-            // NO llamamos a repositorioMovimiento.save(movimiento) aquí.
+            return metricasFacturacion.observar(MetricasFacturacion.MOVIMIENTO_CUENTA, () -> {
+                if (repositorioCliente.sumarSaldo(clienteId, movimiento.calcularImpactoEnSaldo()) == 0) {
+                    throw new IllegalArgumentException("Cliente no encontrado con ID: " + clienteId);
+                }
+                movimiento.setFechaMovimiento(LocalDateTime.now());
+                movimiento.setSaldoResultante(repositorioCliente.findSaldoById(clienteId));
+                movimiento.setCliente(repositorioCliente.getReferenceById(clienteId));
+                return repositorioMovimiento.save(movimiento);
+            });
         }
-        
+
+        /**
+         * Registra varios movimientos de un mismo cliente, en orden, con un único UPDATE del saldo
+         * por el impacto total. El saldo acumulado de cada movimiento se calcula a partir del saldo
+         * final leído bajo el bloqueo; los INSERT se agrupan en lotes JDBC.
+         * Todos comparten la fecha de registro: el orden entre ellos lo da el ID.
+         */
+        @Transactional
+        public List<MovimientoCuentaCorriente> registrarMovimientos(Long clienteId, List<MovimientoCuentaCorriente> movimientos) {
+            if (movimientos.isEmpty()) {
+                return movimientos;
+            }
+            BigDecimal impactoTotal = calcularImpactoTotal(movimientos);
+            if (repositorioCliente.sumarSaldo(clienteId, impactoTotal) == 0) {
+                throw new IllegalArgumentException("Cliente no encontrado con ID: " + clienteId);
+            }
+            asignarSaldos(movimientos, repositorioCliente.findSaldoById(clienteId).subtract(impactoTotal),
+                          repositorioCliente.getReferenceById(clienteId), LocalDateTime.now());
+            return repositorioMovimiento.saveAll(movimientos);
+        }
+
         /**
-         * Recalcula el saldo de cuenta corriente de un cliente.
+         * Registra los movimientos de varios clientes (operaciones por lotes) con el mismo criterio
+         * que registrarMovimientos(clienteId, movimientos), pero con los UPDATE de saldo de todos
+         * los clientes en un único lote JDBC y una sola consulta de los saldos resultantes.
+         * Los clientes se actualizan en orden de ID, para que dos lotes simultáneos no se bloqueen
+         * mutuamente.
          */
         @Transactional
+        public List<MovimientoCuentaCorriente> registrarMovimientos(Map<Long, List<MovimientoCuentaCorriente>> movimientosPorCliente) {
+            Map<Long, BigDecimal> impactos = new TreeMap<>();
+            movimientosPorCliente.forEach((clienteId, movimientos) -> {
+                if (!movimientos.isEmpty()) {
+                    impactos.put(clienteId, calcularImpactoTotal(movimientos));
+                }
+            });
+            if (impactos.isEmpty()) {
+                return List.of();
+            }
+            jdbcTemplate.batchUpdate(
+                "UPDATE cliente SET saldo_cuenta_corriente = saldo_cuenta_corriente + ? WHERE id = ?",
+                impactos.entrySet().stream().map(e -> new Object[] { e.getValue(), e.getKey() }).toList());
+
+            Map<Long, BigDecimal> saldos = new HashMap<>();
+            for (SaldoCliente saldo : repositorioCliente.findSaldosByIdIn(impactos.keySet())) {
+                saldos.put(saldo.clienteId(), saldo.saldo());
+            }
+            LocalDateTime fecha = LocalDateTime.now();
+            List<MovimientoCuentaCorriente> todos = new ArrayList<>();
+            impactos.forEach((clienteId, impactoTotal) -> {
+                BigDecimal saldoFinal = saldos.get(clienteId);
+                if (saldoFinal == null) {
+                    throw new IllegalArgumentException("Cliente no encontrado con ID: " + clienteId);
+                }
+                List<MovimientoCuentaCorriente> movimientos = movimientosPorCliente.get(clienteId);
+                asignarSaldos(movimientos, saldoFinal.subtract(impactoTotal), repositorioCliente.getReferenceById(clienteId), fecha);
+                todos.addAll(movimientos);
+            });
+            return repositorioMovimiento.saveAll(todos);
+        }
+
+        private static BigDecimal calcularImpactoTotal(List<MovimientoCuentaCorriente> movimientos) {
+            BigDecimal impactoTotal = BigDecimal.ZERO;
+            for (MovimientoCuentaCorriente movimiento : movimientos) {
+                impactoTotal = impactoTotal.add(movimiento.calcularImpactoEnSaldo());
+            }
+            return impactoTotal;
+        }
+
+        // Saldo acumulado de cada movimiento a partir del saldo previo al primero
+        private static void asignarSaldos(List<MovimientoCuentaCorriente> movimientos, BigDecimal saldoInicial,
+                                          Cliente cliente, LocalDateTime fecha) {
+            BigDecimal saldo = saldoInicial;
+            for (MovimientoCuentaCorriente movimiento : movimientos) {
+                saldo = saldo.add(movimiento.calcularImpactoEnSaldo());
+                movimiento.setFechaMovimiento(fecha);
+                movimiento.setSaldoResultante(saldo);
+                movimiento.setCliente(cliente);
+            }
+        }
+
+        /**
+         * Obtiene el saldo de la cuenta corriente de un cliente a una fecha dada,
+         * leyendo el saldo acumulado del último movimiento hasta esa fecha.
+         */
+        @Transactional(readOnly = true)
+        public BigDecimal obtenerSaldoAl(Long clienteId, LocalDateTime fecha) {
+            List<BigDecimal> saldo = repositorioMovimiento.findSaldoAl(clienteId, fecha, Limit.of(1));
+            return saldo.isEmpty() || saldo.get(0) == null ? BigDecimal.ZERO : saldo.get(0);
+        }
+        
+        /**
+         * Recalcula el saldo de cuenta corriente de un cliente recorriendo sus movimientos
+         * con memoria constante, y corrige los saldos acumulados que no coincidan.
+         */
         public void recalcularSaldoCliente(Long clienteId) {
-            Cliente cliente = obtenerClientePorId(clienteId);
-            cliente.recalcularSaldo();
-            repositorioCliente.save(cliente);
+            obtenerClientePorId(clienteId);
+            servicioVerificacionSaldos.verificarCliente(clienteId);
         }
         
         /**
@@ -10,6 +10,7 @@ import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.ClienteServicio;
 import com.example.facturacion.modelo.Servicio;
 import com.example.facturacion.repositorio.RepositorioClienteServicio;
+import com.example.facturacion.repositorio.RepositorioClienteServicio.ServicioAsignado;
 
 @Service
 public class ServicioClienteServicio {
@@ -27,10 +28,11 @@ public class ServicioClienteServicio {
         return repositorioClienteServicio.findById(id).orElse(null);
     }
 
-    public List<ClienteServicio> obtenerServiciosPorCliente(Long clienteId) {
-        return repositorioClienteServicio.findByActivoTrue().stream()
-                .filter(cs -> cs.getCliente().getId().equals(clienteId))
-                .toList();
+    /**
+     * Servicios activos del cliente (ID de la asignación, nombre y precio), en una consulta por índice.
+     */
+    public List<ServicioAsignado> obtenerServiciosPorCliente(Long clienteId) {
+        return repositorioClienteServicio.findServiciosAsignadosByClienteId(clienteId);
     }
 
     // Obtener todos los clientes-servicios activos
@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -15,39 +16,41 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.facturacion.configuracion.MetricasFacturacion;
 import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.ClienteServicio;
 import com.example.facturacion.modelo.DetalleFactura;
 import com.example.facturacion.modelo.Factura;
 import com.example.facturacion.modelo.MovimientoCuentaCorriente;
 import com.example.facturacion.modelo.Servicio;
-import com.example.facturacion.modelo.enums.CondicionPago;
 import com.example.facturacion.modelo.enums.EstadoCliente;
 import com.example.facturacion.modelo.enums.EstadoFactura;
 import com.example.facturacion.modelo.enums.TipoMovimiento;
-import com.example.facturacion.repositorio.RepositorioCliente;
 import com.example.facturacion.repositorio.RepositorioClienteServicio;
 import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.FacturaListado;
+import com.example.facturacion.servicio.MotorFacturacionMasiva.ProcesadorLote;
+import com.example.facturacion.servicio.MotorFacturacionMasiva.RangoClientes;
+import com.example.facturacion.servicio.PlanificadorBusqueda.Plan;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva.DetalleFacturacion;
 
 @Service
 public class ServicioFacturacion {
 
     private static final Logger log = LoggerFactory.getLogger(ServicioFacturacion.class);
-    private static final int BATCH_SIZE = 50;
     // Plazos AFIP Argentina
     private static final int DIAS_RETROACTIVO_SERVICIOS = 10;
     
     // Mantenemos esta constante para la lógica de determinación de período automático
     private static final int DIAS_CIERRE_MES = 10; 
 
-    @Autowired
-    private RepositorioFactura repositorioFactura;
+    // Contador de clientes procesados por la facturación masiva, etiquetado por resultado
+    private static final String CLIENTES_FACTURACION_MASIVA = "facturacion.masiva.clientes";
 
     @Autowired
-    private RepositorioCliente repositorioCliente;
+    private RepositorioFactura repositorioFactura;
 
     @Autowired
     private RepositorioClienteServicio repositorioClienteServicio;
@@ -58,7 +61,22 @@ public class ServicioFacturacion {
     @Autowired
     private ServicioNotaCredito servicioNotaCredito;
 
+    @Autowired
+    private MotorFacturacionMasiva motorFacturacionMasiva;
+
+    @Autowired
+    private UnidadFacturacionCliente unidadFacturacionCliente;
+
+    @Autowired
+    private PlanificadorBusqueda planificadorBusqueda;
+
+    @Autowired
+    private MetricasFacturacion metricasFacturacion;
+
     // ==================== PROCESO MASIVO CON NORMATIVA AFIP ====================
+    // Los métodos masivos no abren una transacción propia: cada partición y cada cliente
+    // confirman por separado (ver MotorFacturacionMasiva y UnidadFacturacionCliente).
+
     /**
      * Ejecuta facturación masiva cumpliendo normativa AFIP para servicios continuos.
      * Usa el período mensual automático.
@@ -66,12 +84,10 @@ public class ServicioFacturacion {
      * @param fechaEmision Fecha de emisión de las facturas (debe cumplir normativa AFIP)
      * @return Resultado detallado de la facturación con estadísticas
      */
-    @Transactional
     public ResultadoFacturacionMasiva ejecutarFacturacionMasiva(LocalDate fechaEmision) {
         return ejecutarFacturacionMasiva(fechaEmision, (List<Long>) null);
     }
 
-    @Transactional
     public ResultadoFacturacionMasiva ejecutarFacturacionMasiva(LocalDate fechaEmision, List<Long> serviciosIds) {
         log.info("=== INICIANDO FACTURACIÓN MASIVA (PERÍODO MENSUAL) ===");
         log.info("Fecha de emisión solicitada: {}", fechaEmision);
@@ -84,7 +100,8 @@ public class ServicioFacturacion {
         LocalDate inicioPeriodo = mesFacturado.atDay(1);
         LocalDate finPeriodo = mesFacturado.atEndOfMonth();
         
-        return ejecutarFacturacionMasivaConPeriodo(fechaEmision, inicioPeriodo, finPeriodo, serviciosIds);
+        return ejecutarFacturacionMasivaConPeriodo(
+            fechaEmision, inicioPeriodo, finPeriodo, serviciosIds, null, ObservadorFacturacion.NINGUNO);
     }
 
     /**
@@ -96,7 +113,6 @@ public class ServicioFacturacion {
      * @param finPeriodo Fecha de fin del período a facturar
      * @return Resultado detallado de la facturación con estadísticas
      */
-    @Transactional
     public ResultadoFacturacionMasiva ejecutarFacturacionMasivaConRango(
             LocalDate fechaEmision, 
             LocalDate inicioPeriodo, 
@@ -104,12 +120,28 @@ public class ServicioFacturacion {
         return ejecutarFacturacionMasivaConRango(fechaEmision, inicioPeriodo, finPeriodo, null);
     }
 
-    @Transactional
     public ResultadoFacturacionMasiva ejecutarFacturacionMasivaConRango(
             LocalDate fechaEmision, 
             LocalDate inicioPeriodo, 
             LocalDate finPeriodo,
             List<Long> serviciosIds) {
+        return ejecutarFacturacionMasivaConRango(
+            fechaEmision, inicioPeriodo, finPeriodo, serviciosIds, null, ObservadorFacturacion.NINGUNO);
+    }
+
+    /**
+     * Igual que la versión anterior, recorriendo solo las particiones de clientes dadas
+     * (null = todos los clientes activos) y notificando al observador el resultado de cada lote
+     * a medida que se procesa. Lo usan los trabajos en segundo plano para informar el avance
+     * y retomar un recorrido interrumpido desde su último punto de control.
+     */
+    public ResultadoFacturacionMasiva ejecutarFacturacionMasivaConRango(
+            LocalDate fechaEmision, 
+            LocalDate inicioPeriodo, 
+            LocalDate finPeriodo,
+            List<Long> serviciosIds,
+            List<RangoClientes> particiones,
+            ObservadorFacturacion observador) {
         
         log.info("=== INICIANDO FACTURACIÓN MASIVA (RANGO PERSONALIZADO) ===");
         log.info("Fecha de emisión: {}", fechaEmision);
@@ -133,19 +165,40 @@ public class ServicioFacturacion {
         }
         
         // No validar AFIP para rangos personalizados (más flexibilidad)
-        return ejecutarFacturacionMasivaConPeriodo(fechaEmision, inicioPeriodo, finPeriodo, serviciosIds);
+        return ejecutarFacturacionMasivaConPeriodo(
+            fechaEmision, inicioPeriodo, finPeriodo, serviciosIds, particiones, observador);
     }
 
     /**
      * Método privado que ejecuta la facturación masiva con un período específico.
      * Usado tanto por facturación mensual como por rango personalizado.
+     * El recorrido de clientes lo realiza MotorFacturacionMasiva con el paralelismo configurado
+     * en 'facturacion.masiva.paralelismo'; cada cliente se factura en su propia transacción.
+     * La ejecución completa y cada cliente se registran en las métricas (ver MetricasFacturacion).
      */
-    @Transactional
     protected ResultadoFacturacionMasiva ejecutarFacturacionMasivaConPeriodo(
             LocalDate fechaEmision,
             LocalDate inicioPeriodo, 
             LocalDate finPeriodo,
-            List<Long> serviciosIds) {
+            List<Long> serviciosIds,
+            List<RangoClientes> particiones,
+            ObservadorFacturacion observador) {
+
+        ResultadoFacturacionMasiva resultado = metricasFacturacion.observar(MetricasFacturacion.FACTURACION_MASIVA,
+            () -> facturarPeriodo(fechaEmision, inicioPeriodo, finPeriodo, serviciosIds, particiones, observador));
+        metricasFacturacion.contar(CLIENTES_FACTURACION_MASIVA, "resultado", "exitoso", resultado.getExitosas());
+        metricasFacturacion.contar(CLIENTES_FACTURACION_MASIVA, "resultado", "fallido", resultado.getFallidas());
+        metricasFacturacion.contar(CLIENTES_FACTURACION_MASIVA, "resultado", "omitido", resultado.getOmitidas());
+        return resultado;
+    }
+
+    private ResultadoFacturacionMasiva facturarPeriodo(
+            LocalDate fechaEmision,
+            LocalDate inicioPeriodo, 
+            LocalDate finPeriodo,
+            List<Long> serviciosIds,
+            List<RangoClientes> particiones,
+            ObservadorFacturacion observador) {
         
         log.info("Período a facturar: {} a {}", inicioPeriodo, finPeriodo);
         
@@ -154,25 +207,12 @@ public class ServicioFacturacion {
         resultado.setPeriodoInicio(inicioPeriodo);
         resultado.setPeriodoFin(finPeriodo);
         
-        // Procesar clientes en lotes (paginación)
-        int pageNumber = 0;
-        Page<Cliente> clientesPage;
-        
-        do {
-            Pageable pageable = PageRequest.of(pageNumber, BATCH_SIZE);
-            clientesPage = repositorioCliente.findByEstado(EstadoCliente.ACTIVO, pageable);
-            
-            log.info("Procesando lote {}/{} ({} clientes)", 
-                     pageNumber + 1, 
-                     clientesPage.getTotalPages(), 
-                     clientesPage.getNumberOfElements());
-            
-            for (Cliente cliente : clientesPage.getContent()) {
-                procesarClienteConNormativaAFIP(cliente, fechaEmision, inicioPeriodo, finPeriodo, resultado, serviciosIds);
-            }
-            
-            pageNumber++;
-        } while (clientesPage.hasNext());
+        // Procesar clientes en particiones de IDs, en paralelo (cada partición en su propia transacción)
+        ProcesadorLote procesador = (particion, lote, parcial) -> procesarLote(
+            particion, lote, fechaEmision, inicioPeriodo, finPeriodo, parcial, serviciosIds, observador);
+        resultado.combinar(particiones != null
+            ? motorFacturacionMasiva.ejecutar(particiones, procesador)
+            : motorFacturacionMasiva.ejecutar(procesador));
         
         log.info("=== FACTURACIÓN MASIVA COMPLETADA ===");
         log.info("Exitosas: {} | Fallidas: {} | Omitidas: {}", 
@@ -237,235 +277,82 @@ public class ServicioFacturacion {
     }
 
     /**
-     * Procesa un cliente individual aplicando todas las validaciones AFIP.
-     * Usa propagación REQUIRES_NEW para que cada cliente sea una transacción independiente.
+     * Procesa un lote de clientes: precarga con consultas por lote sus servicios activos y
+     * las facturas ya emitidas en el período, y luego factura cada cliente desde memoria.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    protected void procesarClienteConNormativaAFIP(
-            Cliente cliente, 
+    private void procesarLote(
+            RangoClientes particion,
+            List<Cliente> lote,
             LocalDate fechaEmision,
-            LocalDate inicioPeriodo, 
+            LocalDate inicioPeriodo,
             LocalDate finPeriodo,
             ResultadoFacturacionMasiva resultado,
-            List<Long> serviciosIds) {
-        
-        try {
-            log.debug("Procesando cliente ID: {} - {}", cliente.getId(), 
-                     cliente.getRazonSocial() != null ? cliente.getRazonSocial() : 
-                     (cliente.getNombre() + " " + cliente.getApellido()));
-            
-            // VALIDACIÓN 1: Cliente activo
-            if (cliente.getEstado() != EstadoCliente.ACTIVO) {
-                resultado.agregarOmitido(
-                    cliente.getId(), 
-                    obtenerNombreCliente(cliente),
-                    "Cliente no activo: " + cliente.getEstado()
-                );
-                return;
-            }
-            
-            // VALIDACIÓN 2: No facturar dos veces el mismo período
-            if (yaFueFacturadoEnPeriodo(cliente, inicioPeriodo, finPeriodo)) {
-                resultado.agregarOmitido(
-                    cliente.getId(),
-                    obtenerNombreCliente(cliente),
-                    String.format("Ya facturado en período %s a %s", 
-                                 inicioPeriodo, finPeriodo)
-                );
-                return;
-            }
-            
-            // VALIDACIÓN 3: Servicios activos
-            List<ClienteServicio> serviciosActivos = repositorioClienteServicio
-                .findByClienteAndActivoTrue(cliente);
-            
-            // Filtrar por servicios seleccionados si se especificaron
-            if (serviciosIds != null && !serviciosIds.isEmpty()) {
-                serviciosActivos = serviciosActivos.stream()
-                    .filter(cs -> serviciosIds.contains(cs.getServicio().getId()))
-                    .toList();
-            }
-
-            if (serviciosActivos.isEmpty()) {
-                resultado.agregarOmitido(
-                    cliente.getId(),
-                    obtenerNombreCliente(cliente),
-                    "Sin servicios activos" + (serviciosIds != null ? " seleccionados" : "")
-                );
-                return;
-            }
-            
-            // VALIDACIÓN 4: Cliente CONTADO no debe tener deuda
-            if (cliente.getCondicionPago() == CondicionPago.CONTADO) {
-                BigDecimal saldo = cliente.getSaldoCuentaCorriente();
-                if (saldo != null && saldo.compareTo(BigDecimal.ZERO) < 0) {
-                    resultado.agregarFallido(
-                        cliente.getId(),
-                        obtenerNombreCliente(cliente),
-                        String.format("Cliente CONTADO con deuda pendiente: $%.2f", saldo.abs())
-                    );
-                    return;
-                }
-            }
-            
-            // GENERAR FACTURA
-            Factura factura = generarFacturaConFechaEmision(
-                cliente, 
-                serviciosActivos, 
-                fechaEmision,
-                inicioPeriodo,
-                finPeriodo
-            );
-            
-            resultado.agregarExitoso(
-                cliente.getId(),
-                obtenerNombreCliente(cliente),
-                factura.getId(),
-                factura.getTotal()
-            );
-            
-            log.debug("✓ Factura {} generada exitosamente para cliente {}", 
-                     factura.getId(), cliente.getId());
-            
-        } catch (Exception e) {
-            log.error("✗ Error al procesar cliente {}: {}", 
-                     cliente.getId(), e.getMessage(), e);
-            resultado.agregarFallido(
-                cliente.getId(),
-                obtenerNombreCliente(cliente),
-                "Error: " + e.getMessage()
-            );
-        }
-    }
-
-    /**
-     * Verifica si el cliente ya tiene factura en el período especificado.
-     */
-    private boolean yaFueFacturadoEnPeriodo(Cliente cliente, LocalDate inicio, LocalDate fin) {
-        return repositorioFactura.existsByClienteAndFechaEmisionBetween(cliente, inicio, fin);
-    }
-
-    /**
-     * Obtiene el nombre del cliente para mostrar en reportes.
-     */
-    private String obtenerNombreCliente(Cliente cliente) {
-        if (cliente.getRazonSocial() != null && !cliente.getRazonSocial().isEmpty()) {
-            return cliente.getRazonSocial();
+            List<Long> serviciosIds,
+            ObservadorFacturacion observador) {
+
+        PrecargaLoteFacturacion precarga = unidadFacturacionCliente.precargarLote(
+            lote.stream().map(Cliente::getId).toList(), inicioPeriodo, finPeriodo, serviciosIds);
+        boolean filtraServicios = serviciosIds != null && !serviciosIds.isEmpty();
+
+        List<DetalleFacturacion> detalles = new ArrayList<>(lote.size());
+        for (Cliente cliente : lote) {
+            DetalleFacturacion detalle = procesarClienteAislado(
+                cliente, precarga, fechaEmision, inicioPeriodo, finPeriodo, filtraServicios, particion, observador);
+            resultado.registrar(detalle);
+            detalles.add(detalle);
         }
-        return cliente.getNombre() + " " + cliente.getApellido();
+        observador.loteProcesado(particion, detalles);
     }
 
     /**
-     * Genera factura con fecha de emisión específica (para facturación masiva).
+     * Procesa un cliente delegando en UnidadFacturacionCliente, que corre en su propia
+     * transacción (REQUIRES_NEW) y entrega el detalle al observador antes del commit. El detalle
+     * se devuelve recién después del commit, y un error en el cliente solo revierte su propia
+     * transacción: en ese caso el detalle se entrega al observador en una transacción aparte.
      */
-    private Factura generarFacturaConFechaEmision(
+    private DetalleFacturacion procesarClienteAislado(
             Cliente cliente,
-            List<ClienteServicio> servicios,
+            PrecargaLoteFacturacion precarga,
             LocalDate fechaEmision,
-            LocalDate periodoInicio,
-            LocalDate periodoFin) {
-        // Validación: ningún ClienteServicio debe estar ya marcado como facturado
-        List<Long> serviciosYaFacturados = servicios.stream()
-            .filter(ClienteServicio::isEstaFacturado)
-            .map(ClienteServicio::getId)
-            .toList();
-        if (!serviciosYaFacturados.isEmpty()) {
-            throw new IllegalArgumentException("No se puede generar la factura: los siguientes ClienteServicio ya están facturados: " + serviciosYaFacturados);
-        }
-
-        Factura factura = new Factura();
-        factura.setCliente(cliente);
-        
-        // Si la fecha de emisión es hoy, usamos la hora actual. Si no, usamos el inicio del día.
-        if (fechaEmision.equals(LocalDate.now())) {
-            factura.setFechaEmision(LocalDateTime.now());
-        } else {
-            factura.setFechaEmision(fechaEmision.atStartOfDay());
-        }
-
-        factura.setFechaVencimiento(calcularFechaVencimiento(fechaEmision, cliente));
-        
-        // NUEVO: Guardar período facturado
-        factura.setFechaInicioPeriodo(periodoInicio);
-        factura.setFechaFinPeriodo(periodoFin);
-        
-        factura.setEstado(EstadoFactura.PENDIENTE_PAGO);
-        
-        // Asignar tipo de comprobante según condición fiscal
-        factura.setTipoComprobante(
-            com.example.facturacion.modelo.enums.TipoComprobante.getTipoFactura(cliente.getCondicionFiscal())
-        );
-        
-        // Agregar detalles de servicios
-        BigDecimal totalFactura = BigDecimal.ZERO;
-        
-        
-        for (ClienteServicio cs : servicios) {
-            Servicio servicio = cs.getServicio();
-            
-            DetalleFactura detalle = new DetalleFactura();
-            detalle.setServicio(servicio);
-            // Nota: DetalleFactura no tiene campo descripción, se obtiene del servicio
-            detalle.setCantidad(1);
-            detalle.setPrecioUnitario(cs.getPrecio());
-            
-            // Setear alícuota IVA
-            detalle.setAlicuotaIva(BigDecimal.valueOf(servicio.getAlicuota().getValor()));
-            
-            // Calcular montos (incluye IVA)
-            detalle.calcularMontos();
-            
-            factura.agregarDetalle(detalle);
-            totalFactura = totalFactura.add(detalle.getSubtotal());
-        }
-        
-        factura.setTotal(totalFactura);
-        
-        // Guardar factura
-        Factura facturaGuardada = repositorioFactura.save(factura);
-        
-        // Actualizar cuenta corriente
-        MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
-        movimiento.setFactura(facturaGuardada); // Vincular factura para el link
-        movimiento.setTipoMovimiento(TipoMovimiento.FACTURA);
-        movimiento.setMonto(facturaGuardada.getTotal());
-        movimiento.setDescripcion(
-            "Factura " + facturaGuardada.getTipoComprobante().getLetra() + 
-            " N° " + facturaGuardada.getId() + 
-            " - Período " + periodoInicio + " a " + periodoFin
-        );
-        
-        servicioCliente.registrarMovimiento(cliente.getId(), movimiento);
+            LocalDate inicioPeriodo,
+            LocalDate finPeriodo,
+            boolean filtraServicios,
+            RangoClientes particion,
+            ObservadorFacturacion observador) {
         
-        // Marcar los servicios del cliente como facturados y persistir los cambios
+        DetalleFacturacion detalle;
         try {
-            for (ClienteServicio cs : servicios) {
-                cs.cambiarEstadoFacturado(true);
-            }
-            repositorioClienteServicio.saveAll(servicios);
+            return metricasFacturacion.observar(MetricasFacturacion.FACTURACION_CLIENTE, cliente.getId(),
+                () -> unidadFacturacionCliente.procesarCliente(
+                    cliente, precarga, fechaEmision, inicioPeriodo, finPeriodo, filtraServicios, particion, observador));
         } catch (Exception e) {
-            log.error("Error al marcar ClienteServicio como facturado para la factura {}: {}", facturaGuardada.getId(), e.getMessage(), e);
-            throw new IllegalStateException("Fallo al persistir estado de ClienteServicio tras generar factura", e);
+            if (UnidadFacturacionCliente.esFacturaDuplicada(e)) {
+                // Otra ejecución (o un reintento tras un corte) ya facturó este período
+                detalle = DetalleFacturacion.omitido(cliente.getId(),
+                    UnidadFacturacionCliente.obtenerNombreCliente(cliente),
+                    String.format("Ya facturado en período %s a %s", inicioPeriodo, finPeriodo));
+            } else {
+                log.error("✗ Error al procesar cliente {}: {}", 
+                         cliente.getId(), e.getMessage(), e);
+                detalle = DetalleFacturacion.fallido(
+                    cliente.getId(),
+                    UnidadFacturacionCliente.obtenerNombreCliente(cliente),
+                    "Error: " + e.getMessage()
+                );
+            }
         }
-        
-        return facturaGuardada;
+        // Sin observador no hace falta abrir una transacción solo para notificarlo
+        if (observador != ObservadorFacturacion.NINGUNO) {
+            unidadFacturacionCliente.registrarRevertido(particion, detalle, observador);
+        }
+        return detalle;
     }
 
     /**
-     * Calcula fecha de vencimiento según condición de pago del cliente.
+     * Verifica si el cliente ya tiene factura en el período especificado.
      */
-    private LocalDate calcularFechaVencimiento(LocalDate fechaEmision, Cliente cliente) {
-        if (cliente.getCondicionPago() == null) {
-            return fechaEmision.plusDays(30);
-        }
-        
-        return switch (cliente.getCondicionPago()) {
-            case CONTADO -> fechaEmision; // Vence el mismo día
-            case CUENTA_CORRIENTE_30 -> fechaEmision.plusDays(30);
-            case CUENTA_CORRIENTE_60 -> fechaEmision.plusDays(60);
-            case CUENTA_CORRIENTE_90 -> fechaEmision.plusDays(90);
-            default -> fechaEmision.plusDays(30);
-        };
+    private boolean yaFueFacturadoEnPeriodo(Cliente cliente, LocalDate inicio, LocalDate fin) {
+        return repositorioFactura.existePeriodoFacturado(cliente.getId(), Factura.periodo(inicio, fin));
     }
 
     // ==================== PROCESO MASIVO LEGACY (RETROCOMPATIBILIDAD) ====================
@@ -476,7 +363,6 @@ public class ServicioFacturacion {
      * @deprecated Usar ejecutarFacturacionMasiva(LocalDate fechaEmision) para cumplir normativa AFIP
      */
     @Deprecated
-    @Transactional
     public int ejecutarFacturacionMasiva(LocalDate inicio, LocalDate fin) {
         log.warn("Usando método legacy de facturación masiva. Se recomienda usar la versión con fecha de emisión AFIP.");
         
@@ -569,10 +455,9 @@ public class ServicioFacturacion {
             }
         }
 
-        List<ClienteServicio> serviciosActivos = repositorioClienteServicio
-            .findByActivoTrue().stream()
-            .filter(cs -> cs.getCliente().getId().equals(clienteId))
-            .toList();
+        // Solo las asignaciones del cliente (índice id_cliente, activo), con su servicio ya cargado
+        List<ClienteServicio> serviciosActivos =
+            repositorioClienteServicio.findActivosConServicioByClienteIdIn(List.of(clienteId));
 
         // Filtrar por servicios seleccionados si se especificaron
         if (clienteServicioIds != null && !clienteServicioIds.isEmpty()) {
@@ -585,12 +470,14 @@ public class ServicioFacturacion {
             throw new IllegalArgumentException("El cliente no tiene servicios activos seleccionados para facturar");
         }
 
-        return generarFacturaConFechaEmision(
+        // La refacturación forzada no ocupa la clave de idempotencia del período
+        return unidadFacturacionCliente.generarFactura(
             cliente,
             serviciosActivos,
             fechaEmision,
             inicioPeriodo,
-            finPeriodo
+            finPeriodo,
+            !forzarRefacturacion
         );
     }
 
@@ -645,7 +532,7 @@ public class ServicioFacturacion {
             detalle.setPrecioUnitario(servicio.getPrecio()); 
             
             // Setear Alícuota desde el Servicio
-            detalle.setAlicuotaIva(BigDecimal.valueOf(servicio.getAlicuota().getValor()));
+            detalle.setAlicuotaIva(servicio.getAlicuota().getValorDecimal());
 
             // Calcular Impuestos y Totales
             detalle.calcularMontos();
@@ -655,6 +542,7 @@ public class ServicioFacturacion {
         }
 
         factura.setTotal(totalFactura);
+        factura.calcularDesgloseIva();
         
         factura = repositorioFactura.save(factura);
 
@@ -682,7 +570,7 @@ public class ServicioFacturacion {
     }
 
     // ==================== ANULACIÓN ====================
-    @Transactional
+    // Sin transacción propia: la anulación abre la suya para poder reintentarla ante conflictos
     public void anularFactura(Long facturaId) {
         // Delegamos la anulación al servicio de Notas de Crédito, que se encarga de:
         // 1. Validar que no esté anulada
@@ -693,22 +581,38 @@ public class ServicioFacturacion {
     }
     
     // ==================== CONSULTAS ====================
+    /**
+     * Página del listado de facturas como filas FacturaListado (cliente e IVA incluidos en una sola consulta),
+     * para que la vista no dependa de cargas diferidas.
+     */
     @Transactional(readOnly = true)
-    public Page<Factura> obtenerFacturasFiltradas(String busqueda, EstadoFactura estado,
+    public Page<FacturaListado> obtenerFacturasFiltradas(String busqueda, EstadoFactura estado,
                                                 LocalDateTime fechaDesde, LocalDateTime fechaHasta,
                                                 int page, int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
         
-        if ((busqueda == null || busqueda.isEmpty()) && estado == null && fechaDesde == null && fechaHasta == null) {
-            return repositorioFactura.findAll(pageable);
-        }
-        
-        return repositorioFactura.buscarConFiltros(busqueda, estado, fechaDesde, fechaHasta, pageable);
+        // El texto se resuelve por la ruta más barata (ver PlanificadorBusqueda)
+        Plan plan = planificadorBusqueda.planificar(busqueda);
+        return switch (plan.ruta()) {
+            case TODOS -> repositorioFactura.buscarConFiltros(estado, fechaDesde, fechaHasta, pageable);
+            case CLIENTE -> repositorioFactura.buscarDeClienteConFiltros(plan.clienteId(), estado, fechaDesde, fechaHasta, pageable);
+            case NINGUNO -> Page.empty(pageable);
+            case TEXTO -> repositorioFactura.buscarPorTextoConFiltros(plan.patron(), estado, fechaDesde, fechaHasta, pageable);
+        };
     }
     
     @Transactional(readOnly = true)
     public Factura obtenerFacturaPorId(Long id) {
         return repositorioFactura.findById(id).orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
     }
+
+    /**
+     * Obtiene una factura con su cliente y sus detalles (con el servicio de cada uno) ya cargados,
+     * para la vista del comprobante.
+     */
+    @Transactional(readOnly = true)
+    public Factura obtenerComprobante(Long id) {
+        return repositorioFactura.findComprobanteById(id).orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
+    }
 }
\ No newline at end of file
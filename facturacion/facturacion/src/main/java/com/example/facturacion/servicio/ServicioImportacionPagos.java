@@ -0,0 +1,258 @@
+package com.example.facturacion.servicio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.Pago;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.modelo.enums.MedioPago;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.ClienteFactura;
+import com.example.facturacion.repositorio.RepositorioPago;
+
+/**
+ * Importación de archivos de rendición de pagos (bancos, cobradores).
+ *
+ * Formato: una línea por pago, separada por ';' o ',':
+ *   factura;monto;medio de pago;fecha;referencia
+ * Solo factura y monto son obligatorios. El medio es un MedioPago (por defecto TRANSFERENCIA),
+ * la fecha es yyyy-MM-dd (por defecto, el momento de la importación) y la referencia se guarda
+ * en las observaciones del pago. Con ';' como separador el monto admite coma decimal.
+ * Si la primera línea no empieza con un número se toma como encabezado.
+ *
+ * El archivo se lee línea por línea, de a LOTE filas: las facturas de cada lote se resuelven
+ * con una consulta, y los pagos se aplican agrupados por cliente, en una transacción por
+ * cliente (ver ControlConcurrenciaCuentas), con los INSERT en lotes JDBC y un único UPDATE
+ * del saldo por cliente. El archivo nunca está entero en memoria.
+ */
+@Service
+public class ServicioImportacionPagos {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicioImportacionPagos.class);
+    private static final int LOTE = 500;
+    private static final String USUARIO_IMPORTACION = "IMPORTACION";
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private RepositorioPago repositorioPago;
+
+    @Autowired
+    private ServicioPago servicioPago;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    /**
+     * Importa los pagos del archivo y devuelve el informe de conciliación.
+     * Las filas que no se pueden aplicar no detienen la importación: quedan en el informe.
+     */
+    public ResultadoImportacionPagos importar(InputStream archivo) {
+        ResultadoImportacionPagos resultado = new ResultadoImportacionPagos();
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(archivo, StandardCharsets.UTF_8))) {
+            List<FilaPago> lote = new ArrayList<>(LOTE);
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (numero == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                if (linea.isBlank() || (numero == 1 && !Character.isDigit(linea.strip().charAt(0)))) {
+                    continue;
+                }
+                try {
+                    lote.add(FilaPago.parsear(numero, linea));
+                } catch (IllegalArgumentException e) {
+                    resultado.agregarRechazado(numero, null, null, e.getMessage());
+                    continue;
+                }
+                if (lote.size() == LOTE) {
+                    procesarLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+            procesarLote(lote, resultado);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo leer el archivo de pagos: " + e.getMessage(), e);
+        }
+
+        log.info("Importación de pagos: {} filas, {} aplicadas (${}), {} sin factura, {} sobrepagos, {} rechazadas",
+                 resultado.getTotal(), resultado.getAplicados(), resultado.getMontoAplicado(),
+                 resultado.getSinFactura(), resultado.getSobrepagos(), resultado.getRechazados());
+        return resultado;
+    }
+
+    /**
+     * Resuelve el cliente de todas las facturas del lote con una consulta y aplica los pagos
+     * de cada cliente en su propia transacción. Los clientes se recorren en orden de ID.
+     */
+    private void procesarLote(List<FilaPago> lote, ResultadoImportacionPagos resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> clientePorFactura = new HashMap<>();
+        for (ClienteFactura cf : repositorioFactura.findClientesDeFacturas(
+                lote.stream().map(FilaPago::facturaId).distinct().toList())) {
+            clientePorFactura.put(cf.facturaId(), cf.clienteId());
+        }
+
+        Map<Long, List<FilaPago>> porCliente = new TreeMap<>();
+        for (FilaPago fila : lote) {
+            Long clienteId = clientePorFactura.get(fila.facturaId());
+            if (clienteId == null) {
+                resultado.agregarSinFactura(fila.linea(), fila.facturaId(), fila.monto());
+            } else {
+                porCliente.computeIfAbsent(clienteId, id -> new ArrayList<>()).add(fila);
+            }
+        }
+
+        porCliente.forEach((clienteId, filas) -> {
+            try {
+                resultado.combinar(controlConcurrencia.ejecutar(clienteId, () -> aplicarPagosCliente(clienteId, filas)));
+            } catch (IllegalStateException | DataAccessException e) {
+                log.warn("No se pudieron aplicar los pagos del cliente {}: {}", clienteId, e.getMessage());
+                for (FilaPago fila : filas) {
+                    resultado.agregarRechazado(fila.linea(), fila.facturaId(), fila.monto(),
+                        "No se pudo aplicar: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Aplica, en orden de archivo, los pagos de un cliente dentro de la transacción en curso.
+     * Devuelve un resultado parcial nuevo en cada intento, para que un reintento no cuente dos veces.
+     */
+    private ResultadoImportacionPagos aplicarPagosCliente(Long clienteId, List<FilaPago> filas) {
+        ResultadoImportacionPagos parcial = new ResultadoImportacionPagos();
+        Map<Long, Factura> facturas = new HashMap<>();
+        for (Factura factura : repositorioFactura.findAllById(filas.stream().map(FilaPago::facturaId).distinct().toList())) {
+            facturas.put(factura.getId(), factura);
+        }
+
+        List<Pago> pagos = new ArrayList<>(filas.size());
+        List<MovimientoCuentaCorriente> movimientos = new ArrayList<>(filas.size());
+        for (FilaPago fila : filas) {
+            Factura factura = facturas.get(fila.facturaId());
+            if (factura == null) {
+                // Eliminada entre la lectura del lote y esta transacción
+                parcial.agregarSinFactura(fila.linea(), fila.facturaId(), fila.monto());
+                continue;
+            }
+            if (factura.getCliente().getEstado() == EstadoCliente.DADO_DE_BAJA) {
+                parcial.agregarRechazado(fila.linea(), fila.facturaId(), fila.monto(), "El cliente está DADO DE BAJA");
+                continue;
+            }
+            if (factura.isAnulada() || factura.getEstado() == EstadoFactura.ANULADA) {
+                parcial.agregarRechazado(fila.linea(), fila.facturaId(), fila.monto(), "La factura está ANULADA");
+                continue;
+            }
+            BigDecimal saldoPendiente = factura.getSaldoPendiente();
+            if (fila.monto().compareTo(saldoPendiente) > 0) {
+                parcial.agregarSobrepago(fila.linea(), fila.facturaId(), fila.monto(), saldoPendiente);
+                continue;
+            }
+
+            Pago pago = new Pago();
+            pago.setFactura(factura);
+            pago.setCliente(factura.getCliente());
+            pago.setMonto(fila.monto());
+            pago.setMedioPago(fila.medioPago());
+            pago.setFechaPago(fila.fecha() != null ? fila.fecha().atStartOfDay() : LocalDateTime.now());
+            pago.setObservaciones(fila.referencia());
+            pago.setUsuarioRegistro(USUARIO_IMPORTACION);
+            pagos.add(pago);
+            movimientos.add(servicioPago.imputar(factura, pago));
+            parcial.agregarAplicado(fila.monto());
+        }
+
+        repositorioPago.saveAll(pagos);
+        servicioCliente.registrarMovimientos(clienteId, movimientos);
+        return parcial;
+    }
+
+    /**
+     * Fila leída del archivo de pagos.
+     */
+    record FilaPago(int linea, Long facturaId, BigDecimal monto, MedioPago medioPago, LocalDate fecha, String referencia) {
+
+        // Largo de Pago.observaciones
+        private static final int LARGO_MAXIMO_REFERENCIA = 500;
+
+        static FilaPago parsear(int linea, String texto) {
+            boolean puntoYComa = texto.indexOf(';') >= 0;
+            String[] campos = texto.split(puntoYComa ? ";" : ",", -1);
+            if (campos.length < 2) {
+                throw new IllegalArgumentException("Se esperaban al menos factura y monto");
+            }
+
+            Long facturaId;
+            try {
+                facturaId = Long.valueOf(campos[0].strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Número de factura inválido: '" + campos[0].strip() + "'");
+            }
+
+            BigDecimal monto;
+            String textoMonto = campos[1].strip();
+            try {
+                monto = new BigDecimal(puntoYComa ? textoMonto.replace(',', '.') : textoMonto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Monto inválido: '" + textoMonto + "'");
+            }
+            if (monto.signum() <= 0 || monto.scale() > 2) {
+                throw new IllegalArgumentException("El monto debe ser mayor a 0 y tener hasta 2 decimales: '" + textoMonto + "'");
+            }
+
+            MedioPago medioPago = MedioPago.TRANSFERENCIA;
+            if (campos.length > 2 && !campos[2].isBlank()) {
+                try {
+                    medioPago = MedioPago.valueOf(campos[2].strip().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Medio de pago inválido: '" + campos[2].strip() + "'");
+                }
+            }
+
+            LocalDate fecha = null;
+            if (campos.length > 3 && !campos[3].isBlank()) {
+                try {
+                    fecha = LocalDate.parse(campos[3].strip());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Fecha inválida (se espera yyyy-MM-dd): '" + campos[3].strip() + "'");
+                }
+            }
+
+            String referencia = campos.length > 4 && !campos[4].isBlank() ? campos[4].strip() : null;
+            if (referencia != null && referencia.length() > LARGO_MAXIMO_REFERENCIA) {
+                throw new IllegalArgumentException("La referencia supera los " + LARGO_MAXIMO_REFERENCIA + " caracteres");
+            }
+            return new FilaPago(linea, facturaId, monto, medioPago, fecha, referencia);
+        }
+    }
+}
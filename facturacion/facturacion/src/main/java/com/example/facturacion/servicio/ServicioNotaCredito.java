@@ -6,12 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.facturacion.configuracion.MetricasFacturacion;
 import com.example.facturacion.modelo.DetalleFactura;
 import com.example.facturacion.modelo.DetalleNotaCredito;
 import com.example.facturacion.modelo.Factura;
 import com.example.facturacion.modelo.MovimientoCuentaCorriente;
 import com.example.facturacion.modelo.NotaCredito;
-import com.example.facturacion.modelo.enums.EstadoFactura;
 import com.example.facturacion.repositorio.RepositorioFactura;
 import com.example.facturacion.repositorio.RepositorioNotaCredito;
 
@@ -27,11 +27,27 @@ public class ServicioNotaCredito {
     @Autowired
     private ServicioCliente servicioCliente;
 
+    @Autowired
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    @Autowired
+    private MetricasFacturacion metricasFacturacion;
+
     /**
      * Genera una Nota de Crédito por anulación total de factura.
+     * Se ejecuta con la cuenta del cliente bloqueada y se reintenta si un pago concurrente
+     * modificó la factura (ver ControlConcurrenciaCuentas); en el reintento, una factura
+     * que otro proceso ya anuló se rechaza normalmente.
      */
-    @Transactional
     public NotaCredito crearNotaCreditoPorAnulacion(Long facturaId, String motivo) {
+        return metricasFacturacion.observar(MetricasFacturacion.ANULACION, () -> {
+            Long clienteId = repositorioFactura.findClienteIdById(facturaId)
+                    .orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
+            return controlConcurrencia.ejecutar(clienteId, () -> crearNotaCreditoEnTransaccion(facturaId, motivo));
+        });
+    }
+
+    private NotaCredito crearNotaCreditoEnTransaccion(Long facturaId, String motivo) {
         Factura factura = repositorioFactura.findById(facturaId)
                 .orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
 
@@ -39,7 +55,36 @@ public class ServicioNotaCredito {
             throw new IllegalArgumentException("La factura ya se encuentra anulada.");
         }
 
-        // 1. Crear Cabecera de Nota de Crédito
+        // 1. Actualizar Estado Factura (libera la clave de idempotencia del período).
+        // Se escribe primero: si un pago o anulación simultáneo ya la modificó, el conflicto de
+        // versión aparece acá y se reintenta, antes de insertar la NC (única por factura)
+        factura.anular();
+        repositorioFactura.saveAndFlush(factura);
+
+        // 2. Crear Nota de Crédito espejo de la factura
+        NotaCredito nc = armarNotaCredito(factura, motivo);
+
+        // 3. Guardar NC
+        nc = repositorioNotaCredito.save(nc);
+
+        // 4. Impactar Cuenta Corriente (Reversión)
+        // Usamos tu método estático porAnulacion en MovimientoCuentaCorriente
+        MovimientoCuentaCorriente movimiento = MovimientoCuentaCorriente.porAnulacion(
+                factura.getCliente(), 
+                nc, 
+                "ADMIN" // Usuario hardcodeado por ahora
+        );
+        
+        servicioCliente.registrarMovimiento(factura.getCliente().getId(), movimiento);
+
+        return nc;
+    }
+
+    /**
+     * Arma (sin guardar) la Nota de Crédito por anulación total de la factura: misma cabecera
+     * y un detalle espejo por cada DetalleFactura. Lo comparten la anulación individual y la masiva.
+     */
+    NotaCredito armarNotaCredito(Factura factura, String motivo) {
         NotaCredito nc = new NotaCredito();
         nc.setFactura(factura);
         nc.setCliente(factura.getCliente());
@@ -47,7 +92,6 @@ public class ServicioNotaCredito {
         nc.setTotal(factura.getTotal());
         nc.setMotivo(motivo);
 
-        // 2. Copiar Detalles (Espejo)
         for (DetalleFactura df : factura.getDetalles()) {
             DetalleNotaCredito dnc = new DetalleNotaCredito();
             dnc.setServicio(df.getServicio());
@@ -56,28 +100,10 @@ public class ServicioNotaCredito {
             dnc.setAlicuotaIva(df.getAlicuotaIva());
             dnc.setMontoIva(df.getMontoIva());
             dnc.setSubtotal(df.getSubtotal());
-            
+
             nc.agregarDetalle(dnc);
         }
-
-        // 3. Guardar NC
-        nc = repositorioNotaCredito.save(nc);
-
-        // 4. Actualizar Estado Factura
-        factura.setAnulada(true);
-        factura.setEstado(EstadoFactura.ANULADA);
-        repositorioFactura.save(factura);
-
-        // 5. Impactar Cuenta Corriente (Reversión)
-        // Usamos tu método estático porAnulacion en MovimientoCuentaCorriente
-        MovimientoCuentaCorriente movimiento = MovimientoCuentaCorriente.porAnulacion(
-                factura.getCliente(), 
-                nc, 
-                "ADMIN" // Usuario hardcodeado por ahora
-        );
-        
-        servicioCliente.registrarMovimiento(factura.getCliente().getId(), movimiento);
-
+        nc.calcularDesgloseIva();
         return nc;
     }
 
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.facturacion.configuracion.MetricasFacturacion;
 import com.example.facturacion.modelo.Cliente;
 import com.example.facturacion.modelo.Factura;
 import com.example.facturacion.modelo.MovimientoCuentaCorriente;
@@ -31,15 +32,33 @@ public class ServicioPago {
     @Autowired
     private ServicioCliente servicioCliente;
 
+    @Autowired
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    @Autowired
+    private MetricasFacturacion metricasFacturacion;
+
     /**
      * Registra un pago total o parcial.
      * Regla AFIP: "Si el pago se realiza... antes del vencimiento, la factura debe emitirse en ese mismo momento".
      * En este sistema, asumimos que la factura YA FUE EMITIDA (Estado EMITIDA) antes de llegar aquí.
+     * Se ejecuta con la cuenta del cliente bloqueada y se reintenta si otro pago o anulación
+     * modificó la factura en simultáneo (ver ControlConcurrenciaCuentas).
      * * @param pago Datos del pago (monto, medio, observaciones)
      * @param facturaId ID de la factura a cancelar
      */
-    @Transactional
     public Pago registrarPago(Pago pago, Long facturaId) {
+        return metricasFacturacion.observar(MetricasFacturacion.REGISTRO_PAGO, () -> {
+            Long clienteId = repositorioFactura.findClienteIdById(facturaId)
+                    .orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
+            return controlConcurrencia.ejecutar(clienteId, () -> registrarPagoEnTransaccion(pago, facturaId));
+        });
+    }
+
+    private Pago registrarPagoEnTransaccion(Pago pago, Long facturaId) {
+        // Un intento anterior revertido puede haberle asignado ID: se inserta siempre como nuevo
+        pago.setId(null);
+
         // 1. Recuperar Factura
         Factura factura = repositorioFactura.findById(facturaId)
                 .orElseThrow(() -> new IllegalArgumentException("Factura no encontrada"));
@@ -83,38 +102,39 @@ public class ServicioPago {
         pago = repositorioPago.save(pago); 
 
         // 6. Actualizar Factura (Monto Pagado y Estado)
-        // CORRECCIÓN AQUÍ: Usamos pago.getMonto()
-        BigDecimal nuevoAcumulado = factura.getMontoPagado().add(pago.getMonto());
-        factura.setMontoPagado(nuevoAcumulado);
+        MovimientoCuentaCorriente movimiento = imputar(factura, pago);
+        repositorioFactura.save(factura);
 
+        // 7. Registrar Movimiento
+        servicioCliente.registrarMovimiento(cliente.getId(), movimiento);
+
+        return pago;
+    }
+    
+    /**
+     * Imputa un pago ya validado a su factura: acumula el monto pagado, actualiza el estado
+     * y arma el movimiento de cuenta corriente del pago (sin registrarlo), con el usuario de registro del pago.
+     * Lo comparten el registro individual y la importación de pagos.
+     */
+    MovimientoCuentaCorriente imputar(Factura factura, Pago pago) {
+        factura.setMontoPagado(factura.getMontoPagado().add(pago.getMonto()));
         if (factura.getSaldoPendiente().compareTo(BigDecimal.ZERO) == 0) {
             factura.setEstado(EstadoFactura.PAGADA);
         } else {
             factura.setEstado(EstadoFactura.PARCIALMENTE_PAGADA);
         }
-        repositorioFactura.save(factura);
 
-        // 7. Registrar Movimiento
         MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
         movimiento.setTipoMovimiento(TipoMovimiento.PAGO);
-        
-        // CORRECCIÓN: Usamos pago.getMonto()
-        movimiento.setMonto(pago.getMonto()); 
-        
-        // CORRECCIÓN: Usamos la entidad pago guardada
-        movimiento.setPago(pago); 
-        
+        movimiento.setMonto(pago.getMonto());
+        movimiento.setPago(pago);
         movimiento.setFactura(factura);
-        movimiento.setDescripcion("Pago " + (factura.getEstado() == EstadoFactura.PAGADA ? "Total" : "Parcial") + 
+        movimiento.setDescripcion("Pago " + (factura.getEstado() == EstadoFactura.PAGADA ? "Total" : "Parcial") +
                                   " Fac #" + factura.getId() + " (" + pago.getMedioPago().getDescripcion() + ")");
-        movimiento.setUsuarioRegistro("SISTEMA");
-        movimiento.setFechaMovimiento(LocalDateTime.now());
-
-        servicioCliente.registrarMovimiento(cliente.getId(), movimiento);
-
-        return pago;
+        movimiento.setUsuarioRegistro(pago.getUsuarioRegistro());
+        return movimiento;
     }
-    
+
     /**
      * Caso especial: Facturación por anticipos.
      * "Si se trata de anticipos que fijan precio, la fecha de emisión debe ser el día en que se percibe el pago"
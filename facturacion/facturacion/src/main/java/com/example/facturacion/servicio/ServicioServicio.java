@@ -1,9 +1,16 @@
 package com.example.facturacion.servicio;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,22 +20,36 @@ import org.springframework.stereotype.Service;
 import com.example.facturacion.modelo.Servicio;
 import com.example.facturacion.repositorio.RepositorioServicio;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 import jakarta.transaction.Transactional;
 
 /**
  * Servicio para manejar la lógica de negocio relacionada con los servicios.
+ *
+ * El catálogo cambia poco y se lee en cada pantalla de facturas y asignaciones, así que la lista
+ * de servicios activos y cada servicio por ID se leen a través de una caché en memoria
+ * (ver ConfiguracionCache). Alta, modificación, baja y reactivación la invalidan.
+ * Las instancias devueltas son compartidas: no deben modificarse.
  */
 @Service
 public class ServicioServicio {
-    
+
+    public static final String CACHE_SERVICIOS = "servicios";
+    public static final String CACHE_SERVICIOS_ACTIVOS = "servicios-activos";
+
     @Autowired
     private RepositorioServicio repositorioServicio;
+
+    @Autowired
+    private CacheManager cacheManager;
     
     /**
      * Guarda un nuevo servicio. Valida unicidad de nombre.
      * @param servicio El servicio a guardar.
      * @return El servicio guardado.
      */
+    @CacheEvict(cacheNames = CACHE_SERVICIOS_ACTIVOS, allEntries = true)
     public Servicio guardarServicio(Servicio servicio) {
         if (repositorioServicio.existsByNombre(servicio.getNombre())) {
             throw new IllegalArgumentException("El nombre del servicio ya existe");
@@ -41,6 +62,10 @@ public class ServicioServicio {
      * @param servicio El servicio a actualizar.
      * @return El servicio actualizado.
      */
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CACHE_SERVICIOS, key = "#servicio.id"),
+        @CacheEvict(cacheNames = CACHE_SERVICIOS_ACTIVOS, allEntries = true)
+    })
     public Servicio actualizarServicio(Servicio servicio) {
         final long id = Objects.requireNonNull(servicio.getId(), "El ID del servicio es requerido para actualizar");
         if (!repositorioServicio.existsById(id)) {
@@ -56,8 +81,9 @@ public class ServicioServicio {
      * Obtiene todos los servicios activos.
      * @return Lista de servicios activos.
      */
+    @Cacheable(CACHE_SERVICIOS_ACTIVOS)
     public List<Servicio> obtenerTodosLosServicios() {
-        return repositorioServicio.findByActivoTrue();
+        return List.copyOf(repositorioServicio.findByActivoTrue());
     }
 
     /**
@@ -93,6 +119,7 @@ public class ServicioServicio {
      * @param id El ID del servicio.
      * @return El servicio encontrado o null si no existe.
      */
+    @Cacheable(cacheNames = CACHE_SERVICIOS, key = "#id", unless = "#result == null")
     public Servicio obtenerServicioPorId(Long id) {
         final Long safeId = Objects.requireNonNull(id, "El ID no puede ser nulo");
         return repositorioServicio.findById(safeId).orElse(null);
@@ -103,6 +130,10 @@ public class ServicioServicio {
      * @param id El ID del servicio a dar de baja.
      */
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CACHE_SERVICIOS, key = "#id"),
+        @CacheEvict(cacheNames = CACHE_SERVICIOS_ACTIVOS, allEntries = true)
+    })
     public void darDeBajaServicioPorId(Long id) {
         final Long safeId = Objects.requireNonNull(id, "El ID no puede ser nulo");
         if(!repositorioServicio.existsById(safeId)){
@@ -123,6 +154,10 @@ public class ServicioServicio {
      * @param id El ID del servicio a reactivar.
      */
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CACHE_SERVICIOS, key = "#id"),
+        @CacheEvict(cacheNames = CACHE_SERVICIOS_ACTIVOS, allEntries = true)
+    })
     public void reactivarServicioPorId(Long id) {
         final Long safeId = Objects.requireNonNull(id, "El ID no puede ser nulo");
         if(!repositorioServicio.existsById(safeId)){
@@ -137,7 +172,34 @@ public class ServicioServicio {
             throw new IllegalArgumentException("Error al reactivar el servicio con ID " + safeId + ": " + ex.getMessage());
         }
     }
+
+    /**
+     * Obtiene todos los servicios activos (misma entrada de caché que obtenerTodosLosServicios).
+     * @return Lista de servicios activos.
+     */
+    @Cacheable(CACHE_SERVICIOS_ACTIVOS)
     public List<Servicio> obtenerServiciosActivos() {
-        return repositorioServicio.findByActivoTrue();
+        return List.copyOf(repositorioServicio.findByActivoTrue());
+    }
+
+    /**
+     * Aciertos, fallos y tamaño de las cachés del catálogo desde que inició la aplicación.
+     * @return Un mapa por caché con hits, misses, tasaAciertos, desalojos y entradas.
+     */
+    public Map<String, Map<String, Object>> obtenerEstadisticasCache() {
+        Map<String, Map<String, Object>> estadisticas = new LinkedHashMap<>();
+        for (String nombre : List.of(CACHE_SERVICIOS, CACHE_SERVICIOS_ACTIVOS)) {
+            if (cacheManager.getCache(nombre) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("hits", stats.hitCount());
+                fila.put("misses", stats.missCount());
+                fila.put("tasaAciertos", stats.hitRate());
+                fila.put("desalojos", stats.evictionCount());
+                fila.put("entradas", cache.getNativeCache().estimatedSize());
+                estadisticas.put(nombre, fila);
+            }
+        }
+        return estadisticas;
     }
 }
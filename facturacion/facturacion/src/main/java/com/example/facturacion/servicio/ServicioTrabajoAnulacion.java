@@ -0,0 +1,168 @@
+package com.example.facturacion.servicio;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.TrabajoAnulacion;
+import com.example.facturacion.modelo.TrabajoFacturacion;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioTrabajoAnulacion;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Anulaciones masivas en segundo plano.
+ *
+ * Igual que los trabajos de facturación (ServicioTrabajoFacturacion): el pedido HTTP valida y
+ * encola la anulación (queda persistida como PENDIENTE) y un único hilo trabajador la ejecuta
+ * con ServicioAnulacionMasiva. Después de cada lote se guardan sus contadores y su clave, así
+ * el avance puede consultarse mientras corre y, al iniciar la aplicación, las anulaciones que
+ * quedaron pendientes o en curso se retoman desde el último lote procesado.
+ */
+@Service
+public class ServicioTrabajoAnulacion {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicioTrabajoAnulacion.class);
+
+    @Autowired
+    private RepositorioTrabajoAnulacion repositorioTrabajoAnulacion;
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private ServicioAnulacionMasiva servicioAnulacionMasiva;
+
+    // Un solo trabajador: las anulaciones se ejecutan de a una, en orden de llegada
+    private final ExecutorService trabajador = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "trabajo-anulacion");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Encola la anulación de las facturas emitidas por un trabajo de facturación finalizado.
+     */
+    public TrabajoAnulacion encolarTrabajo(Long trabajoFacturacionId, String motivo) {
+        servicioAnulacionMasiva.validarTrabajo(trabajoFacturacionId);
+        TrabajoAnulacion anulacion = new TrabajoAnulacion();
+        anulacion.setTrabajoFacturacionId(trabajoFacturacionId);
+        return encolar(anulacion, motivo);
+    }
+
+    /**
+     * Encola la anulación de las facturas no anuladas de un período facturado.
+     */
+    public TrabajoAnulacion encolarPeriodo(LocalDate inicioPeriodo, LocalDate finPeriodo, String motivo) {
+        ServicioAnulacionMasiva.validarPeriodo(inicioPeriodo, finPeriodo);
+        TrabajoAnulacion anulacion = new TrabajoAnulacion();
+        anulacion.setPeriodoInicio(inicioPeriodo);
+        anulacion.setPeriodoFin(finPeriodo);
+        return encolar(anulacion, motivo);
+    }
+
+    private TrabajoAnulacion encolar(TrabajoAnulacion anulacion, String motivo) {
+        // Valida el largo; el motivo por defecto se arma al ejecutar
+        ServicioAnulacionMasiva.motivoOPorDefecto(motivo, null);
+        anulacion.setMotivo(motivo == null || motivo.isBlank() ? null : motivo.strip());
+        anulacion = repositorioTrabajoAnulacion.save(anulacion);
+
+        Long id = anulacion.getId();
+        trabajador.submit(() -> ejecutar(id));
+        log.info("Anulación masiva {} encolada", id);
+        return anulacion;
+    }
+
+    /**
+     * Vuelve a encolar las anulaciones que no terminaron antes del último apagado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        List<TrabajoAnulacion> pendientes = repositorioTrabajoAnulacion.findByEstadoInOrderByIdAsc(
+            List.of(EstadoTrabajoFacturacion.PENDIENTE, EstadoTrabajoFacturacion.EN_CURSO));
+        for (TrabajoAnulacion anulacion : pendientes) {
+            log.info("Reanudando anulación masiva {} ({})", anulacion.getId(), anulacion.getEstado());
+            Long id = anulacion.getId();
+            trabajador.submit(() -> ejecutar(id));
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        // Una anulación interrumpida queda EN_CURSO y se reanuda en el próximo inicio
+        trabajador.shutdownNow();
+    }
+
+    public TrabajoAnulacion obtenerAnulacion(Long id) {
+        return repositorioTrabajoAnulacion.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Anulación masiva no encontrada con ID: " + id));
+    }
+
+    /**
+     * Ejecuta una anulación en el hilo trabajador. Una anulación nueva cuenta las facturas a
+     * anular y empieza desde el principio; una que quedó EN_CURSO conserva sus contadores y
+     * continúa después del último lote guardado. Si el corte ocurrió entre la transacción de un
+     * lote y el guardado de su avance, las facturas de ese lote se omiten por ya estar anuladas.
+     */
+    void ejecutar(Long id) {
+        TrabajoAnulacion anulacion = repositorioTrabajoAnulacion.findById(id).orElse(null);
+        if (anulacion == null || anulacion.getEstado().isFinalizado()) {
+            return;
+        }
+
+        if (anulacion.getEstado() == EstadoTrabajoFacturacion.EN_CURSO) {
+            log.info("Retomando anulación masiva {} después de la clave {}: {} facturas ya procesadas",
+                     id, anulacion.getUltimoId(), anulacion.getProcesadas());
+        } else {
+            anulacion.iniciar(contarFacturas(anulacion));
+            anulacion = repositorioTrabajoAnulacion.save(anulacion);
+        }
+
+        ObservadorAnulacion avance = (lote, ultimoId) -> repositorioTrabajoAnulacion.sumarProgreso(id,
+            lote.getTotal(), lote.getAnuladas(), lote.getOmitidas(), lote.getFallidas(), lote.getMontoAnulado(), ultimoId);
+        try {
+            if (anulacion.isPorTrabajo()) {
+                servicioAnulacionMasiva.anularTrabajo(anulacion.getTrabajoFacturacionId(), anulacion.getMotivo(),
+                    anulacion.getUltimoId(), avance);
+            } else {
+                servicioAnulacionMasiva.anularPeriodo(anulacion.getPeriodoInicio(), anulacion.getPeriodoFin(),
+                    anulacion.getMotivo(), anulacion.getUltimoId(), avance);
+            }
+            // Los contadores se actualizaron con UPDATE incrementales: se relee la anulación
+            anulacion = obtenerAnulacion(id);
+            anulacion.completar();
+            log.info("Anulación masiva {} completada: {} anuladas (${}), {} omitidas, {} fallidas", id,
+                     anulacion.getAnuladas(), anulacion.getMontoAnulado(), anulacion.getOmitidas(), anulacion.getFallidas());
+        } catch (Exception e) {
+            if (trabajador.isShutdown()) {
+                // Apagado de la aplicación: queda EN_CURSO y se retoma en el próximo inicio
+                log.warn("Anulación masiva {} interrumpida por apagado; se retomará al reiniciar", id);
+                return;
+            }
+            log.error("Anulación masiva {} fallida: {}", id, e.getMessage(), e);
+            anulacion = obtenerAnulacion(id);
+            anulacion.fallar(e.getMessage());
+        }
+        repositorioTrabajoAnulacion.save(anulacion);
+    }
+
+    private long contarFacturas(TrabajoAnulacion anulacion) {
+        if (anulacion.isPorTrabajo()) {
+            TrabajoFacturacion trabajo = servicioAnulacionMasiva.validarTrabajo(anulacion.getTrabajoFacturacionId());
+            return trabajo.getExitosas();
+        }
+        return repositorioFactura.countNoAnuladasDelPeriodo(
+            Factura.periodo(anulacion.getPeriodoInicio(), anulacion.getPeriodoFin()));
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.facturacion.servicio;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.DetalleTrabajoFacturacion;
+import com.example.facturacion.modelo.PuntoControlFacturacion;
+import com.example.facturacion.modelo.TrabajoFacturacion;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioDetalleTrabajoFacturacion.ConteoPorEstado;
+import com.example.facturacion.repositorio.RepositorioPuntoControlFacturacion;
+import com.example.facturacion.repositorio.RepositorioTrabajoFacturacion;
+import com.example.facturacion.servicio.MotorFacturacionMasiva.RangoClientes;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva.DetalleFacturacion;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Trabajos de facturación masiva en segundo plano.
+ *
+ * El pedido HTTP solo encola el trabajo (queda persistido como PENDIENTE) y un único hilo
+ * trabajador lo ejecuta. El avance y el detalle por cliente se guardan a medida que se procesa,
+ * por lo que pueden consultarse mientras corre. Al iniciar la aplicación se vuelven a encolar
+ * los trabajos que quedaron pendientes o en curso; los que estaban en curso se retoman desde
+ * el punto de control de cada partición.
+ */
+@Service
+public class ServicioTrabajoFacturacion {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicioTrabajoFacturacion.class);
+
+    @Autowired
+    private RepositorioTrabajoFacturacion repositorioTrabajo;
+
+    @Autowired
+    private RepositorioDetalleTrabajoFacturacion repositorioDetalleTrabajo;
+
+    @Autowired
+    private RepositorioPuntoControlFacturacion repositorioPuntoControl;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private MotorFacturacionMasiva motorFacturacionMasiva;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Un solo trabajador: los trabajos se ejecutan de a uno, en orden de llegada
+    private final ExecutorService trabajador = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "trabajo-facturacion");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Encola un trabajo de facturación masiva y devuelve su ID sin esperar a que se ejecute.
+     */
+    public TrabajoFacturacion encolar(LocalDate fechaEmision, LocalDate inicioPeriodo, LocalDate finPeriodo,
+                                      List<Long> serviciosIds) {
+        if (inicioPeriodo == null || finPeriodo == null) {
+            throw new IllegalArgumentException("Las fechas de inicio y fin del período son obligatorias");
+        }
+        if (inicioPeriodo.isAfter(finPeriodo)) {
+            throw new IllegalArgumentException(
+                "La fecha de inicio no puede ser posterior a la fecha de fin. " +
+                "Inicio: " + inicioPeriodo + ", Fin: " + finPeriodo);
+        }
+
+        TrabajoFacturacion trabajo = new TrabajoFacturacion();
+        trabajo.setFechaEmision(fechaEmision != null ? fechaEmision : LocalDate.now());
+        trabajo.setPeriodoInicio(inicioPeriodo);
+        trabajo.setPeriodoFin(finPeriodo);
+        trabajo.setServiciosIdsLista(serviciosIds);
+        trabajo = repositorioTrabajo.save(trabajo);
+
+        Long id = trabajo.getId();
+        trabajador.submit(() -> ejecutar(id));
+        log.info("Trabajo de facturación {} encolado: período {} a {}", id, inicioPeriodo, finPeriodo);
+        return trabajo;
+    }
+
+    /**
+     * Vuelve a encolar los trabajos que no terminaron antes del último apagado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        List<TrabajoFacturacion> pendientes = repositorioTrabajo.findByEstadoInOrderByIdAsc(
+            List.of(EstadoTrabajoFacturacion.PENDIENTE, EstadoTrabajoFacturacion.EN_CURSO));
+        for (TrabajoFacturacion trabajo : pendientes) {
+            log.info("Reanudando trabajo de facturación {} ({})", trabajo.getId(), trabajo.getEstado());
+            Long id = trabajo.getId();
+            trabajador.submit(() -> ejecutar(id));
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        // Un trabajo interrumpido queda EN_CURSO y se reanuda en el próximo inicio
+        trabajador.shutdownNow();
+    }
+
+    public TrabajoFacturacion obtenerTrabajo(Long id) {
+        return repositorioTrabajo.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Trabajo de facturación no encontrado con ID: " + id));
+    }
+
+    public Page<TrabajoFacturacion> obtenerTrabajos(int page, int size) {
+        return repositorioTrabajo.findAllByOrderByIdDesc(PageRequest.of(page, size));
+    }
+
+    /**
+     * Obtiene una página del detalle por cliente de un trabajo, opcionalmente filtrado por
+     * uno o más estados separados por coma (por ejemplo "FALLIDA,OMITIDA").
+     */
+    public Page<DetalleTrabajoFacturacion> obtenerDetalles(Long trabajoId, String estado, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size, Sort.by("id"));
+        if (estado == null || estado.isBlank()) {
+            return repositorioDetalleTrabajo.findByTrabajoId(trabajoId, pageable);
+        }
+        List<String> estados = Arrays.stream(estado.split(","))
+            .map(String::trim)
+            .filter(e -> !e.isEmpty())
+            .toList();
+        if (estados.size() == 1) {
+            return repositorioDetalleTrabajo.findByTrabajoIdAndEstado(trabajoId, estados.get(0), pageable);
+        }
+        return repositorioDetalleTrabajo.findByTrabajoIdAndEstadoIn(trabajoId, estados, pageable);
+    }
+
+    /**
+     * Ejecuta un trabajo en el hilo trabajador.
+     *
+     * Un trabajo nuevo calcula las particiones de clientes y guarda un punto de control por
+     * cada una. Un trabajo que quedó EN_CURSO (la aplicación se detuvo a mitad del recorrido)
+     * conserva su detalle, y cada partición se retoma desde el cliente siguiente al último
+     * confirmado: el detalle y el punto de control de cada cliente se guardan en la misma
+     * transacción que su factura. Los contadores se suman por lote, así que al retomar se
+     * rehacen desde el detalle (incluye los clientes del lote que quedó a medias).
+     */
+    void ejecutar(Long id) {
+        TrabajoFacturacion trabajo = repositorioTrabajo.findById(id).orElse(null);
+        if (trabajo == null || trabajo.getEstado().isFinalizado()) {
+            return;
+        }
+
+        List<PuntoControlFacturacion> puntosControl = repositorioPuntoControl.findByTrabajoIdOrderByDesdeIdAsc(id);
+        List<RangoClientes> particiones;
+        if (trabajo.getEstado() == EstadoTrabajoFacturacion.EN_CURSO && !puntosControl.isEmpty()) {
+            trabajo = rehacerProgreso(trabajo);
+            particiones = puntosControl.stream()
+                .filter(punto -> !punto.isCompletado())
+                .map(punto -> new RangoClientes(punto.getSiguienteId(), punto.getHastaId()))
+                .toList();
+            log.info("Retomando trabajo de facturación {} desde su punto de control: {} de {} particiones pendientes, {} clientes ya procesados",
+                     id, particiones.size(), puntosControl.size(), trabajo.getProcesados());
+        } else {
+            particiones = iniciar(trabajo);
+        }
+
+        try {
+            servicioFacturacion.ejecutarFacturacionMasivaConRango(
+                trabajo.getFechaEmision(), trabajo.getPeriodoInicio(), trabajo.getPeriodoFin(),
+                trabajo.getServiciosIdsLista(), particiones, new AvanceTrabajo(id));
+            // Los contadores se actualizaron con UPDATE incrementales: se relee el trabajo
+            trabajo = obtenerTrabajo(id);
+            trabajo.completar();
+            log.info("Trabajo de facturación {} completado: {} exitosas, {} fallidas, {} omitidas",
+                     id, trabajo.getExitosas(), trabajo.getFallidas(), trabajo.getOmitidas());
+        } catch (Exception e) {
+            if (trabajador.isShutdown()) {
+                // Apagado de la aplicación: queda EN_CURSO y se retoma en el próximo inicio
+                log.warn("Trabajo de facturación {} interrumpido por apagado; se retomará al reiniciar", id);
+                return;
+            }
+            log.error("Trabajo de facturación {} fallido: {}", id, e.getMessage(), e);
+            trabajo = obtenerTrabajo(id);
+            trabajo.fallar(e.getMessage());
+        }
+        repositorioTrabajo.save(trabajo);
+    }
+
+    /**
+     * Pone el trabajo EN_CURSO desde cero y guarda un punto de control por partición,
+     * todo en una misma transacción: si la aplicación se detiene antes del commit, el
+     * trabajo sigue PENDIENTE.
+     */
+    private List<RangoClientes> iniciar(TrabajoFacturacion trabajo) {
+        List<RangoClientes> particiones = motorFacturacionMasiva.calcularParticiones();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(status -> {
+            repositorioDetalleTrabajo.eliminarPorTrabajo(trabajo.getId());
+            repositorioPuntoControl.eliminarPorTrabajo(trabajo.getId());
+            repositorioPuntoControl.saveAll(particiones.stream()
+                .map(rango -> new PuntoControlFacturacion(trabajo.getId(), rango.desdeId(), rango.hastaId()))
+                .toList());
+            trabajo.iniciar(repositorioCliente.countByEstado(EstadoCliente.ACTIVO));
+            repositorioTrabajo.save(trabajo);
+        });
+        return particiones;
+    }
+
+    /**
+     * Reemplaza los contadores de un trabajo interrumpido por los que resultan de su detalle.
+     */
+    private TrabajoFacturacion rehacerProgreso(TrabajoFacturacion trabajo) {
+        long exitosas = 0;
+        long fallidas = 0;
+        long omitidas = 0;
+        BigDecimal monto = BigDecimal.ZERO;
+        for (ConteoPorEstado conteo : repositorioDetalleTrabajo.contarPorEstado(trabajo.getId())) {
+            switch (conteo.estado()) {
+                case DetalleFacturacion.EXITOSA -> {
+                    exitosas = conteo.cantidad();
+                    monto = conteo.monto() != null ? conteo.monto() : BigDecimal.ZERO;
+                }
+                case DetalleFacturacion.FALLIDA -> fallidas = conteo.cantidad();
+                default -> omitidas += conteo.cantidad();
+            }
+        }
+        trabajo.setExitosas(exitosas);
+        trabajo.setFallidas(fallidas);
+        trabajo.setOmitidas(omitidas);
+        trabajo.setProcesados(exitosas + fallidas + omitidas);
+        trabajo.setMontoTotalFacturado(monto);
+        return repositorioTrabajo.save(trabajo);
+    }
+
+    /**
+     * Observador que persiste el avance de un trabajo. El detalle de cada cliente y el punto de
+     * control de su partición se escriben en la transacción que factura al cliente, de modo que
+     * el punto de control nunca queda detrás de una factura confirmada. Los contadores del
+     * trabajo se suman una vez por lote, en una transacción propia, para no bloquear la fila del
+     * trabajo en la transacción de cada cliente de todas las particiones.
+     */
+    private class AvanceTrabajo implements ObservadorFacturacion {
+        private final Long trabajoId;
+
+        AvanceTrabajo(Long trabajoId) {
+            this.trabajoId = trabajoId;
+        }
+
+        /**
+         * Se invoca dentro de la transacción del cliente: los repositorios participan de ella.
+         */
+        @Override
+        public void clienteProcesado(RangoClientes particion, DetalleFacturacion detalle) {
+            repositorioDetalleTrabajo.save(convertir(detalle));
+            repositorioPuntoControl.avanzar(trabajoId, particion.hastaId(), detalle.getClienteId());
+        }
+
+        /**
+         * Se invoca desde la transacción de solo lectura de una partición: la escritura
+         * se hace en una transacción propia.
+         */
+        @Override
+        public void loteProcesado(RangoClientes particion, List<DetalleFacturacion> detalles) {
+            if (detalles.isEmpty()) {
+                return;
+            }
+            long exitosas = 0;
+            long fallidas = 0;
+            long omitidas = 0;
+            BigDecimal monto = BigDecimal.ZERO;
+            for (DetalleFacturacion detalle : detalles) {
+                switch (detalle.getEstado()) {
+                    case DetalleFacturacion.EXITOSA -> {
+                        exitosas++;
+                        monto = monto.add(detalle.getMonto());
+                    }
+                    case DetalleFacturacion.FALLIDA -> fallidas++;
+                    default -> omitidas++;
+                }
+            }
+
+            long totalExitosas = exitosas;
+            long totalFallidas = fallidas;
+            long totalOmitidas = omitidas;
+            BigDecimal totalMonto = monto;
+            TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+            transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaccion.executeWithoutResult(status -> repositorioTrabajo.sumarProgreso(trabajoId, detalles.size(),
+                totalExitosas, totalFallidas, totalOmitidas, totalMonto));
+        }
+
+        private DetalleTrabajoFacturacion convertir(DetalleFacturacion detalle) {
+            DetalleTrabajoFacturacion fila = new DetalleTrabajoFacturacion();
+            fila.setTrabajoId(trabajoId);
+            fila.setClienteId(detalle.getClienteId());
+            fila.setRazonSocial(detalle.getRazonSocial());
+            fila.setFacturaId(detalle.getFacturaId());
+            fila.setEstado(detalle.getEstado());
+            fila.setMotivo(recortar(detalle.getMotivo()));
+            fila.setMonto(detalle.getMonto());
+            return fila;
+        }
+
+        private String recortar(String motivo) {
+            return motivo != null && motivo.length() > 1000 ? motivo.substring(0, 1000) : motivo;
+        }
+    }
+}
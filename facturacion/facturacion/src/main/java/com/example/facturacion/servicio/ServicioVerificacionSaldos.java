@@ -0,0 +1,165 @@
+package com.example.facturacion.servicio;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioMovimientoCuentaCorriente;
+import com.example.facturacion.repositorio.RepositorioMovimientoCuentaCorriente.SaldoMovimiento;
+
+/**
+ * Verificación del libro de cuenta corriente.
+ *
+ * Recorre los movimientos de cada cliente en orden, recalcula el saldo acumulado y corrige
+ * los saldos resultantes que no coincidan (por ejemplo, movimientos anteriores a la columna
+ * saldo_resultante) y el saldo del cliente. Los movimientos se leen como proyección en un
+ * stream, y las correcciones se escriben por lotes, por lo que la memoria usada no depende
+ * de la cantidad de movimientos.
+ */
+@Service
+public class ServicioVerificacionSaldos {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicioVerificacionSaldos.class);
+    private static final int LOTE_CLIENTES = 100;
+    private static final int LOTE_CORRECCIONES = 500;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private RepositorioMovimientoCuentaCorriente repositorioMovimiento;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Si es true, al iniciar la aplicación se verifican todos los clientes
+     * (necesario una vez para completar el saldo acumulado de movimientos existentes).
+     */
+    @Value("${facturacion.saldos.verificar-al-iniciar:false}")
+    private boolean verificarAlIniciar;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarAlIniciar() {
+        if (verificarAlIniciar) {
+            verificarTodos();
+        }
+    }
+
+    /**
+     * Verifica todos los clientes, de a uno por transacción.
+     */
+    public ResultadoVerificacion verificarTodos() {
+        ResultadoVerificacion total = new ResultadoVerificacion();
+        long ultimoId = 0;
+        List<Long> ids;
+        do {
+            ids = repositorioCliente.findIdsSiguientes(ultimoId, Limit.of(LOTE_CLIENTES));
+            for (Long clienteId : ids) {
+                total.combinar(verificarCliente(clienteId));
+            }
+            if (!ids.isEmpty()) {
+                ultimoId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOTE_CLIENTES);
+
+        log.info("Verificación de saldos: {} clientes, {} con saldo corregido, {} movimientos corregidos",
+                 total.getClientes(), total.getClientesCorregidos(), total.getMovimientosCorregidos());
+        return total;
+    }
+
+    /**
+     * Verifica un cliente en su propia transacción. El cliente queda bloqueado mientras tanto,
+     * por lo que no pueden registrarse movimientos nuevos a mitad del recorrido.
+     */
+    public ResultadoVerificacion verificarCliente(Long clienteId) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        return transaccion.execute(status -> {
+            Cliente cliente = repositorioCliente.findByIdParaActualizar(clienteId)
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado con ID: " + clienteId));
+
+            ResultadoVerificacion resultado = new ResultadoVerificacion();
+            resultado.clientes = 1;
+            BigDecimal saldo = BigDecimal.ZERO;
+            List<Object[]> correcciones = new ArrayList<>(LOTE_CORRECCIONES);
+            try (Stream<SaldoMovimiento> movimientos = repositorioMovimiento.streamSaldosPorCliente(clienteId)) {
+                Iterator<SaldoMovimiento> it = movimientos.iterator();
+                while (it.hasNext()) {
+                    SaldoMovimiento movimiento = it.next();
+                    saldo = saldo.add(MovimientoCuentaCorriente.impactoEnSaldo(movimiento.tipoMovimiento(), movimiento.monto()));
+                    if (movimiento.saldoResultante() == null || movimiento.saldoResultante().compareTo(saldo) != 0) {
+                        correcciones.add(new Object[] { saldo, movimiento.id() });
+                        if (correcciones.size() == LOTE_CORRECCIONES) {
+                            resultado.movimientosCorregidos += corregir(correcciones);
+                        }
+                    }
+                }
+            }
+            resultado.movimientosCorregidos += corregir(correcciones);
+
+            if (cliente.getSaldoCuentaCorriente().compareTo(saldo) != 0) {
+                log.warn("Saldo del cliente {} corregido: {} -> {}", clienteId, cliente.getSaldoCuentaCorriente(), saldo);
+                cliente.setSaldoCuentaCorriente(saldo);
+                resultado.clientesCorregidos = 1;
+            }
+            return resultado;
+        });
+    }
+
+    private int corregir(List<Object[]> correcciones) {
+        if (correcciones.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE movimiento_cuenta_corriente SET saldo_resultante = ? WHERE id = ?", correcciones);
+        int cantidad = correcciones.size();
+        correcciones.clear();
+        return cantidad;
+    }
+
+    /**
+     * Contadores de una verificación de saldos.
+     */
+    public static class ResultadoVerificacion {
+        private long clientes;
+        private long clientesCorregidos;
+        private long movimientosCorregidos;
+
+        public long getClientes() {
+            return clientes;
+        }
+
+        public long getClientesCorregidos() {
+            return clientesCorregidos;
+        }
+
+        public long getMovimientosCorregidos() {
+            return movimientosCorregidos;
+        }
+
+        void combinar(ResultadoVerificacion otro) {
+            clientes += otro.clientes;
+            clientesCorregidos += otro.clientesCorregidos;
+            movimientosCorregidos += otro.movimientosCorregidos;
+        }
+    }
+}
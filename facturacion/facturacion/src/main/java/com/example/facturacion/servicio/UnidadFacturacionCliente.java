@@ -0,0 +1,344 @@
+package com.example.facturacion.servicio;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.ClienteServicio;
+import com.example.facturacion.modelo.DetalleFactura;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.Servicio;
+import com.example.facturacion.modelo.enums.CondicionPago;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.modelo.enums.TipoComprobante;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+import com.example.facturacion.repositorio.RepositorioClienteServicio;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.servicio.MotorFacturacionMasiva.RangoClientes;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva.DetalleFacturacion;
+
+/**
+ * Unidad de facturación de un cliente.
+ *
+ * Es un bean separado de ServicioFacturacion para que la propagación REQUIRES_NEW pase
+ * por el proxy de Spring: cada cliente de la facturación masiva se confirma (o revierte)
+ * en su propia transacción, con su propio contexto de persistencia.
+ */
+@Service
+public class UnidadFacturacionCliente {
+
+    private static final Logger log = LoggerFactory.getLogger(UnidadFacturacionCliente.class);
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private RepositorioClienteServicio repositorioClienteServicio;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    /**
+     * Precarga, para un lote de clientes, sus asignaciones activas con el servicio y el
+     * conjunto de clientes ya facturados en el período: dos consultas por lote en lugar
+     * de varias por cliente. Participa de la transacción de lectura del llamador.
+     *
+     * @param serviciosIds Si no es null ni vacía, solo se conservan las asignaciones de esos servicios
+     */
+    @Transactional(readOnly = true)
+    public PrecargaLoteFacturacion precargarLote(
+            List<Long> clienteIds,
+            LocalDate inicioPeriodo,
+            LocalDate finPeriodo,
+            List<Long> serviciosIds) {
+        if (clienteIds.isEmpty()) {
+            return new PrecargaLoteFacturacion(Map.of(), Set.of());
+        }
+
+        Set<Long> filtroServicios = serviciosIds != null && !serviciosIds.isEmpty()
+            ? new HashSet<>(serviciosIds) : null;
+        Map<Long, List<ClienteServicio>> serviciosPorCliente = new HashMap<>();
+        for (ClienteServicio cs : repositorioClienteServicio.findActivosConServicioByClienteIdIn(clienteIds)) {
+            if (filtroServicios == null || filtroServicios.contains(cs.getServicio().getId())) {
+                // cs.getCliente() es un proxy sin inicializar: obtener el ID no dispara consultas
+                serviciosPorCliente.computeIfAbsent(cs.getCliente().getId(), id -> new ArrayList<>()).add(cs);
+            }
+        }
+
+        Set<Long> facturados = new HashSet<>(
+            repositorioFactura.findClienteIdsFacturadosEnPeriodo(clienteIds, Factura.periodo(inicioPeriodo, finPeriodo)));
+
+        return new PrecargaLoteFacturacion(serviciosPorCliente, facturados);
+    }
+
+    /**
+     * Procesa un cliente de la facturación masiva aplicando todas las validaciones AFIP.
+     * Se ejecuta en una transacción independiente: si falla, solo se revierte este cliente.
+     * Las validaciones se resuelven con la precarga del lote, sin consultar la base.
+     *
+     * El detalle se entrega al observador dentro de la misma transacción, así lo que este
+     * persista (por ejemplo, el detalle y el punto de control de un trabajo) queda confirmado
+     * junto con la factura. El llamador debe registrar el detalle devuelto en el resultado
+     * recién cuando el método retorna (es decir, después del commit).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public DetalleFacturacion procesarCliente(
+            Cliente cliente,
+            PrecargaLoteFacturacion precarga,
+            LocalDate fechaEmision,
+            LocalDate inicioPeriodo,
+            LocalDate finPeriodo,
+            boolean filtraServicios,
+            RangoClientes particion,
+            ObservadorFacturacion observador) {
+
+        DetalleFacturacion detalle = facturarCliente(
+            cliente, precarga, fechaEmision, inicioPeriodo, finPeriodo, filtraServicios);
+        observador.clienteProcesado(particion, detalle);
+        return detalle;
+    }
+
+    /**
+     * Entrega al observador, en una transacción propia, el detalle de un cliente cuya
+     * transacción de facturación se revirtió.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrarRevertido(RangoClientes particion, DetalleFacturacion detalle, ObservadorFacturacion observador) {
+        observador.clienteProcesado(particion, detalle);
+    }
+
+    private DetalleFacturacion facturarCliente(
+            Cliente cliente,
+            PrecargaLoteFacturacion precarga,
+            LocalDate fechaEmision,
+            LocalDate inicioPeriodo,
+            LocalDate finPeriodo,
+            boolean filtraServicios) {
+
+        log.debug("Procesando cliente ID: {} - {}", cliente.getId(), obtenerNombreCliente(cliente));
+
+        // VALIDACIÓN 1: Cliente activo
+        if (cliente.getEstado() != EstadoCliente.ACTIVO) {
+            return DetalleFacturacion.omitido(cliente.getId(), obtenerNombreCliente(cliente),
+                "Cliente no activo: " + cliente.getEstado());
+        }
+
+        // VALIDACIÓN 2: No facturar dos veces el mismo período
+        if (precarga.yaFacturado(cliente.getId())) {
+            return DetalleFacturacion.omitido(cliente.getId(), obtenerNombreCliente(cliente),
+                String.format("Ya facturado en período %s a %s", inicioPeriodo, finPeriodo));
+        }
+
+        // VALIDACIÓN 3: Servicios activos (ya filtrados por los servicios seleccionados)
+        List<ClienteServicio> serviciosActivos = precarga.serviciosActivos(cliente.getId());
+
+        if (serviciosActivos.isEmpty()) {
+            return DetalleFacturacion.omitido(cliente.getId(), obtenerNombreCliente(cliente),
+                "Sin servicios activos" + (filtraServicios ? " seleccionados" : ""));
+        }
+
+        // VALIDACIÓN 4: Cliente CONTADO no debe tener deuda
+        if (cliente.getCondicionPago() == CondicionPago.CONTADO) {
+            BigDecimal saldo = cliente.getSaldoCuentaCorriente();
+            if (saldo != null && saldo.compareTo(BigDecimal.ZERO) < 0) {
+                return DetalleFacturacion.fallido(cliente.getId(), obtenerNombreCliente(cliente),
+                    String.format("Cliente CONTADO con deuda pendiente: $%.2f", saldo.abs()));
+            }
+        }
+
+        // GENERAR FACTURA
+        Factura factura = generarFactura(cliente, serviciosActivos, fechaEmision, inicioPeriodo, finPeriodo);
+
+        log.debug("✓ Factura {} generada para cliente {}", factura.getId(), cliente.getId());
+        return DetalleFacturacion.exitoso(cliente.getId(), obtenerNombreCliente(cliente),
+            factura.getId(), factura.getTotal());
+    }
+
+    /**
+     * Genera y persiste una factura con fecha de emisión específica, registra el movimiento
+     * en cuenta corriente y marca los servicios como facturados.
+     * La factura lleva la clave de idempotencia del período: si ya existe una factura vigente
+     * para el mismo cliente y período, el commit falla por la restricción única.
+     * Participa de la transacción del llamador.
+     */
+    @Transactional
+    public Factura generarFactura(
+            Cliente cliente,
+            List<ClienteServicio> servicios,
+            LocalDate fechaEmision,
+            LocalDate periodoInicio,
+            LocalDate periodoFin) {
+        return generarFactura(cliente, servicios, fechaEmision, periodoInicio, periodoFin, true);
+    }
+
+    /**
+     * Igual que la versión anterior; con conClaveIdempotencia = false la factura no bloquea
+     * el período (refacturación forzada).
+     */
+    @Transactional
+    public Factura generarFactura(
+            Cliente cliente,
+            List<ClienteServicio> servicios,
+            LocalDate fechaEmision,
+            LocalDate periodoInicio,
+            LocalDate periodoFin,
+            boolean conClaveIdempotencia) {
+        // Validación: ningún ClienteServicio debe estar ya marcado como facturado
+        List<Long> serviciosYaFacturados = servicios.stream()
+            .filter(ClienteServicio::isEstaFacturado)
+            .map(ClienteServicio::getId)
+            .toList();
+        if (!serviciosYaFacturados.isEmpty()) {
+            throw new IllegalArgumentException("No se puede generar la factura: los siguientes ClienteServicio ya están facturados: " + serviciosYaFacturados);
+        }
+
+        Factura factura = construirFactura(cliente, servicios, fechaEmision, periodoInicio, periodoFin);
+        if (conClaveIdempotencia) {
+            factura.asignarClaveIdempotencia();
+        }
+
+        // Guardar factura
+        Factura facturaGuardada = repositorioFactura.save(factura);
+
+        // Actualizar cuenta corriente
+        MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
+        movimiento.setFactura(facturaGuardada); // Vincular factura para el link
+        movimiento.setTipoMovimiento(TipoMovimiento.FACTURA);
+        movimiento.setMonto(facturaGuardada.getTotal());
+        movimiento.setDescripcion(
+            "Factura " + facturaGuardada.getTipoComprobante().getLetra() +
+            " N° " + facturaGuardada.getId() +
+            " - Período " + periodoInicio + " a " + periodoFin
+        );
+
+        servicioCliente.registrarMovimiento(cliente.getId(), movimiento);
+
+        // Marcar los servicios del cliente como facturados con un único UPDATE
+        // (las asignaciones pueden venir desacopladas de la precarga del lote)
+        try {
+            repositorioClienteServicio.marcarFacturados(servicios.stream().map(ClienteServicio::getId).toList());
+            for (ClienteServicio cs : servicios) {
+                cs.cambiarEstadoFacturado(true);
+            }
+        } catch (Exception e) {
+            log.error("Error al marcar ClienteServicio como facturado para la factura {}: {}", facturaGuardada.getId(), e.getMessage(), e);
+            throw new IllegalStateException("Fallo al persistir estado de ClienteServicio tras generar factura", e);
+        }
+
+        return facturaGuardada;
+    }
+
+    /**
+     * Arma la factura en memoria (cabecera, detalles y total) sin persistirla.
+     */
+    public Factura construirFactura(
+            Cliente cliente,
+            List<ClienteServicio> servicios,
+            LocalDate fechaEmision,
+            LocalDate periodoInicio,
+            LocalDate periodoFin) {
+        Factura factura = new Factura();
+        factura.setCliente(cliente);
+
+        // Si la fecha de emisión es hoy, usamos la hora actual. Si no, usamos el inicio del día.
+        if (fechaEmision.equals(LocalDate.now())) {
+            factura.setFechaEmision(LocalDateTime.now());
+        } else {
+            factura.setFechaEmision(fechaEmision.atStartOfDay());
+        }
+
+        factura.setFechaVencimiento(calcularFechaVencimiento(fechaEmision, cliente));
+
+        // Período facturado
+        factura.setFechaInicioPeriodo(periodoInicio);
+        factura.setFechaFinPeriodo(periodoFin);
+
+        factura.setEstado(EstadoFactura.PENDIENTE_PAGO);
+
+        // Asignar tipo de comprobante según condición fiscal
+        factura.setTipoComprobante(TipoComprobante.getTipoFactura(cliente.getCondicionFiscal()));
+
+        // Agregar detalles de servicios
+        BigDecimal totalFactura = BigDecimal.ZERO;
+
+        for (ClienteServicio cs : servicios) {
+            Servicio servicio = cs.getServicio();
+
+            DetalleFactura detalle = new DetalleFactura();
+            detalle.setServicio(servicio);
+            // Nota: DetalleFactura no tiene campo descripción, se obtiene del servicio
+            detalle.setCantidad(1);
+            detalle.setPrecioUnitario(cs.getPrecio());
+
+            // Setear alícuota IVA
+            detalle.setAlicuotaIva(servicio.getAlicuota().getValorDecimal());
+
+            // Calcular montos (incluye IVA)
+            detalle.calcularMontos();
+
+            factura.agregarDetalle(detalle);
+            totalFactura = totalFactura.add(detalle.getSubtotal());
+        }
+
+        factura.setTotal(totalFactura);
+        factura.calcularDesgloseIva();
+        return factura;
+    }
+
+    /**
+     * Calcula fecha de vencimiento según condición de pago del cliente.
+     */
+    private LocalDate calcularFechaVencimiento(LocalDate fechaEmision, Cliente cliente) {
+        if (cliente.getCondicionPago() == null) {
+            return fechaEmision.plusDays(30);
+        }
+
+        return switch (cliente.getCondicionPago()) {
+            case CONTADO -> fechaEmision; // Vence el mismo día
+            case CUENTA_CORRIENTE_30 -> fechaEmision.plusDays(30);
+            case CUENTA_CORRIENTE_60 -> fechaEmision.plusDays(60);
+            case CUENTA_CORRIENTE_90 -> fechaEmision.plusDays(90);
+            default -> fechaEmision.plusDays(30);
+        };
+    }
+
+    /**
+     * Indica si el error proviene de la restricción única de la clave de idempotencia,
+     * es decir, si el cliente ya tenía una factura vigente para el período.
+     */
+    static boolean esFacturaDuplicada(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            String mensaje = causa.getMessage();
+            if (mensaje != null && mensaje.toLowerCase().contains(Factura.RESTRICCION_CLAVE_IDEMPOTENCIA)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene el nombre del cliente para mostrar en reportes.
+     */
+    static String obtenerNombreCliente(Cliente cliente) {
+        if (cliente.getRazonSocial() != null && !cliente.getRazonSocial().isEmpty()) {
+            return cliente.getRazonSocial();
+        }
+        return cliente.getNombre() + " " + cliente.getApellido();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.servicio.ResultadoAnulacionMasiva;
+import com.example.facturacion.servicio.ServicioAnulacionMasiva;
+import com.example.facturacion.servicio.ServicioNotaCredito;
+import com.example.facturacion.servicio.ServicioVerificacionSaldos;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark de la anulación de las facturas de un período: recorrer la anulación individual
+ * (ServicioNotaCredito.crearNotaCreditoPorAnulacion, una transacción por factura) contra la
+ * anulación masiva por lotes (ServicioAnulacionMasiva.anularPeriodo).
+ *
+ * Informa milisegundos y sentencias JDBC por factura, y verifica que ambos caminos dejan las
+ * mismas Notas de Crédito, detalles y saldos.
+ * La cantidad de facturas se puede cambiar con -Dbenchmark.facturas=5000
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=AnulacionMasivaBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+class AnulacionMasivaBenchmarkTest {
+
+    private static final int DETALLES_POR_FACTURA = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioNotaCredito servicioNotaCredito;
+
+    @Autowired
+    private ServicioAnulacionMasiva servicioAnulacionMasiva;
+
+    @Autowired
+    private ServicioVerificacionSaldos servicioVerificacionSaldos;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * este test compara la anulación individual en bucle con la anulación masiva del mismo período
+     */
+    @Test
+    void compararAnulacionIndividualYMasiva() {
+        int cantidad = Integer.getInteger("benchmark.facturas", 2000);
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        LocalDate fin = inicio.plusMonths(1).minusDays(1);
+
+        System.out.printf("%nAnulación de %d facturas de un período (%d detalles cada una)%n", cantidad, DETALLES_POR_FACTURA);
+        System.out.printf("%-12s %12s %14s %18s%n", "Camino", "total (ms)", "ms/factura", "sentencias/factura");
+
+        // Individual: una transacción por factura
+        prepararFacturas(cantidad);
+        List<Long> facturas = jdbcTemplate.queryForList("SELECT id FROM factura ORDER BY id", Long.class);
+        estadisticas.clear();
+        long inicioIndividual = System.nanoTime();
+        for (Long facturaId : facturas) {
+            servicioNotaCredito.crearNotaCreditoPorAnulacion(facturaId, "Benchmark");
+        }
+        double msIndividual = (System.nanoTime() - inicioIndividual) / 1e6;
+        long sentenciasIndividual = estadisticas.getPrepareStatementCount();
+        imprimir("Individual", msIndividual, sentenciasIndividual, cantidad);
+        verificar(cantidad);
+
+        // Masiva: de a lotes, con los INSERT/UPDATE agrupados y un UPDATE de saldo por cliente
+        prepararFacturas(cantidad);
+        estadisticas.clear();
+        long inicioMasiva = System.nanoTime();
+        ResultadoAnulacionMasiva resultado = servicioAnulacionMasiva.anularPeriodo(inicio, fin, "Benchmark");
+        double msMasiva = (System.nanoTime() - inicioMasiva) / 1e6;
+        long sentenciasMasiva = estadisticas.getPrepareStatementCount();
+        imprimir("Masiva", msMasiva, sentenciasMasiva, cantidad);
+        System.out.printf("Aceleración: %.1fx (sentencias: %.1fx menos)%n",
+                          msIndividual / msMasiva, (double) sentenciasIndividual / sentenciasMasiva);
+
+        assertEquals(cantidad, resultado.getAnuladas());
+        assertEquals(0, resultado.getFallidas());
+        verificar(cantidad);
+
+        // Repetirla no anula nada más
+        assertEquals(0, servicioAnulacionMasiva.anularPeriodo(inicio, fin, "Benchmark").getAnuladas());
+        assertTrue(sentenciasMasiva < sentenciasIndividual);
+    }
+
+    private void imprimir(String camino, double ms, long sentencias, int cantidad) {
+        System.out.printf("%-12s %12.0f %14.3f %18.1f%n", camino, ms, ms / cantidad, (double) sentencias / cantidad);
+    }
+
+    /**
+     * Verifica que todas las facturas quedaron anuladas con su NC espejo y su reversión.
+     */
+    private void verificar(int cantidad) {
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM factura WHERE anulada = false", Integer.class));
+        assertEquals(cantidad, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nota_credito", Integer.class));
+        assertEquals(cantidad * DETALLES_POR_FACTURA,
+                     jdbcTemplate.queryForObject("SELECT COUNT(*) FROM detalle_nota_credito", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM nota_credito nc JOIN factura f ON f.id = nc.factura_id WHERE nc.total <> f.total",
+            Integer.class));
+        assertEquals(cantidad, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM movimiento_cuenta_corriente WHERE tipo_movimiento = 'ANULACION'", Integer.class));
+        // Cada cliente tenía una factura de 1000 sin cargo registrado: la reversión deja el saldo en -1000
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM cliente WHERE saldo_cuenta_corriente <> -1000", Integer.class));
+        Long clienteId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cliente", Long.class);
+        assertEquals(0, servicioVerificacionSaldos.verificarCliente(clienteId).getClientesCorregidos());
+        assertEquals(0, new BigDecimal("-1000").compareTo(jdbcTemplate.queryForObject(
+            "SELECT saldo_resultante FROM movimiento_cuenta_corriente WHERE cliente_id = ?", BigDecimal.class, clienteId)));
+    }
+
+    private void prepararFacturas(int cantidad) {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(cantidad, 0);
+        generador.insertarServicios(5);
+        generador.insertarFacturasMensuales(1);
+        generador.insertarDetallesFacturas(DETALLES_POR_FACTURA);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Control de regresiones de asignación de memoria en la facturación: ejecuta los microbenchmarks JMH
+ * (FacturacionBenchmark con 12 líneas y CalculoMontosBenchmark.centavos) con el perfilador de GC
+ * y compara los bytes asignados por operación (gc.alloc.rate.norm) con un presupuesto.
+ *
+ * Los presupuestos son ~1,5 veces lo medido: un cambio que los supere agrega objetos por línea o
+ * por factura en el camino de facturación y debería revisarse (o justificarse subiendo el presupuesto).
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=AsignacionesFacturacionBenchmarkTest
+ */
+@Tag("benchmark")
+class AsignacionesFacturacionBenchmarkTest {
+
+    // Bytes por operación (medidos: 3304, 0, 480, 368, 800 y 72320)
+    private static final Map<String, Double> PRESUPUESTOS = Map.of(
+        "FacturacionBenchmark.armarFactura", 5_000.0,
+        "FacturacionBenchmark.ivaPorAlicuota", 16.0,
+        "FacturacionBenchmark.preciosContratados", 720.0,
+        "FacturacionBenchmark.movimientoPorFactura", 560.0,
+        "FacturacionBenchmark.saldoAcumulado", 1_200.0,
+        "CalculoMontosBenchmark.centavos", 110_000.0);
+
+    /**
+     * este test verifica que los bytes asignados por operación no superan el presupuesto
+     */
+    @Test
+    void asignacionesDentroDelPresupuesto() throws Exception {
+        Options opciones = new OptionsBuilder()
+            .include("FacturacionBenchmark")
+            .include("CalculoMontosBenchmark.centavos")
+            .param("lineas", "12")
+            .addProfiler(GCProfiler.class)
+            .warmupIterations(2)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .build();
+        Collection<RunResult> resultados = new Runner(opciones).run();
+
+        List<String> excedidos = new ArrayList<>();
+        System.out.printf("%n%-44s %14s %14s %12s%n", "Benchmark", "ops/s", "B/op", "presupuesto");
+        for (RunResult resultado : resultados) {
+            String benchmark = resultado.getParams().getBenchmark();
+            String nombre = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            double bytes = resultado.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+            Double presupuesto = PRESUPUESTOS.get(nombre);
+            System.out.printf("%-44s %14.0f %14.1f %12s%n", nombre, resultado.getPrimaryResult().getScore(), bytes,
+                              presupuesto != null ? String.format("%.0f", presupuesto) : "-");
+            if (presupuesto != null && bytes > presupuesto) {
+                excedidos.add(nombre + ": " + Math.round(bytes) + " B/op > " + Math.round(presupuesto));
+            }
+        }
+        assertEquals(PRESUPUESTOS.size(), resultados.size());
+        assertTrue(excedidos.isEmpty(), "Asignaciones por encima del presupuesto: " + excedidos);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.servicio.IndiceClientes;
+import com.example.facturacion.servicio.ServicioCliente;
+
+/**
+ * Benchmark del selector de clientes de los formularios: cargar todos los clientes activos para
+ * el combo (ServicioCliente.obtenerClientesActivos) contra el buscador por prefijo (IndiceClientes).
+ *
+ * Informa el tiempo de la carga completa, el de armar el índice (solo la primera búsqueda)
+ * y el promedio por búsqueda en microsegundos.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=BuscadorClientesBenchmarkTest  (-Dbenchmark.clientes=N)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class BuscadorClientesBenchmarkTest {
+
+    private static final int REPETICIONES = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private IndiceClientes indiceClientes;
+
+    /**
+     * este test compara la carga del combo completo con las búsquedas por prefijo
+     */
+    @Test
+    void compararComboContraBuscador() {
+        int cantidad = Integer.getInteger("benchmark.clientes", 100_000);
+        prepararClientes(cantidad);
+
+        long inicio = System.nanoTime();
+        List<Cliente> combo = servicioCliente.obtenerClientesActivos();
+        double msCombo = (System.nanoTime() - inicio) / 1e6;
+
+        inicio = System.nanoTime();
+        assertFalse(indiceClientes.buscar("sint", 10).isEmpty());
+        double msIndice = (System.nanoTime() - inicio) / 1e6;
+        assertEquals(combo.size(), indiceClientes.getCantidad());
+
+        String[] consultas = {"sint", "nombre4", "apellido12345", "2000012", "cliente sint 9", "0000077"};
+        for (String consulta : consultas) {
+            assertFalse(indiceClientes.buscar(consulta, 10).isEmpty(), consulta);
+        }
+        // Calentamiento
+        for (int i = 0; i < REPETICIONES; i++) {
+            indiceClientes.buscar(consultas[i % consultas.length], 10);
+        }
+        inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            indiceClientes.buscar(consultas[i % consultas.length], 10);
+        }
+        double usBusqueda = (System.nanoTime() - inicio) / 1e3 / REPETICIONES;
+
+        System.out.printf("%nSelector de clientes con %d clientes (%d activos)%n", cantidad, combo.size());
+        System.out.printf("%-36s %12.1f ms%n", "Combo con todos los activos", msCombo);
+        System.out.printf("%-36s %12.1f ms%n", "Armado del índice (primera búsqueda)", msIndice);
+        System.out.printf("%-36s %12.1f µs%n", "Búsqueda (10 resultados, promedio)", usBusqueda);
+
+        assertTrue(usBusqueda / 1000 < msCombo);
+    }
+
+    private void prepararClientes(int cantidad) {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(cantidad, 10);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.servicio.ServicioCliente;
+import com.example.facturacion.servicio.ServicioFacturacion;
+
+/**
+ * Benchmark de las búsquedas por texto de los listados de clientes y facturas: la consulta anterior
+ * (cinco LOWER(...) LIKE '%texto%' unidos con OR, reproducida por JDBC) contra la búsqueda planificada
+ * (CUIT/DNI exactos por índice único y el resto sobre la columna normalizada texto_busqueda).
+ *
+ * Con H2 no hay índice de trigramas: la ruta por texto sigue recorriendo la tabla, pero una sola columna.
+ * Para medir con el índice GIN, ejecutar contra PostgreSQL sobreescribiendo spring.datasource.*.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=BusquedaTextoBenchmarkTest
+ *   (-Dbenchmark.clientes=1000000 -Dbenchmark.meses=10 para 1M de clientes y 10M de facturas)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class BusquedaTextoBenchmarkTest {
+
+    private static final int REPETICIONES = 5;
+    private static final String CLIENTES_ANTERIOR =
+        "SELECT c.id FROM cliente c WHERE LOWER(c.nombre) LIKE LOWER(CONCAT('%', ?, '%')) " +
+        "OR LOWER(c.apellido) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(c.razon_social) LIKE LOWER(CONCAT('%', ?, '%')) " +
+        "OR c.dni LIKE CONCAT('%', ?, '%') OR c.cuit LIKE CONCAT('%', ?, '%') ORDER BY c.id DESC LIMIT 10";
+    private static final String FACTURAS_ANTERIOR =
+        "SELECT f.id FROM factura f JOIN cliente c ON c.id = f.cliente_id WHERE LOWER(c.nombre) LIKE LOWER(CONCAT('%', ?, '%')) " +
+        "OR LOWER(c.apellido) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(c.razon_social) LIKE LOWER(CONCAT('%', ?, '%')) " +
+        "OR c.dni LIKE CONCAT('%', ?, '%') OR c.cuit LIKE CONCAT('%', ?, '%') ORDER BY f.id DESC LIMIT 10";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    /**
+     * este test compara la consulta anterior con la planificada para CUIT, DNI y texto libre
+     */
+    @Test
+    void compararBusquedas() {
+        int clientes = Integer.getInteger("benchmark.clientes", 100_000);
+        int meses = Integer.getInteger("benchmark.meses", 3);
+        preparar(clientes, meses);
+
+        // CUIT (con guiones, como lo escribiría un usuario), DNI y apellido del cliente del medio
+        int medio = clientes / 2;
+        String cuit = String.format("20-%08d-9", medio);
+        String dni = String.format("%08d", medio);
+        String[][] consultas = {
+            {"CUIT", cuit, cuit.replace("-", "")},
+            {"DNI", dni, dni},
+            {"Texto", "apellido" + medio, "apellido" + medio}
+        };
+
+        System.out.printf("%nBúsqueda por texto con %d clientes y %d facturas%n", clientes,
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM factura", Long.class));
+        System.out.printf("%-24s %14s %14s%n", "Consulta", "Anterior (ms)", "Nueva (ms)");
+        for (String[] consulta : consultas) {
+            String anterior = consulta[2];
+            Object[] parametros = {anterior, anterior, anterior, anterior, anterior};
+            double msClientesAnterior = medir(() -> jdbcTemplate.queryForList(CLIENTES_ANTERIOR, Long.class, parametros));
+            double msClientes = medir(() -> servicioCliente.buscarClientes(consulta[1], 0, 10));
+            double msFacturasAnterior = medir(() -> jdbcTemplate.queryForList(FACTURAS_ANTERIOR, Long.class, parametros));
+            double msFacturas = medir(() -> servicioFacturacion.obtenerFacturasFiltradas(consulta[1], null, null, null, 0, 10));
+
+            assertFalse(servicioCliente.buscarClientes(consulta[1], 0, 10).isEmpty(), consulta[0]);
+            Page<?> facturas = servicioFacturacion.obtenerFacturasFiltradas(consulta[1], null, null, null, 0, 10);
+            assertEquals(meses, facturas.getTotalElements(), consulta[0]);
+
+            System.out.printf("%-24s %14.1f %14.1f%n", "Clientes por " + consulta[0], msClientesAnterior, msClientes);
+            System.out.printf("%-24s %14.1f %14.1f%n", "Facturas por " + consulta[0], msFacturasAnterior, msFacturas);
+        }
+    }
+
+    private static double medir(Supplier<?> consulta) {
+        consulta.get();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            consulta.get();
+        }
+        return (System.nanoTime() - inicio) / 1e6 / REPETICIONES;
+    }
+
+    private void preparar(int clientes, int meses) {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(clientes, 0);
+        generador.insertarFacturasMensuales(meses);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.facturacion.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.facturacion.modelo.DetalleFactura;
+import com.example.facturacion.modelo.enums.Alicuota;
+
+/**
+ * Microbenchmark JMH del cálculo de montos de un detalle de factura: el cálculo decimal anterior
+ * (BigDecimal.valueOf, divide a 4 decimales, multiply y setScale por línea) contra el cálculo
+ * en centavos de DetalleFactura.calcularMontos (CalculadoraImportes).
+ *
+ * Cada operación calcula un lote de LINEAS detalles con precios, cantidades y alícuotas variados.
+ * Ejecutar con: mvn test-compile exec:exec -Pjmh -Djmh.filtro=CalculoMontos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculoMontosBenchmark {
+
+    private static final int LINEAS = 1024;
+
+    private DetalleFactura[] detalles;
+
+    @Setup
+    public void preparar() {
+        Random azar = new Random(42);
+        Alicuota[] alicuotas = Alicuota.values();
+        detalles = new DetalleFactura[LINEAS];
+        for (int i = 0; i < LINEAS; i++) {
+            DetalleFactura detalle = new DetalleFactura();
+            detalle.setPrecioUnitario(BigDecimal.valueOf(100 + azar.nextInt(5_000_000), 2));
+            detalle.setCantidad(1 + azar.nextInt(12));
+            detalle.setAlicuotaIva(alicuotas[azar.nextInt(alicuotas.length)].getValorDecimal());
+            detalles[i] = detalle;
+        }
+    }
+
+    @Benchmark
+    public void decimal(Blackhole bh) {
+        for (DetalleFactura detalle : detalles) {
+            BigDecimal totalNeto = detalle.getPrecioUnitario().multiply(BigDecimal.valueOf(detalle.getCantidad()));
+            BigDecimal porcentaje = detalle.getAlicuotaIva().divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
+            BigDecimal montoIva = totalNeto.multiply(porcentaje).setScale(2, RoundingMode.HALF_UP);
+            detalle.setMontoIva(montoIva);
+            detalle.setSubtotal(totalNeto.add(montoIva));
+        }
+        bh.consume(detalles);
+    }
+
+    @Benchmark
+    public void centavos(Blackhole bh) {
+        for (DetalleFactura detalle : detalles) {
+            detalle.calcularMontos();
+        }
+        bh.consume(detalles);
+    }
+}
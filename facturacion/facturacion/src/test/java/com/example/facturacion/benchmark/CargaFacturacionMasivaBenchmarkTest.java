@@ -0,0 +1,159 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva;
+import com.example.facturacion.servicio.ServicioFacturacion;
+import com.example.facturacion.servicio.UnidadFacturacionCliente;
+
+/**
+ * Prueba de carga de punta a punta de la facturación masiva: genera de forma determinística
+ * clientes, servicios y asignaciones con una cantidad de servicios por cliente sesgada (pocos
+ * clientes con muchos servicios) y un historial largo de cuenta corriente, y ejecuta la
+ * facturación masiva completa con el motor y el paralelismo configurados.
+ *
+ * Informa facturas por segundo, latencia p50/p99 por cliente (transacción incluida),
+ * sentencias SQL por cliente (contadas por H2, incluidas las de JdbcTemplate) y pico de heap.
+ * Parámetros: -Dbenchmark.clientes (5000), -Dbenchmark.servicios (60),
+ * -Dbenchmark.servicios-maximo (40), -Dbenchmark.movimientos (100), -Dbenchmark.semilla (42).
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=CargaFacturacionMasivaBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class CargaFacturacionMasivaBenchmarkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private UnidadFacturacionCliente unidadFacturacionCliente;
+
+    /**
+     * este test mide el rendimiento de una facturación masiva completa sobre datos sintéticos sesgados
+     */
+    @Test
+    void medirCargaFacturacionMasiva() {
+        int clientes = Integer.getInteger("benchmark.clientes", 5000);
+        int servicios = Integer.getInteger("benchmark.servicios", 60);
+        int maximoPorCliente = Integer.getInteger("benchmark.servicios-maximo", 40);
+        int movimientos = Integer.getInteger("benchmark.movimientos", 100);
+        long semilla = Long.getLong("benchmark.semilla", 42L);
+
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(clientes, 0);
+        generador.insertarServicios(servicios);
+        int asignaciones = generador.asignarServiciosSesgados(semilla, maximoPorCliente);
+        generador.insertarHistorialMovimientos(movimientos);
+
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
+        LatenciaPorCliente latencias = new LatenciaPorCliente(clientes);
+        Advised unidad = (Advised) unidadFacturacionCliente;
+        List<MemoryPoolMXBean> poolsHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+
+        System.gc();
+        poolsHeap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        jdbcTemplate.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        unidad.addAdvice(0, latencias);
+        ResultadoFacturacionMasiva resultado;
+        long inicioNanos = System.nanoTime();
+        try {
+            resultado = servicioFacturacion.ejecutarFacturacionMasivaConRango(LocalDate.now(), inicio, fin);
+        } finally {
+            unidad.removeAdvice(latencias);
+        }
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+        // Suma de los picos de cada pool: cota superior del pico de heap usado durante la facturación
+        long picoHeap = poolsHeap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long sentencias = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM INFORMATION_SCHEMA.QUERY_STATISTICS", Long.class);
+        // Al desactivarlas H2 descarta las estadísticas, por eso se leen antes
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+        assertEquals(clientes, resultado.getExitosas());
+        assertEquals(clientes, latencias.cantidad());
+        assertEquals(asignaciones, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM detalle_factura", Integer.class));
+        assertEquals((long) clientes * (movimientos + 1),
+                     jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimiento_cuenta_corriente", Long.class));
+
+        System.out.printf("%nCarga de facturación masiva: %d clientes, %d servicios asignados (%.2f por cliente, máx. %d), "
+                        + "%d movimientos previos por cliente, semilla %d%n",
+                          clientes, asignaciones, (double) asignaciones / clientes, maximoPorCliente, movimientos, semilla);
+        System.out.printf("  %d facturas en %.2f s: %.0f facturas/s%n",
+                          resultado.getExitosas(), segundos, resultado.getExitosas() / segundos);
+        System.out.printf("  Latencia por cliente: p50 %.2f ms, p99 %.2f ms, máx. %.2f ms%n",
+                          latencias.percentil(50), latencias.percentil(99), latencias.percentil(100));
+        System.out.printf("  Sentencias SQL: %d (%.1f por cliente)%n", sentencias, (double) sentencias / clientes);
+        System.out.printf("  Pico de heap: %d MB%n", picoHeap / (1024 * 1024));
+    }
+
+    /**
+     * Mide la duración de cada llamada a UnidadFacturacionCliente.procesarCliente, agregado como
+     * primer advice del proxy transaccional para que la medición incluya el commit del cliente.
+     * Se invoca desde los hilos del motor, por lo que guarda las duraciones en un arreglo fijo.
+     */
+    private static class LatenciaPorCliente implements MethodInterceptor {
+
+        private final long[] nanos;
+        private final AtomicInteger siguiente = new AtomicInteger();
+
+        LatenciaPorCliente(int capacidad) {
+            this.nanos = new long[capacidad];
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            if (!"procesarCliente".equals(invocacion.getMethod().getName())) {
+                return invocacion.proceed();
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocacion.proceed();
+            } finally {
+                int indice = siguiente.getAndIncrement();
+                if (indice < nanos.length) {
+                    nanos[indice] = System.nanoTime() - inicio;
+                }
+            }
+        }
+
+        int cantidad() {
+            return siguiente.get();
+        }
+
+        /**
+         * Percentil en milisegundos (método del rango más cercano).
+         */
+        double percentil(int percentil) {
+            long[] ordenadas = Arrays.copyOf(nanos, Math.min(cantidad(), nanos.length));
+            Arrays.sort(ordenadas);
+            int indice = Math.max(0, (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1);
+            return ordenadas[indice] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.Pago;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.modelo.enums.MedioPago;
+import com.example.facturacion.modelo.enums.TipoComprobante;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+import com.example.facturacion.servicio.ControlConcurrenciaCuentas;
+import com.example.facturacion.servicio.ServicioCliente;
+import com.example.facturacion.servicio.ServicioNotaCredito;
+import com.example.facturacion.servicio.ServicioPago;
+import com.example.facturacion.servicio.ServicioVerificacionSaldos;
+
+/**
+ * Prueba de estrés de la cuenta corriente: varios hilos registran pagos y anulaciones en
+ * simultáneo sobre las facturas de pocos clientes.
+ *
+ * Simula dos instancias de la aplicación: cada una tiene su propio ServicioPago y
+ * ServicioNotaCredito con su propio ControlConcurrenciaCuentas (bloqueos en memoria independientes),
+ * así que las operaciones de un mismo cliente solo se serializan dentro de cada instancia y entre
+ * instancias chocan por versión y se reintentan.
+ *
+ * Verifica que al final los saldos son exactos: monto pagado de cada factura = suma de sus pagos,
+ * ninguna factura pagada de más, saldo de cada cliente = saldo esperado según las operaciones
+ * confirmadas, y saldo acumulado de los movimientos coherente.
+ *
+ * Una versión reducida (servicio.ConcurrenciaCuentasTest) corre en cada build; esta mide la
+ * carga completa.
+ *
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ConcurrenciaCuentasBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class ConcurrenciaCuentasBenchmarkTest {
+
+    private static final int CLIENTES = 3;
+    private static final int FACTURAS_POR_CLIENTE = 4;
+    private static final BigDecimal TOTAL_FACTURA = new BigDecimal("1000.00");
+    private static final BigDecimal MONTO_PAGO = new BigDecimal("25.00");
+    private static final int HILOS = 8;
+    private static final int OPERACIONES_POR_HILO = 60;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private ServicioVerificacionSaldos servicioVerificacionSaldos;
+
+    private List<Long> clientes;
+    private List<Long> facturas;
+
+    @BeforeEach
+    void setUp() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        clientes = jdbcTemplate.queryForList("SELECT id FROM cliente ORDER BY id", Long.class);
+        facturas = new ArrayList<>();
+        for (Long clienteId : clientes) {
+            for (int i = 0; i < FACTURAS_POR_CLIENTE; i++) {
+                Long facturaId = jdbcTemplate.queryForObject("SELECT nextval('factura_seq')", Long.class);
+                jdbcTemplate.update(
+                    "INSERT INTO factura (id, cliente_id, fecha_emision, fecha_vencimiento, tipo_comprobante, "
+                  + "total, monto_pagado, estado, anulada) VALUES (?, ?, ?, ?, ?, ?, 0, ?, false)",
+                    facturaId, clienteId, Timestamp.valueOf(LocalDateTime.now()), Date.valueOf(LocalDate.now().plusDays(10)),
+                    TipoComprobante.FACTURA_B.name(), TOTAL_FACTURA, EstadoFactura.PENDIENTE_PAGO.name());
+                facturas.add(facturaId);
+
+                MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
+                movimiento.setTipoMovimiento(TipoMovimiento.FACTURA);
+                movimiento.setMonto(TOTAL_FACTURA);
+                movimiento.setDescripcion("Factura " + facturaId);
+                servicioCliente.registrarMovimiento(clienteId, movimiento);
+            }
+        }
+    }
+
+    /**
+     * este test verifica que pagos y anulaciones concurrentes desde dos instancias dejan los saldos exactos
+     */
+    @Test
+    void pagosYAnulacionesConcurrentesMantienenSaldosExactos() throws Exception {
+        Instancia[] instancias = { crearInstancia(), crearInstancia() };
+
+        Map<String, AtomicInteger> resultados = new ConcurrentHashMap<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        long inicio;
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                Instancia instancia = instancias[h % instancias.length];
+                Random azar = new Random(h);
+                futuros.add(pool.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                        Long facturaId = facturas.get(azar.nextInt(facturas.size()));
+                        resultados.computeIfAbsent(operar(instancia, facturaId, azar), k -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("%n%d operaciones en %.2f s (%d hilos, 2 instancias, %d clientes, %d facturas)%n",
+                          HILOS * OPERACIONES_POR_HILO, segundos, HILOS, CLIENTES, facturas.size());
+        System.out.printf("Resultados: %s%n", resultados);
+
+        // Cada factura: pagado = suma de sus pagos, nunca más que el total
+        for (Long facturaId : facturas) {
+            Map<String, Object> factura = jdbcTemplate.queryForMap(
+                "SELECT total, monto_pagado, anulada FROM factura WHERE id = ?", facturaId);
+            BigDecimal pagos = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(monto), 0) FROM pago WHERE factura_id = ?", BigDecimal.class, facturaId);
+            assertEquals(0, pagos.compareTo((BigDecimal) factura.get("monto_pagado")), "Pagos de la factura " + facturaId);
+            assertTrue(((BigDecimal) factura.get("monto_pagado")).compareTo(TOTAL_FACTURA) <= 0, "Factura " + facturaId + " pagada de más");
+        }
+
+        // Cada cliente: saldo = facturado - pagado - anulado, igual al último saldo acumulado del libro
+        for (Long clienteId : clientes) {
+            BigDecimal pagado = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(monto), 0) FROM pago WHERE cliente_id = ?", BigDecimal.class, clienteId);
+            BigDecimal anulado = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total), 0) FROM nota_credito WHERE cliente_id = ?", BigDecimal.class, clienteId);
+            BigDecimal esperado = TOTAL_FACTURA.multiply(BigDecimal.valueOf(FACTURAS_POR_CLIENTE)).subtract(pagado).subtract(anulado);
+            BigDecimal saldo = jdbcTemplate.queryForObject(
+                "SELECT saldo_cuenta_corriente FROM cliente WHERE id = ?", BigDecimal.class, clienteId);
+            assertEquals(0, esperado.compareTo(saldo), "Saldo del cliente " + clienteId);
+
+            var verificacion = servicioVerificacionSaldos.verificarCliente(clienteId);
+            assertEquals(0, verificacion.getClientesCorregidos(), "Saldo del cliente " + clienteId + " incoherente con el libro");
+            assertEquals(0, verificacion.getMovimientosCorregidos(), "Saldo acumulado del cliente " + clienteId);
+        }
+
+        int anulaciones = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nota_credito", Integer.class);
+        assertEquals(anulaciones, resultados.getOrDefault("anulacion", new AtomicInteger()).get());
+        int pagos = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pago", Integer.class);
+        assertEquals(pagos, resultados.getOrDefault("pago", new AtomicInteger()).get());
+    }
+
+    /**
+     * Registra un pago (o, de vez en cuando, una anulación) y devuelve cómo terminó.
+     */
+    private String operar(Instancia instancia, Long facturaId, Random azar) {
+        try {
+            if (azar.nextInt(40) == 0) {
+                instancia.servicioNotaCredito.crearNotaCreditoPorAnulacion(facturaId, "Prueba de concurrencia");
+                return "anulacion";
+            }
+            Pago pago = new Pago();
+            pago.setMonto(MONTO_PAGO);
+            pago.setMedioPago(MedioPago.values()[0]);
+            instancia.servicioPago.registrarPago(pago, facturaId);
+            return "pago";
+        } catch (IllegalArgumentException e) {
+            return "rechazada";
+        } catch (IllegalStateException e) {
+            return "reintentos agotados";
+        }
+    }
+
+    /**
+     * Servicios de cuenta corriente con su propio control de concurrencia (otra "instancia").
+     */
+    private Instancia crearInstancia() {
+        ControlConcurrenciaCuentas control = beanFactory.createBean(ControlConcurrenciaCuentas.class);
+        ServicioPago servicioPago = beanFactory.createBean(ServicioPago.class);
+        ServicioNotaCredito servicioNotaCredito = beanFactory.createBean(ServicioNotaCredito.class);
+        ReflectionTestUtils.setField(servicioPago, "controlConcurrencia", control);
+        ReflectionTestUtils.setField(servicioNotaCredito, "controlConcurrencia", control);
+        return new Instancia(servicioPago, servicioNotaCredito);
+    }
+
+    private record Instancia(ServicioPago servicioPago, ServicioNotaCredito servicioNotaCredito) {
+    }
+}
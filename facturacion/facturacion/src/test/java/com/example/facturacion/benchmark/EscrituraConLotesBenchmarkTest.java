@@ -0,0 +1,19 @@
+package com.example.facturacion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Facturación masiva con lotes JDBC de 50 sentencias.
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "facturacion.jdbc.tamanio-lote=50",
+    "facturacion.masiva.paralelismo=1",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("benchmark")
+class EscrituraConLotesBenchmarkTest extends EscrituraLotesBenchmark {
+}
@@ -0,0 +1,69 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva;
+import com.example.facturacion.servicio.ServicioFacturacion;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Base del benchmark de escritura de la facturación masiva. Cada subclase levanta el contexto
+ * con un 'facturacion.jdbc.tamanio-lote' distinto y mide clientes facturados por segundo.
+ */
+abstract class EscrituraLotesBenchmark {
+
+    private static final int CLIENTES = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${facturacion.jdbc.tamanio-lote}")
+    private int tamanioLote;
+
+    @BeforeEach
+    void setUp() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        generador.insertarServicios(20);
+        generador.asignarServicios(3);
+    }
+
+    /**
+     * este test mide el rendimiento de una facturación masiva completa con el tamaño de lote configurado
+     */
+    @Test
+    void medirFacturacionMasiva() {
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        long inicioNanos = System.nanoTime();
+        ResultadoFacturacionMasiva resultado =
+            servicioFacturacion.ejecutarFacturacionMasivaConRango(LocalDate.now(), inicio, fin);
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+
+        assertEquals(CLIENTES, resultado.getExitosas());
+        assertEquals(CLIENTES * 3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM detalle_factura", Integer.class));
+        System.out.printf("%nEscritura con lote JDBC = %d: %d clientes en %.2f s (%.0f clientes/s), %d sentencias preparadas%n",
+                          tamanioLote, CLIENTES, segundos, CLIENTES / segundos, estadisticas.getPrepareStatementCount());
+    }
+}
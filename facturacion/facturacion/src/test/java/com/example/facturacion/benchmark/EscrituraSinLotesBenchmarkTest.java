@@ -0,0 +1,19 @@
+package com.example.facturacion.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Facturación masiva sin lotes JDBC (una sentencia por fila), como con IDENTITY.
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "facturacion.jdbc.tamanio-lote=1",
+    "facturacion.masiva.paralelismo=1",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("benchmark")
+class EscrituraSinLotesBenchmarkTest extends EscrituraLotesBenchmark {
+}
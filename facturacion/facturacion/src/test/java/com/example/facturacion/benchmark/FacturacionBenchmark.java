@@ -0,0 +1,129 @@
+package com.example.facturacion.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.ClienteServicio;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.Servicio;
+import com.example.facturacion.modelo.enums.Alicuota;
+import com.example.facturacion.modelo.enums.CondicionFiscal;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+import com.example.facturacion.servicio.UnidadFacturacionCliente;
+
+/**
+ * Microbenchmarks JMH de la parte en memoria de la facturación de un cliente, con 'lineas' servicios
+ * contratados (3 es lo habitual; 12 y 60, clientes corporativos):
+ * - armarFactura: UnidadFacturacionCliente.construirFactura (detalles, montos, total y desglose de IVA).
+ * - ivaPorAlicuota: lectura de Factura.getIvaPorAlicuota para las cuatro alícuotas, como el pie de la vista.
+ * - preciosContratados: ClienteServicio.getPrecio de todos los servicios (precio propio o del servicio).
+ * - movimientoPorFactura: MovimientoCuentaCorriente.porFactura de la factura armada.
+ * - saldoAcumulado: impacto y saldo resultante de 'lineas' movimientos de cuenta corriente, como
+ *   ServicioCliente.registrarMovimientos antes de guardarlos.
+ *
+ * Informa operaciones por segundo y, con -prof gc (incluido en -Pjmh), bytes asignados por operación
+ * (gc.alloc.rate.norm). AsignacionesFacturacionBenchmarkTest compara esos bytes con un presupuesto.
+ * Ejecutar con: mvn test-compile exec:exec -Pjmh -Djmh.filtro=FacturacionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacturacionBenchmark {
+
+    @Param({"3", "12", "60"})
+    public int lineas;
+
+    private final UnidadFacturacionCliente unidad = new UnidadFacturacionCliente();
+    private final LocalDate inicio = LocalDate.of(2025, 9, 1);
+    private final LocalDate fin = LocalDate.of(2025, 9, 30);
+    private Cliente cliente;
+    private List<ClienteServicio> servicios;
+    private Factura factura;
+    private List<MovimientoCuentaCorriente> movimientos;
+
+    @Setup
+    public void preparar() {
+        Random azar = new Random(42);
+        Alicuota[] alicuotas = Alicuota.values();
+        TipoMovimiento[] tipos = TipoMovimiento.values();
+        cliente = Cliente.builder().id(1L).razonSocial("Cliente Benchmark SA").condicionFiscal(CondicionFiscal.values()[0]).build();
+        servicios = new ArrayList<>(lineas);
+        movimientos = new ArrayList<>(lineas);
+        for (int i = 0; i < lineas; i++) {
+            Servicio servicio = new Servicio();
+            servicio.setId((long) i);
+            servicio.setNombre("Servicio " + i);
+            servicio.setPrecio(BigDecimal.valueOf(1_000 + azar.nextInt(5_000_000), 2));
+            servicio.setAlicuota(alicuotas[azar.nextInt(alicuotas.length)]);
+            // La mitad de las asignaciones tiene precio propio
+            BigDecimal precioPropio = i % 2 == 0 ? BigDecimal.valueOf(1_000 + azar.nextInt(5_000_000), 2) : null;
+            servicios.add(ClienteServicio.builder().id((long) i).cliente(cliente).servicio(servicio).precio(precioPropio).build());
+
+            MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
+            movimiento.setTipoMovimiento(tipos[azar.nextInt(tipos.length)]);
+            movimiento.setMonto(BigDecimal.valueOf(100 + azar.nextInt(10_000_000), 2));
+            movimientos.add(movimiento);
+        }
+        factura = armarFactura();
+    }
+
+    @Benchmark
+    public Factura armarFactura() {
+        return unidad.construirFactura(cliente, servicios, fin.plusDays(1), inicio, fin);
+    }
+
+    @Benchmark
+    public void ivaPorAlicuota(Blackhole bh) {
+        bh.consume(factura.getIvaPorAlicuota(27.0));
+        bh.consume(factura.getIvaPorAlicuota(21.0));
+        bh.consume(factura.getIvaPorAlicuota(10.5));
+        bh.consume(factura.getIvaPorAlicuota(0.0));
+        bh.consume(factura.getMontoTotalNeto());
+    }
+
+    @Benchmark
+    public BigDecimal preciosContratados() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (ClienteServicio cs : servicios) {
+            total = total.add(cs.getPrecio());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public MovimientoCuentaCorriente movimientoPorFactura() {
+        return MovimientoCuentaCorriente.porFactura(cliente, factura, "ADMIN");
+    }
+
+    @Benchmark
+    public BigDecimal saldoAcumulado() {
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (MovimientoCuentaCorriente movimiento : movimientos) {
+            saldo = saldo.add(movimiento.calcularImpactoEnSaldo());
+            movimiento.setSaldoResultante(saldo);
+        }
+        return saldo;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.facturacion.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.facturacion.modelo.TextoBusqueda;
+import com.example.facturacion.modelo.enums.Alicuota;
+import com.example.facturacion.modelo.enums.CondicionFiscal;
+import com.example.facturacion.modelo.enums.CondicionPago;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.modelo.enums.TipoComprobante;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+
+/**
+ * Genera datos sintéticos para los benchmarks insertando por JDBC en lotes,
+ * sin pasar por el contexto de persistencia.
+ */
+public class GeneradorDatosSinteticos {
+
+    private static final int LOTE_INSERCION = 1000;
+
+    // Tablas en orden de borrado: primero las que referencian a las siguientes
+    private static final List<String> TABLAS = List.of(
+        "detalle_trabajo_facturacion",
+        "punto_control_facturacion",
+        "trabajo_facturacion",
+        "trabajo_anulacion",
+        "movimiento_cuenta_corriente",
+        "pago",
+        "detalle_nota_credito",
+        "nota_credito",
+        "detalle_factura",
+        "factura",
+        "cliente_servicio",
+        "servicio",
+        "cliente");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GeneradorDatosSinteticos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Vacía todas las tablas respetando las claves foráneas. La base en memoria del perfil
+     * benchmark es compartida por todas las clases de test, así que cada una parte de cero.
+     */
+    public void vaciarTablas() {
+        TABLAS.forEach(tabla -> jdbcTemplate.execute("DELETE FROM " + tabla));
+    }
+
+    /**
+     * Inserta 'cantidad' clientes con DNI, CUIT, email y teléfono únicos.
+     * Uno de cada 'cadaSuspendido' clientes queda SUSPENDIDO (0 = todos activos).
+     */
+    public void insertarClientes(int cantidad, int cadaSuspendido) {
+        String sql = "INSERT INTO cliente (dni, razon_social, nombre, apellido, cuit, email, telefono, direccion, "
+                   + "condicion_fiscal, condicion_pago, estado, activo, saldo_cuenta_corriente, texto_busqueda) "
+                   + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+        CondicionFiscal[] condiciones = CondicionFiscal.values();
+        List<Object[]> lote = new ArrayList<>(LOTE_INSERCION);
+        for (int i = 1; i <= cantidad; i++) {
+            boolean suspendido = cadaSuspendido > 0 && i % cadaSuspendido == 0;
+            String dni = String.format("%08d", i);
+            String razonSocial = "Cliente Sintético " + i;
+            String cuit = String.format("20%08d9", i);
+            lote.add(new Object[] {
+                dni,
+                razonSocial,
+                "Nombre" + i,
+                "Apellido" + i,
+                cuit,
+                "cliente" + i + "@ejemplo.com",
+                String.format("11%08d", i),
+                "Calle " + i,
+                condiciones[i % condiciones.length].name(),
+                CondicionPago.CUENTA_CORRIENTE_30.name(),
+                (suspendido ? EstadoCliente.SUSPENDIDO : EstadoCliente.ACTIVO).name(),
+                !suspendido,
+                TextoBusqueda.unir(razonSocial, "Nombre" + i, "Apellido" + i, cuit, dni)
+            });
+            if (lote.size() == LOTE_INSERCION) {
+                jdbcTemplate.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+    }
+
+    /**
+     * Inserta 'cantidad' servicios activos con alícuotas y precios variados.
+     */
+    public void insertarServicios(int cantidad) {
+        String sql = "INSERT INTO servicio (nombre, descripcion, precio, alicuota, activo) VALUES (?, ?, ?, ?, true)";
+        Alicuota[] alicuotas = Alicuota.values();
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            filas.add(new Object[] {
+                "Servicio " + i,
+                "Servicio sintético " + i,
+                BigDecimal.valueOf(1000 + i * 37L, 2),
+                alicuotas[i % alicuotas.length].getValor()
+            });
+        }
+        jdbcTemplate.batchUpdate(sql, filas);
+    }
+
+    /**
+     * Asigna a cada cliente 'porCliente' servicios activos sin facturar, rotando entre los existentes.
+     */
+    public void asignarServicios(int porCliente) {
+        List<Long> clientes = jdbcTemplate.queryForList("SELECT id FROM cliente ORDER BY id", Long.class);
+        List<Long> servicios = jdbcTemplate.queryForList("SELECT id FROM servicio ORDER BY id", Long.class);
+        String sql = "INSERT INTO cliente_servicio (id, id_cliente, id_servicio, fecha_asignacion, activo, esta_facturado) "
+                   + "VALUES (nextval('cliente_servicio_seq'), ?, ?, ?, true, false)";
+        Date fechaAsignacion = Date.valueOf(LocalDate.now().minusMonths(6));
+        List<Object[]> lote = new ArrayList<>(LOTE_INSERCION);
+        for (int i = 0; i < clientes.size(); i++) {
+            for (int j = 0; j < Math.min(porCliente, servicios.size()); j++) {
+                lote.add(new Object[] { clientes.get(i), servicios.get((i + j) % servicios.size()), fechaAsignacion });
+                if (lote.size() == LOTE_INSERCION) {
+                    jdbcTemplate.batchUpdate(sql, lote);
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+    }
+
+    /**
+     * Asigna a cada cliente entre 1 y 'maximo' servicios activos sin facturar, con una distribución
+     * sesgada (tipo Zipf, P(k) proporcional a 1/k^1.2): la mayoría de los clientes tiene uno o dos
+     * servicios y unos pocos tienen decenas. Con la misma semilla genera siempre las mismas asignaciones.
+     * @return Cantidad total de asignaciones insertadas
+     */
+    public int asignarServiciosSesgados(long semilla, int maximo) {
+        List<Long> clientes = jdbcTemplate.queryForList("SELECT id FROM cliente ORDER BY id", Long.class);
+        List<Long> servicios = jdbcTemplate.queryForList("SELECT id FROM servicio ORDER BY id", Long.class);
+        int tope = Math.min(maximo, servicios.size());
+        double[] acumulada = new double[tope];
+        double suma = 0;
+        for (int k = 1; k <= tope; k++) {
+            suma += 1 / Math.pow(k, 1.2);
+            acumulada[k - 1] = suma;
+        }
+
+        String sql = "INSERT INTO cliente_servicio (id, id_cliente, id_servicio, fecha_asignacion, activo, esta_facturado) "
+                   + "VALUES (nextval('cliente_servicio_seq'), ?, ?, ?, true, false)";
+        Date fechaAsignacion = Date.valueOf(LocalDate.now().minusMonths(6));
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        List<Object[]> lote = new ArrayList<>(LOTE_INSERCION);
+        int total = 0;
+        for (Long clienteId : clientes) {
+            int cantidad = 1 + Math.abs(Arrays.binarySearch(acumulada, aleatorio.nextDouble(suma)) + 1);
+            int desde = aleatorio.nextInt(servicios.size());
+            for (int j = 0; j < Math.min(cantidad, tope); j++) {
+                lote.add(new Object[] { clienteId, servicios.get((desde + j) % servicios.size()), fechaAsignacion });
+                if (lote.size() == LOTE_INSERCION) {
+                    jdbcTemplate.batchUpdate(sql, lote);
+                    lote.clear();
+                }
+                total++;
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+        return total;
+    }
+
+    /**
+     * Inserta para cada cliente una factura mensual de cada uno de los últimos 'meses' meses
+     * (período del mes, emitida el día siguiente al cierre). Se genera con INSERT ... SELECT
+     * sobre SYSTEM_RANGE de H2, de a bloques de clientes, para poder llegar a millones de filas.
+     */
+    public void insertarFacturasMensuales(int meses) {
+        String sql = "INSERT INTO factura (id, cliente_id, fecha_emision, fecha_vencimiento, "
+                   + "fecha_inicio_periodo, fecha_fin_periodo, periodo, tipo_comprobante, total, monto_pagado, estado, anulada) "
+                   + "SELECT nextval('factura_seq'), c.id, CAST(DATEADD('DAY', 1, p.fin) AS TIMESTAMP), DATEADD('DAY', 11, p.fin), "
+                   + "p.inicio, p.fin, FORMATDATETIME(p.inicio, 'yyyy-MM-dd') || '/' || FORMATDATETIME(p.fin, 'yyyy-MM-dd'), "
+                   + "'" + TipoComprobante.FACTURA_B.name() + "', 1000, 0, '" + EstadoFactura.PENDIENTE_PAGO.name() + "', false "
+                   + "FROM cliente c CROSS JOIN ("
+                   + "  SELECT DATEADD('MONTH', -X, CAST(? AS DATE)) AS inicio, "
+                   + "         DATEADD('DAY', -1, DATEADD('MONTH', 1 - X, CAST(? AS DATE))) AS fin "
+                   + "  FROM SYSTEM_RANGE(1, ?)) p "
+                   + "WHERE c.id BETWEEN ? AND ?";
+        Date mesActual = Date.valueOf(LocalDate.now().withDayOfMonth(1));
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cliente", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cliente", Long.class);
+        for (long desde = minId; desde <= maxId; desde += LOTE_INSERCION) {
+            jdbcTemplate.update(sql, mesActual, mesActual, meses, desde, desde + LOTE_INSERCION - 1);
+        }
+    }
+
+    /**
+     * Inserta 'porFactura' detalles en cada factura existente, rotando entre los servicios,
+     * con subtotales que suman el total de la factura (IVA 21% incluido), y completa el desglose de IVA de la factura.
+     */
+    public void insertarDetallesFacturas(int porFactura) {
+        List<Long> servicios = jdbcTemplate.queryForList("SELECT id FROM servicio ORDER BY id", Long.class);
+        String sql = "INSERT INTO detalle_factura (id, factura_id, servicio_id, cantidad, precio_unitario, "
+                   + "alicuota_iva, monto_iva, subtotal) VALUES (nextval('detalle_factura_seq'), ?, ?, 1, ?, 21, ?, ?)";
+        List<Object[]> lote = new ArrayList<>(LOTE_INSERCION);
+        jdbcTemplate.query("SELECT id, total FROM factura ORDER BY id", fila -> {
+            long facturaId = fila.getLong(1);
+            BigDecimal subtotal = fila.getBigDecimal(2).divide(BigDecimal.valueOf(porFactura), 2, RoundingMode.HALF_UP);
+            BigDecimal neto = subtotal.divide(new BigDecimal("1.21"), 2, RoundingMode.HALF_UP);
+            for (int i = 0; i < porFactura; i++) {
+                lote.add(new Object[] { facturaId, servicios.get((int) ((facturaId + i) % servicios.size())),
+                                        neto, subtotal.subtract(neto), subtotal });
+            }
+            if (lote.size() >= LOTE_INSERCION) {
+                jdbcTemplate.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        });
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+        // Desglose de IVA guardado en la factura, como al emitirla (todos los detalles son al 21%)
+        String ivaFactura = "(SELECT COALESCE(SUM(d.monto_iva), 0) FROM detalle_factura d WHERE d.factura_id = f.id)";
+        jdbcTemplate.update("UPDATE factura f SET monto_iva = " + ivaFactura + ", iva_21 = " + ivaFactura + ", "
+                          + "monto_neto = f.total - " + ivaFactura + ", iva_27 = 0, iva_10_5 = 0, neto_exento = 0");
+    }
+
+    /**
+     * Inserta 'cantidad' cargos de 1,00 en la cuenta corriente del cliente, uno por minuto hacia atrás,
+     * con su saldo acumulado, y deja el saldo del cliente coherente con ellos.
+     * Se genera con INSERT ... SELECT sobre SYSTEM_RANGE de H2.
+     */
+    public void insertarMovimientos(Long clienteId, int cantidad) {
+        if (cantidad <= 0) {
+            return;
+        }
+        jdbcTemplate.update(
+            "INSERT INTO movimiento_cuenta_corriente (id, cliente_id, fecha_movimiento, tipo_movimiento, "
+          + "descripcion, monto, saldo_resultante) "
+          + "SELECT nextval('movimiento_cuenta_corriente_seq'), ?, DATEADD('MINUTE', X - ?, CURRENT_TIMESTAMP), "
+          + "'" + TipoMovimiento.CARGO.name() + "', 'Cargo sintético ' || X, 1, X "
+          + "FROM SYSTEM_RANGE(1, ?)",
+            clienteId, cantidad + 1, cantidad);
+        jdbcTemplate.update("UPDATE cliente SET saldo_cuenta_corriente = ? WHERE id = ?", cantidad, clienteId);
+    }
+
+    /**
+     * Inserta en la cuenta corriente de cada cliente un historial de 'porCliente' cargos de 1,00
+     * (como insertarMovimientos) y deja el saldo de cada cliente coherente con él.
+     * Se genera con INSERT ... SELECT sobre SYSTEM_RANGE de H2, de a bloques de clientes.
+     */
+    public void insertarHistorialMovimientos(int porCliente) {
+        if (porCliente <= 0) {
+            return;
+        }
+        String sql = "INSERT INTO movimiento_cuenta_corriente (id, cliente_id, fecha_movimiento, tipo_movimiento, "
+                   + "descripcion, monto, saldo_resultante) "
+                   + "SELECT nextval('movimiento_cuenta_corriente_seq'), c.id, DATEADD('MINUTE', X - ?, CURRENT_TIMESTAMP), "
+                   + "'" + TipoMovimiento.CARGO.name() + "', 'Cargo sintético ' || X, 1, X "
+                   + "FROM cliente c CROSS JOIN SYSTEM_RANGE(1, ?) "
+                   + "WHERE c.id BETWEEN ? AND ?";
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cliente", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cliente", Long.class);
+        int bloque = Math.max(1, LOTE_INSERCION * 10 / porCliente);
+        for (long desde = minId; desde <= maxId; desde += bloque) {
+            jdbcTemplate.update(sql, porCliente + 1, porCliente, desde, desde + bloque - 1);
+        }
+        jdbcTemplate.update("UPDATE cliente SET saldo_cuenta_corriente = ?", porCliente);
+    }
+}
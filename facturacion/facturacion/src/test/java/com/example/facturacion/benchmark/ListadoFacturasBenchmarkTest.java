@@ -0,0 +1,130 @@
+package com.example.facturacion.benchmark;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.FacturaListado;
+import com.example.facturacion.servicio.ServicioFacturacion;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark del listado de facturas: la página de entidades que la vista recorría con la sesión abierta
+ * (factura.cliente y factura.detalles diferidos, 1 + 2N consultas) contra la página de filas
+ * FacturaListado armada en una sola consulta (más el conteo).
+ *
+ * Informa milisegundos y sentencias JDBC por página, y verifica que la vista se genera sin sesión JPA.
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ListadoFacturasBenchmarkTest  (-Dbenchmark.tamanio-pagina=N)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class ListadoFacturasBenchmarkTest {
+
+    private static final int CLIENTES = 5000;
+    private static final int REPETICIONES = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * este test compara las entidades con carga diferida contra la proyección del listado
+     */
+    @Test
+    void compararEntidadesContraProyeccion() throws Exception {
+        int tamanio = Integer.getInteger("benchmark.tamanio-pagina", 50);
+        preparar();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        // Lo que hacía la vista con open-in-view: recorrer cliente y detalles de cada factura
+        Supplier<BigDecimal> entidades = () -> lectura.execute(estado -> {
+            Page<Factura> pagina = repositorioFactura.findAll(PageRequest.of(0, tamanio, Sort.by(Sort.Direction.DESC, "id")));
+            BigDecimal iva = BigDecimal.ZERO;
+            for (Factura factura : pagina) {
+                assertNotNull(factura.getCliente().getRazonSocial());
+                iva = iva.add(factura.getMontoTotalIVA());
+            }
+            return iva;
+        });
+        Supplier<BigDecimal> proyeccion = () -> servicioFacturacion.obtenerFacturasFiltradas(null, null, null, null, 0, tamanio)
+            .map(FacturaListado::montoIva).stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, entidades.get().compareTo(proyeccion.get()));
+
+        System.out.printf("%nListado de facturas: página de %d%n", tamanio);
+        System.out.printf("%-12s %12s %20s%n", "Camino", "ms/página", "sentencias/página");
+        long sentenciasEntidades = medir("Entidades", entidades, estadisticas);
+        long sentenciasProyeccion = medir("Proyección", proyeccion, estadisticas);
+        assertEquals(2, sentenciasProyeccion);
+        assertTrue(sentenciasProyeccion < sentenciasEntidades);
+
+        // La vista se genera sin sesión JPA abierta (ConfiguracionWeb excluye esta ruta)
+        mockMvc.perform(get("/facturas/listar").param("size", String.valueOf(tamanio)))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("Cliente Sintético " + CLIENTES)));
+    }
+
+    private static long medir(String camino, Supplier<BigDecimal> pagina, Statistics estadisticas) {
+        pagina.get();
+        estadisticas.clear();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            pagina.get();
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6 / REPETICIONES;
+        long sentencias = estadisticas.getPrepareStatementCount() / REPETICIONES;
+        System.out.printf("%-12s %12.2f %20d%n", camino, ms, sentencias);
+        return sentencias;
+    }
+
+    private void preparar() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        generador.insertarServicios(5);
+        generador.insertarFacturasMensuales(2);
+        generador.insertarDetallesFacturas(3);
+    }
+}
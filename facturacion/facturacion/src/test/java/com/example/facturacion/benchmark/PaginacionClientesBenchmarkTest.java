@@ -0,0 +1,113 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Benchmark de recorrido de clientes: paginación por OFFSET contra paginación por clave.
+ *
+ * Mide el tiempo de leer una página al principio, al medio y al final de la tabla.
+ * Con OFFSET el costo crece con la posición (la base descarta las filas anteriores);
+ * con la consulta por clave se mantiene constante.
+ *
+ * Ejecutar con: mvn test -Pbenchmark  (-Dbenchmark.clientes=N para cambiar el volumen)
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+class PaginacionClientesBenchmarkTest {
+
+    private static final int TAMANIO_PAGINA = 50;
+    private static final int REPETICIONES = 20;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int cantidadClientes;
+
+    @BeforeEach
+    void setUp() {
+        cantidadClientes = Integer.getInteger("benchmark.clientes", 100_000);
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(cantidadClientes, 10);
+    }
+
+    /**
+     * este test compara el tiempo por página de ambas estrategias en distintas posiciones
+     */
+    @Test
+    void compararOffsetContraClave() {
+        long minId = repositorioCliente.findMinIdByEstado(EstadoCliente.ACTIVO);
+        long maxId = repositorioCliente.findMaxIdByEstado(EstadoCliente.ACTIVO);
+        int paginas = (int) (repositorioCliente.countByEstado(EstadoCliente.ACTIVO) / TAMANIO_PAGINA);
+
+        System.out.printf("%nPaginación de %d clientes (página de %d, promedio de %d lecturas)%n",
+                          cantidadClientes, TAMANIO_PAGINA, REPETICIONES);
+        System.out.printf("%-10s %15s %15s%n", "Posición", "OFFSET (ms)", "Clave (ms)");
+
+        double[] posiciones = {0.0, 0.5, 0.99};
+        String[] nombres = {"inicio", "medio", "final"};
+        for (int i = 0; i < posiciones.length; i++) {
+            int pagina = (int) (paginas * posiciones[i]);
+            long ultimoId = minId - 1 + (long) ((maxId - minId) * posiciones[i]);
+
+            // Ambas estrategias deben devolver páginas completas en la posición medida
+            assertEquals(TAMANIO_PAGINA, leerConOffset(pagina).size());
+            assertEquals(TAMANIO_PAGINA, leerConClave(ultimoId, maxId).size());
+
+            double offset = medir(() -> leerConOffset(pagina));
+            double clave = medir(() -> leerConClave(ultimoId, maxId));
+            System.out.printf("%-10s %15.3f %15.3f%n", nombres[i], offset, clave);
+        }
+    }
+
+    private List<Cliente> leerConOffset(int pagina) {
+        return repositorioCliente.findByEstado(EstadoCliente.ACTIVO,
+            PageRequest.of(pagina, TAMANIO_PAGINA, Sort.by(Sort.Direction.ASC, "id"))).getContent();
+    }
+
+    private List<Cliente> leerConClave(long ultimoId, long hastaId) {
+        return repositorioCliente.findSiguienteLote(EstadoCliente.ACTIVO, ultimoId, hastaId, Limit.of(TAMANIO_PAGINA));
+    }
+
+    private double medir(Runnable lectura) {
+        // Calentamiento
+        for (int i = 0; i < 10; i++) {
+            lectura.run();
+            entityManager.clear();
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            lectura.run();
+            entityManager.clear();
+        }
+        return (System.nanoTime() - inicio) / 1_000_000.0 / REPETICIONES;
+    }
+}
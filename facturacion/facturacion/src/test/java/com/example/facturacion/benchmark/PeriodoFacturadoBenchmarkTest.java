@@ -0,0 +1,136 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.repositorio.RepositorioFactura;
+
+/**
+ * Benchmark de la verificación de doble facturación: la consulta anterior, que aplica una
+ * función a fecha_emision (no puede usar un índice sobre la columna), contra
+ * existePeriodoFacturado sobre el índice (cliente_id, periodo, anulada). Falla si la consulta
+ * por período deja de usar el índice o no resulta más rápida.
+ *
+ * Genera una factura mensual por cliente durante MESES meses. El volumen por defecto
+ * (200.000 facturas) entra en el heap del perfil benchmark (-Xmx2g, ver pom.xml). Los volúmenes
+ * grandes necesitan más heap y se piden explícitamente:
+ *   mvn test -Pbenchmark -Dtest=PeriodoFacturadoBenchmarkTest -Dbenchmark.facturas=1200000 -DargLine=-Xmx6g
+ *   mvn test -Pbenchmark -Dtest=PeriodoFacturadoBenchmarkTest -Dbenchmark.facturas=10000000 -DargLine=-Xmx32g
+ *
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=PeriodoFacturadoBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+class PeriodoFacturadoBenchmarkTest {
+
+    private static final int MESES = 120;
+    private static final int CONSULTAS = 2000;
+    private static final String INDICE_PERIODO = "idx_factura_cliente_periodo";
+
+    // Forma de existsByClienteAndFechaEmisionBetween (FUNCTION('DATE') no existe en H2)
+    private static final String CONSULTA_POR_EMISION =
+        "SELECT COUNT(*) > 0 FROM factura f WHERE f.cliente_id = ? " +
+        "AND CAST(f.fecha_emision AS DATE) >= ? AND CAST(f.fecha_emision AS DATE) <= ? AND f.anulada = false";
+
+    // Misma consulta nativa que existePeriodoFacturado; ambas se miden con JdbcTemplate para
+    // comparar solo el costo de la consulta, sin el de la capa de repositorio
+    private static final String CONSULTA_POR_PERIODO =
+        "SELECT EXISTS (SELECT 1 FROM factura f WHERE f.cliente_id = ? AND f.periodo = ? AND f.anulada = false)";
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long cantidadFacturas;
+    private List<Long> clientes;
+
+    @BeforeEach
+    void setUp() {
+        long facturas = Long.getLong("benchmark.facturas", 200_000L);
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes((int) Math.max(1, facturas / MESES), 0);
+        generador.insertarFacturasMensuales(MESES);
+        cantidadFacturas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM factura", Long.class);
+        clientes = jdbcTemplate.queryForList("SELECT id FROM cliente", Long.class);
+    }
+
+    /**
+     * este test compara el tiempo por verificación de ambas consultas sobre clientes y meses al azar
+     * y verifica que la consulta por período usa su índice
+     */
+    @Test
+    void compararVerificacionPorEmisionContraPeriodo() {
+        LocalDate mesActual = LocalDate.now().withDayOfMonth(1);
+
+        // Un mes facturado y el mes en curso (sin facturar) deben distinguirse igual en ambas
+        Long cliente = clientes.get(0);
+        LocalDate facturado = mesActual.minusMonths(3);
+        assertTrue(repositorioFactura.existePeriodoFacturado(
+            cliente, Factura.periodo(facturado, facturado.withDayOfMonth(facturado.lengthOfMonth()))));
+        assertFalse(repositorioFactura.existePeriodoFacturado(
+            cliente, Factura.periodo(mesActual, mesActual.withDayOfMonth(mesActual.lengthOfMonth()))));
+
+        double porEmision = medir(mesActual, (clienteId, inicio, fin) -> jdbcTemplate.queryForObject(
+            CONSULTA_POR_EMISION, Boolean.class, clienteId, Date.valueOf(inicio), Date.valueOf(fin)));
+        double porPeriodo = medir(mesActual, (clienteId, inicio, fin) -> jdbcTemplate.queryForObject(
+            CONSULTA_POR_PERIODO, Boolean.class, clienteId, Factura.periodo(inicio, fin)));
+
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT 1 FROM factura f WHERE f.cliente_id = ? AND f.periodo = ? AND f.anulada = false",
+            String.class, cliente, Factura.periodo(facturado, facturado.withDayOfMonth(facturado.lengthOfMonth())));
+        boolean usaIndice = plan.toLowerCase().contains(INDICE_PERIODO);
+
+        System.out.printf("%nVerificación de doble facturación sobre %d facturas (%d clientes, promedio de %d consultas)%n",
+                          cantidadFacturas, clientes.size(), CONSULTAS);
+        System.out.printf("%-25s %12s%n", "Consulta", "µs/consulta");
+        System.out.printf("%-25s %12.1f%n", "Por fecha de emisión", porEmision);
+        System.out.printf("%-25s %12.1f%n", "Por período (índice)", porPeriodo);
+        System.out.printf("Plan por período: %s%n", usaIndice ? INDICE_PERIODO : "sin " + INDICE_PERIODO);
+
+        assertTrue(usaIndice, "La verificación por período no usa " + INDICE_PERIODO + ": " + plan);
+        assertTrue(porPeriodo < porEmision, "La verificación por período debería ser más rápida que por fecha de emisión");
+    }
+
+    private double medir(LocalDate mesActual, Verificacion verificacion) {
+        Random azar = new Random(42);
+        // Calentamiento
+        for (int i = 0; i < CONSULTAS / 10; i++) {
+            ejecutar(verificacion, azar, mesActual);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CONSULTAS; i++) {
+            ejecutar(verificacion, azar, mesActual);
+        }
+        return (System.nanoTime() - inicio) / 1_000.0 / CONSULTAS;
+    }
+
+    private void ejecutar(Verificacion verificacion, Random azar, LocalDate mesActual) {
+        Long clienteId = clientes.get(azar.nextInt(clientes.size()));
+        LocalDate inicio = mesActual.minusMonths(azar.nextInt(MESES + 1));
+        verificacion.existe(clienteId, inicio, inicio.withDayOfMonth(inicio.lengthOfMonth()));
+    }
+
+    @FunctionalInterface
+    private interface Verificacion {
+        boolean existe(Long clienteId, LocalDate inicio, LocalDate fin);
+    }
+}
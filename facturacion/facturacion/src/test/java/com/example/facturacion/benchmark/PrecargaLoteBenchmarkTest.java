@@ -0,0 +1,164 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.ClienteServicio;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioClienteServicio;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.servicio.ResultadoFacturacionMasiva;
+import com.example.facturacion.servicio.ServicioFacturacion;
+import com.example.facturacion.servicio.UnidadFacturacionCliente;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark de consultas de lectura de la facturación masiva: validación cliente por cliente
+ * (existe factura en el período + servicios activos + carga diferida de cada servicio) contra
+ * la precarga por lote de UnidadFacturacionCliente.
+ *
+ * La verificación de factura previa por cliente usa existePeriodoFacturado.
+ *
+ * Cuenta las sentencias preparadas con las estadísticas de Hibernate por cada 1.000 clientes.
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "facturacion.masiva.paralelismo=1"
+})
+@ActiveProfiles("benchmark")
+class PrecargaLoteBenchmarkTest {
+
+    private static final int CLIENTES = 1000;
+    private static final int SERVICIOS_POR_CLIENTE = 3;
+    private static final int TAMANIO_LOTE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private RepositorioClienteServicio repositorioClienteServicio;
+
+    @Autowired
+    private RepositorioFactura repositorioFactura;
+
+    @Autowired
+    private UnidadFacturacionCliente unidadFacturacionCliente;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    private final LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+    private final LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
+
+    @BeforeEach
+    void setUp() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        generador.insertarServicios(20);
+        generador.asignarServicios(SERVICIOS_POR_CLIENTE);
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * este test compara las sentencias de lectura por cliente contra la precarga por lote
+     */
+    @Test
+    void compararLecturaPorClienteContraPrecarga() {
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        estadisticas.clear();
+        lectura.executeWithoutResult(status -> recorrerLotes(lote -> {
+            for (Cliente cliente : lote) {
+                repositorioFactura.existePeriodoFacturado(cliente.getId(), Factura.periodo(inicio, fin));
+                for (ClienteServicio cs : repositorioClienteServicio.findByClienteAndActivoTrue(cliente)) {
+                    cs.getServicio().getAlicuota();
+                }
+            }
+        }));
+        long porCliente = estadisticas.getPrepareStatementCount();
+
+        estadisticas.clear();
+        lectura.executeWithoutResult(status -> recorrerLotes(lote -> {
+            var precarga = unidadFacturacionCliente.precargarLote(
+                lote.stream().map(Cliente::getId).toList(), inicio, fin, null);
+            for (Cliente cliente : lote) {
+                for (ClienteServicio cs : precarga.serviciosActivos(cliente.getId())) {
+                    cs.getServicio().getAlicuota();
+                }
+            }
+        }));
+        long precarga = estadisticas.getPrepareStatementCount();
+
+        System.out.printf("%nSentencias de lectura cada %d clientes (%d servicios c/u, lotes de %d)%n",
+                          CLIENTES, SERVICIOS_POR_CLIENTE, TAMANIO_LOTE);
+        System.out.printf("%-20s %10d%n", "Por cliente", porCliente);
+        System.out.printf("%-20s %10d%n", "Precarga por lote", precarga);
+
+        assertTrue(porCliente >= 10 * precarga, "La precarga debería reducir las consultas al menos 10 veces");
+    }
+
+    /**
+     * este test informa las sentencias totales de una facturación masiva completa
+     */
+    @Test
+    void medirFacturacionMasivaCompleta() {
+        estadisticas.clear();
+        long inicioNanos = System.nanoTime();
+        ResultadoFacturacionMasiva resultado =
+            servicioFacturacion.ejecutarFacturacionMasivaConRango(LocalDate.now(), inicio, fin);
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+
+        assertEquals(CLIENTES, resultado.getExitosas());
+        System.out.printf("%nFacturación masiva de %d clientes: %.2f s, %d sentencias (%d consultas, %d cargas de entidad)%n",
+                          CLIENTES, segundos, estadisticas.getPrepareStatementCount(),
+                          estadisticas.getQueryExecutionCount(), estadisticas.getEntityLoadCount());
+    }
+
+    private void recorrerLotes(Consumer<List<Cliente>> consumidor) {
+        long ultimoId = 0;
+        List<Cliente> lote;
+        do {
+            lote = repositorioCliente.findSiguienteLote(EstadoCliente.ACTIVO, ultimoId, Long.MAX_VALUE, Limit.of(TAMANIO_LOTE));
+            if (!lote.isEmpty()) {
+                ultimoId = lote.get(lote.size() - 1).getId();
+                consumidor.accept(lote);
+            }
+        } while (lote.size() == TAMANIO_LOTE);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.servicio.ServicioCliente;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark del registro de movimientos de cuenta corriente según el tamaño del historial
+ * del cliente: el camino anterior (cliente bloqueado, movimiento agregado a la colección
+ * 'movimientos' y guardado en cascada) contra el libro de solo agregado de
+ * ServicioCliente.registrarMovimiento (UPDATE atómico del saldo + INSERT del movimiento).
+ *
+ * Informa milisegundos, entidades cargadas y colecciones inicializadas por registro.
+ * Los tamaños de historial se pueden cambiar con -Dbenchmark.historiales=0,1000,10000
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+class RegistroMovimientoBenchmarkTest {
+
+    private static final int REGISTROS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RepositorioCliente repositorioCliente;
+
+    @Autowired
+    private ServicioCliente servicioCliente;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * este test compara el costo de registrar un movimiento con ambos caminos para varios tamaños de historial
+     */
+    @Test
+    void compararRegistroSegunHistorial() {
+        int[] historiales = Arrays.stream(System.getProperty("benchmark.historiales", "0,1000,10000,50000").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        System.out.printf("%nRegistro de movimientos de cuenta corriente (%d registros por medición)%n", REGISTROS);
+        System.out.printf("%-12s %-18s %12s %16s %20s%n",
+                          "Historial", "Camino", "ms/registro", "cargas/registro", "colecciones/registro");
+        for (int historial : historiales) {
+            for (Camino camino : Camino.values()) {
+                Long clienteId = prepararCliente(historial);
+                Function<MovimientoCuentaCorriente, Object> registrar = camino == Camino.CASCADA
+                    ? movimiento -> transaccion.execute(status -> registrarEnCascada(clienteId, movimiento))
+                    : movimiento -> servicioCliente.registrarMovimiento(clienteId, movimiento);
+
+                registrar.apply(cargo()); // calentamiento
+                estadisticas.clear();
+                long inicio = System.nanoTime();
+                for (int i = 0; i < REGISTROS; i++) {
+                    registrar.apply(cargo());
+                }
+                double ms = (System.nanoTime() - inicio) / 1e6 / REGISTROS;
+                System.out.printf("%-12d %-18s %12.3f %16.1f %20.1f%n", historial, camino.descripcion, ms,
+                                  (double) estadisticas.getEntityLoadCount() / REGISTROS,
+                                  (double) estadisticas.getCollectionLoadCount() / REGISTROS);
+
+                // Ambos caminos deben dejar el mismo saldo: historial + calentamiento + registros
+                BigDecimal esperado = BigDecimal.valueOf(historial + 1 + REGISTROS);
+                assertEquals(0, esperado.compareTo(repositorioCliente.findSaldoById(clienteId)));
+                assertEquals(0, esperado.compareTo(jdbcTemplate.queryForObject(
+                    "SELECT MAX(saldo_resultante) FROM movimiento_cuenta_corriente WHERE cliente_id = ?",
+                    BigDecimal.class, clienteId)));
+            }
+        }
+    }
+
+    /**
+     * Camino anterior: bloquea el cliente, agrega el movimiento a su colección y lo guarda en cascada.
+     */
+    private MovimientoCuentaCorriente registrarEnCascada(Long clienteId, MovimientoCuentaCorriente movimiento) {
+        Cliente cliente = repositorioCliente.findByIdParaActualizar(clienteId).orElseThrow();
+        movimiento.setFechaMovimiento(LocalDateTime.now());
+        movimiento.setCliente(cliente);
+        cliente.getMovimientos().add(movimiento);
+        cliente.setSaldoCuentaCorriente(cliente.getSaldoCuentaCorriente().add(movimiento.calcularImpactoEnSaldo()));
+        movimiento.setSaldoResultante(cliente.getSaldoCuentaCorriente());
+        repositorioCliente.save(cliente);
+        return movimiento;
+    }
+
+    private Long prepararCliente(int historial) {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(1, 0);
+        Long clienteId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cliente", Long.class);
+        generador.insertarMovimientos(clienteId, historial);
+        return clienteId;
+    }
+
+    private static MovimientoCuentaCorriente cargo() {
+        MovimientoCuentaCorriente movimiento = new MovimientoCuentaCorriente();
+        movimiento.setTipoMovimiento(TipoMovimiento.CARGO);
+        movimiento.setMonto(BigDecimal.ONE);
+        movimiento.setDescripcion("Cargo de benchmark");
+        return movimiento;
+    }
+
+    private enum Camino {
+        CASCADA("Cascada"),
+        SOLO_AGREGADO("Solo agregado");
+
+        private final String descripcion;
+
+        Camino(String descripcion) {
+            this.descripcion = descripcion;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.facturacion.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.facturacion.modelo.ClienteServicio;
+import com.example.facturacion.repositorio.RepositorioClienteServicio;
+import com.example.facturacion.repositorio.RepositorioClienteServicio.ServicioAsignado;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark de la consulta de servicios de un cliente (/facturas/api/servicios-cliente/{id}) según
+ * la cantidad total de asignaciones: el camino anterior (todas las asignaciones activas cargadas y
+ * filtradas en Java) contra la proyección por índice (id_cliente, activo).
+ *
+ * Informa milisegundos y entidades cargadas por consulta; con la proyección ambos quedan constantes.
+ * Los tamaños se pueden cambiar con -Dbenchmark.asignaciones=3000,30000,300000
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ServiciosClienteBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+class ServiciosClienteBenchmarkTest {
+
+    private static final int SERVICIOS_POR_CLIENTE = 3;
+    private static final int CONSULTAS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RepositorioClienteServicio repositorioClienteServicio;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * este test compara ambos caminos para varias cantidades totales de asignaciones
+     */
+    @Test
+    void compararConsultaSegunAsignaciones() {
+        int[] tamanios = Arrays.stream(System.getProperty("benchmark.asignaciones", "3000,30000,150000").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+
+        System.out.printf("%nServicios de un cliente (%d consultas por medición)%n", CONSULTAS);
+        System.out.printf("%-14s %-22s %12s %18s%n", "Asignaciones", "Camino", "ms/consulta", "entidades/consulta");
+        for (int asignaciones : tamanios) {
+            List<Long> clientes = prepararAsignaciones(asignaciones / SERVICIOS_POR_CLIENTE);
+            for (Camino camino : Camino.values()) {
+                Function<Long, List<ServicioAsignado>> consultar = camino == Camino.FILTRO_EN_MEMORIA
+                    ? clienteId -> transaccion.execute(status -> filtrarEnMemoria(clienteId))
+                    : repositorioClienteServicio::findServiciosAsignadosByClienteId;
+
+                consultar.apply(clientes.get(0)); // calentamiento
+                estadisticas.clear();
+                long inicio = System.nanoTime();
+                for (int i = 0; i < CONSULTAS; i++) {
+                    Long clienteId = clientes.get(i * clientes.size() / CONSULTAS);
+                    assertEquals(SERVICIOS_POR_CLIENTE, consultar.apply(clienteId).size());
+                }
+                double ms = (System.nanoTime() - inicio) / 1e6 / CONSULTAS;
+                System.out.printf("%-14d %-22s %12.3f %18.1f%n", asignaciones, camino.descripcion, ms,
+                                  (double) estadisticas.getEntityLoadCount() / CONSULTAS);
+            }
+
+            // Ambos caminos devuelven las mismas filas
+            Long clienteId = clientes.get(clientes.size() / 2);
+            assertEquals(transaccion.execute(status -> filtrarEnMemoria(clienteId)),
+                         repositorioClienteServicio.findServiciosAsignadosByClienteId(clienteId));
+        }
+    }
+
+    /**
+     * Camino anterior: carga todas las asignaciones activas y filtra las del cliente en Java.
+     */
+    private List<ServicioAsignado> filtrarEnMemoria(Long clienteId) {
+        return repositorioClienteServicio.findByActivoTrue().stream()
+            .filter(cs -> cs.getCliente().getId().equals(clienteId))
+            .map(this::aFila)
+            .toList();
+    }
+
+    private ServicioAsignado aFila(ClienteServicio cs) {
+        return new ServicioAsignado(cs.getId(), cs.getServicio().getNombre(),
+            cs.getPrecio() != null ? cs.getPrecio() : cs.getServicio().getPrecio());
+    }
+
+    private List<Long> prepararAsignaciones(int clientes) {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(clientes, 0);
+        generador.insertarServicios(20);
+        generador.asignarServicios(SERVICIOS_POR_CLIENTE);
+        return jdbcTemplate.queryForList("SELECT id FROM cliente ORDER BY id", Long.class);
+    }
+
+    private enum Camino {
+        FILTRO_EN_MEMORIA("findByActivoTrue+filtro"),
+        PROYECCION_INDICE("proyección por índice");
+
+        private final String descripcion;
+
+        Camino(String descripcion) {
+            this.descripcion = descripcion;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.facturacion.configuracion;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+class MetricasFacturacionTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricasFacturacion metricas;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        metricas = new MetricasFacturacion();
+        ReflectionTestUtils.setField(metricas, "observationRegistry", observationRegistry);
+        ReflectionTestUtils.setField(metricas, "meterRegistry", meterRegistry);
+    }
+
+    /**
+     * este test verifica que una operación observada registra su tiempo y las sentencias SQL
+     * que Hibernate preparó en el hilo durante la operación
+     */
+    @Test
+    void testObservarRegistraTiempoYSentencias() {
+        ContadorSentenciasSql contador = new ContadorSentenciasSql();
+        contador.inspect("select 1");
+
+        String resultado = metricas.observar(MetricasFacturacion.REGISTRO_PAGO, () -> {
+            contador.inspect("select 2");
+            contador.inspect("update 3");
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        Timer timer = meterRegistry.get(MetricasFacturacion.REGISTRO_PAGO).timer();
+        assertEquals(1, timer.count());
+        DistributionSummary sentencias = meterRegistry.get(MetricasFacturacion.SENTENCIAS_SQL)
+            .tag("operacion", MetricasFacturacion.REGISTRO_PAGO).summary();
+        assertEquals(1, sentencias.count());
+        assertEquals(2.0, sentencias.totalAmount());
+    }
+
+    /**
+     * este test verifica que una operación que falla propaga la excepción y queda registrada
+     * con la etiqueta de error
+     */
+    @Test
+    void testObservarRegistraErrores() {
+        assertThrows(IllegalArgumentException.class, () -> metricas.observar(MetricasFacturacion.ANULACION, () -> {
+            throw new IllegalArgumentException("La factura ya se encuentra anulada.");
+        }));
+
+        Timer timer = meterRegistry.get(MetricasFacturacion.ANULACION).tag("error", "IllegalArgumentException").timer();
+        assertEquals(1, timer.count());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.facturacion.controlador;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.facturacion.benchmark.GeneradorDatosSinteticos;
+import com.example.facturacion.configuracion.ContadorSentenciasSql;
+import com.example.facturacion.configuracion.MetricasFacturacion;
+import com.example.facturacion.servicio.ServicioFacturacion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Presupuesto de sentencias SQL de las pantallas y de la facturación de cada cliente, sobre la
+ * base H2 embebida del perfil de benchmarks. Con más filas que el tamaño de página, una relación
+ * diferida que la vista recorre fila por fila (N+1) supera el presupuesto y hace fallar el build.
+ *
+ * MockMvc ejecuta la solicitud en el hilo del test, así que se cuenta con ContadorSentenciasSql,
+ * igual que el interceptor que publica las métricas por solicitud.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class PresupuestoSentenciasTest {
+
+    private static final int CLIENTES = 40;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${facturacion.sql.presupuesto.cliente}")
+    private int presupuestoCliente;
+
+    private Long clienteId;
+    private Long facturaId;
+
+    @BeforeEach
+    void setUp() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        generador.insertarServicios(5);
+        generador.asignarServicios(3);
+
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        servicioFacturacion.ejecutarFacturacionMasivaConRango(
+            LocalDate.now(), inicio, inicio.withDayOfMonth(inicio.lengthOfMonth()));
+        clienteId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cliente", Long.class);
+        facturaId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM factura", Long.class);
+    }
+
+    /**
+     * este test verifica que los listados paginados usan una cantidad fija de sentencias (página + conteo)
+     */
+    @Test
+    void testListadosDentroDelPresupuesto() throws Exception {
+        assertPresupuesto("/facturas/listar", 2);
+        assertPresupuesto("/clientes/listar", 2);
+        assertPresupuesto("/clientes-servicios/listar", 2);
+        assertPresupuesto("/servicios/listar", 1);
+    }
+
+    /**
+     * este test verifica el presupuesto de las pantallas de detalle de un cliente o una factura
+     * y de la consulta AJAX de servicios del cliente
+     */
+    @Test
+    void testDetallesDentroDelPresupuesto() throws Exception {
+        assertPresupuesto("/clientes/cuenta-corriente/" + clienteId, 2);
+        assertPresupuesto("/facturas/ver/" + facturaId, 1);
+        assertPresupuesto("/facturas/api/servicios-cliente/" + clienteId, 1);
+        assertPresupuesto("/facturas/ver-pagos/" + facturaId, 2);
+        assertPresupuesto("/pagos/nuevo/" + facturaId, 2);
+    }
+
+    /**
+     * este test verifica que ningún cliente de la facturación masiva supera el presupuesto configurado
+     */
+    @Test
+    void testFacturacionPorClienteDentroDelPresupuesto() {
+        double maximo = meterRegistry.get("facturacion.sql.sentencias")
+            .tag("operacion", MetricasFacturacion.FACTURACION_CLIENTE).summary().max();
+
+        assertTrue(maximo > 0);
+        assertTrue(maximo <= presupuestoCliente,
+            "Un cliente preparó " + maximo + " sentencias SQL (presupuesto " + presupuestoCliente + ")");
+    }
+
+    private void assertPresupuesto(String uri, int presupuesto) throws Exception {
+        long antes = ContadorSentenciasSql.actual();
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        long sentencias = ContadorSentenciasSql.actual() - antes;
+        assertTrue(sentencias <= presupuesto,
+            "GET " + uri + " preparó " + sentencias + " sentencias SQL (presupuesto " + presupuesto + ")");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.facturacion.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.facturacion.modelo.enums.Alicuota;
+
+/**
+ * Equivalencia del cálculo en centavos con el cálculo decimal anterior de DetalleFactura.calcularMontos,
+ * sobre casos generados al azar (con semilla fija, para que una falla sea reproducible).
+ */
+class CalculadoraImportesTest {
+
+    private static final int CASOS = 200_000;
+    private static final String[] ALICUOTAS = {
+        "27", "27.0", "27.00", "21", "21.0", "21.00", "10.5", "10.50", "0", "0.00",
+        // Fuera del enum: siempre por el cálculo decimal
+        "5", "2.5", "19.99"
+    };
+
+    /**
+     * este test verifica que IVA y subtotal son idénticos (valor y escala) al cálculo decimal anterior
+     * para precios, cantidades y alícuotas al azar, incluidos negativos, más de dos decimales y
+     * montos que no entran en un long
+     */
+    @Test
+    void testIgualAlCalculoDecimalAnterior() {
+        Random azar = new Random(20251017L);
+        for (int i = 0; i < CASOS; i++) {
+            BigDecimal precio = precioAlAzar(azar);
+            int cantidad = azar.nextInt(20) == 0 ? -azar.nextInt(100) : azar.nextInt(1000);
+            BigDecimal alicuota = new BigDecimal(ALICUOTAS[azar.nextInt(ALICUOTAS.length)]);
+            verificar(precio, cantidad, alicuota);
+        }
+    }
+
+    /**
+     * este test verifica el redondeo HALF_UP en los medios centavos exactos, positivos y negativos
+     */
+    @Test
+    void testRedondeoMedioCentavo() {
+        // 1,00 al 10,5% = 0,105 -> 0,11 ; 0,50 al 21% = 0,105 -> 0,11 ; 0,10 al 27% = 0,027 -> 0,03
+        assertEquals(11, CalculadoraImportes.ivaCentavos(100, Alicuota.ALICUOTA_10_5));
+        assertEquals(11, CalculadoraImportes.ivaCentavos(50, Alicuota.ALICUOTA_21));
+        assertEquals(3, CalculadoraImportes.ivaCentavos(10, Alicuota.ALICUOTA_27));
+        assertEquals(-11, CalculadoraImportes.ivaCentavos(-100, Alicuota.ALICUOTA_10_5));
+        assertEquals(0, CalculadoraImportes.ivaCentavos(123_456, Alicuota.ALICUOTA_0));
+        for (String precio : new String[] {"1", "1.00", "0.5", "0.50", "-1.00", "0.10", "99999999999.99"}) {
+            for (Alicuota alicuota : Alicuota.values()) {
+                verificar(new BigDecimal(precio), 1, alicuota.getValorDecimal());
+            }
+        }
+        assertThrows(ArithmeticException.class, () -> CalculadoraImportes.centavos(new BigDecimal("1.005")));
+    }
+
+    private static void verificar(BigDecimal precio, int cantidad, BigDecimal alicuota) {
+        DetalleFactura detalle = new DetalleFactura();
+        detalle.setPrecioUnitario(precio);
+        detalle.setCantidad(cantidad);
+        detalle.setAlicuotaIva(alicuota);
+        detalle.calcularMontos();
+
+        // Cálculo decimal anterior, sin cambios
+        BigDecimal totalNeto = precio.multiply(BigDecimal.valueOf(cantidad));
+        BigDecimal porcentaje = alicuota.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
+        BigDecimal montoIva = totalNeto.multiply(porcentaje).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal subtotal = totalNeto.add(montoIva);
+
+        String caso = precio + " x " + cantidad + " al " + alicuota;
+        assertEquals(montoIva, detalle.getMontoIva(), caso);
+        assertEquals(subtotal, detalle.getSubtotal(), caso);
+    }
+
+    private static BigDecimal precioAlAzar(Random azar) {
+        int tipo = azar.nextInt(10);
+        long unscaled = switch (tipo) {
+            case 0 -> azar.nextLong();                      // enorme: desborda el long en centavos
+            case 1 -> -azar.nextInt(1_000_000);             // negativo
+            default -> azar.nextInt(100_000_000);           // hasta 1.000.000,00
+        };
+        int escala = azar.nextInt(8) == 0 ? 3 + azar.nextInt(2) : azar.nextInt(3);
+        return BigDecimal.valueOf(unscaled, escala);
+    }
+}
@@ -85,4 +85,71 @@ class FacturaTest {
         assertEquals(EstadoFactura.ANULADA, factura.getEstado());
         assertTrue(factura.isAnulada());
     }
-}
\ No newline at end of file
+    /**
+     * este test verifica que la clave de idempotencia identifica cliente y período, y que anular la libera
+    */
+    @Test
+    void testClaveIdempotenciaSeLiberaAlAnular() {
+        Factura factura = new Factura();
+        factura.setCliente(Cliente.builder().id(15L).build());
+        factura.setFechaInicioPeriodo(LocalDate.of(2025, 10, 1));
+        factura.setFechaFinPeriodo(LocalDate.of(2025, 10, 31));
+        factura.setEstado(EstadoFactura.PENDIENTE_PAGO);
+
+        factura.asignarClaveIdempotencia();
+        assertEquals("15|2025-10-01|2025-10-31", factura.getClaveIdempotencia());
+
+        factura.anular();
+        assertNull(factura.getClaveIdempotencia());
+        assertTrue(factura.isAnulada());
+        assertEquals(EstadoFactura.ANULADA, factura.getEstado());
+    }
+    /**
+     * este test verifica que al persistir se deriva la clave del período facturado
+    */
+    @Test
+    void testPeriodoSeDerivaDeLasFechasDelPeriodo() {
+        Factura factura = new Factura();
+        factura.setFechaInicioPeriodo(LocalDate.of(2025, 10, 1));
+        factura.setFechaFinPeriodo(LocalDate.of(2025, 10, 31));
+
+        factura.prePersist();
+
+        assertEquals("2025-10-01/2025-10-31", factura.getPeriodo());
+        assertNull(Factura.periodo(null, LocalDate.of(2025, 10, 31)));
+    }
+    /**
+     * este test verifica que el desglose de IVA por alícuota y el neto se calculan una vez al emitir
+     * y luego se leen sin recorrer los detalles
+    */
+    @Test
+    void testDesgloseIvaSeCalculaAlEmitir() {
+        Factura factura = new Factura();
+        factura.agregarDetalle(detalle("1000.00", "21"));
+        factura.agregarDetalle(detalle("1000.00", "27"));
+        factura.agregarDetalle(detalle("200.00", "10.50"));
+        factura.agregarDetalle(detalle("500.00", "0"));
+        factura.setTotal(factura.getDetalles().stream().map(DetalleFactura::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        factura.calcularDesgloseIva();
+        factura.getDetalles().clear();
+
+        assertEquals(new BigDecimal("210.00"), factura.getIvaPorAlicuota(21.0));
+        assertEquals(new BigDecimal("270.00"), factura.getIvaPorAlicuota(27.0));
+        assertEquals(new BigDecimal("21.00"), factura.getIvaPorAlicuota(10.5));
+        assertEquals(BigDecimal.ZERO, factura.getIvaPorAlicuota(0.0));
+        assertEquals(BigDecimal.ZERO, factura.getIvaPorAlicuota(5.0));
+        assertEquals(new BigDecimal("500.00"), factura.getDesgloseIva().getNetoExento());
+        assertEquals(new BigDecimal("501.00"), factura.getMontoTotalIVA());
+        assertEquals(new BigDecimal("2700.00"), factura.getMontoTotalNeto());
+    }
+
+    private static DetalleFactura detalle(String precio, String alicuota) {
+        DetalleFactura detalle = new DetalleFactura();
+        detalle.setCantidad(1);
+        detalle.setPrecioUnitario(new BigDecimal(precio));
+        detalle.setAlicuotaIva(new BigDecimal(alicuota));
+        detalle.calcularMontos();
+        return detalle;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.facturacion.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PuntoControlFacturacionTest {
+    /**
+     * este test verifica que una partición se retoma desde el cliente siguiente al último procesado
+    */
+    @Test
+    void testSiguienteIdYCompletado() {
+        PuntoControlFacturacion punto = new PuntoControlFacturacion(1L, 101L, 200L);
+        assertEquals(101L, punto.getSiguienteId());
+        assertFalse(punto.isCompletado());
+
+        punto.setUltimoClienteId(150L);
+        assertEquals(151L, punto.getSiguienteId());
+        assertFalse(punto.isCompletado());
+
+        punto.setUltimoClienteId(200L);
+        assertTrue(punto.isCompletado());
+    }
+}
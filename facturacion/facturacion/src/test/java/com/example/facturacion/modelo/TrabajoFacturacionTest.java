@@ -0,0 +1,57 @@
+package com.example.facturacion.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+
+class TrabajoFacturacionTest {
+    /**
+     * este test verifica que los servicios seleccionados se guardan y se recuperan como lista
+    */
+    @Test
+    void testServiciosIdsLista() {
+        TrabajoFacturacion trabajo = new TrabajoFacturacion();
+
+        trabajo.setServiciosIdsLista(List.of(3L, 7L, 12L));
+        assertEquals("3,7,12", trabajo.getServiciosIds());
+        assertEquals(List.of(3L, 7L, 12L), trabajo.getServiciosIdsLista());
+
+        trabajo.setServiciosIdsLista(List.of());
+        assertNull(trabajo.getServiciosIds());
+        assertNull(trabajo.getServiciosIdsLista());
+    }
+    /**
+     * este test verifica el cálculo del ritmo y del tiempo restante de un trabajo en curso
+    */
+    @Test
+    void testCalcularRitmoYTiempoRestante() {
+        TrabajoFacturacion trabajo = new TrabajoFacturacion();
+        trabajo.iniciar(1000L);
+        LocalDateTime inicio = trabajo.getFechaInicio();
+        trabajo.setProcesados(200);
+
+        assertEquals(EstadoTrabajoFacturacion.EN_CURSO, trabajo.getEstado());
+        assertEquals(20.0, trabajo.calcularClientesPorSegundo(inicio.plusSeconds(10)), 0.001);
+        assertEquals(40L, trabajo.calcularSegundosRestantes(inicio.plusSeconds(10)));
+    }
+    /**
+     * este test verifica que sin avance no se estima tiempo restante y que al finalizar es cero
+    */
+    @Test
+    void testTiempoRestanteSinAvanceYFinalizado() {
+        TrabajoFacturacion trabajo = new TrabajoFacturacion();
+        trabajo.iniciar(1000L);
+
+        assertNull(trabajo.calcularSegundosRestantes(LocalDateTime.now().plusSeconds(5)));
+
+        trabajo.fallar("Error de conexión");
+        assertEquals(EstadoTrabajoFacturacion.FALLIDO, trabajo.getEstado());
+        assertEquals(0L, trabajo.calcularSegundosRestantes(LocalDateTime.now()));
+        assertNotNull(trabajo.getFechaFin());
+    }
+}
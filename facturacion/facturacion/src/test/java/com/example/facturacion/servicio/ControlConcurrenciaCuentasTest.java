@@ -0,0 +1,85 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.facturacion.modelo.Factura;
+
+@ExtendWith(MockitoExtension.class)
+class ControlConcurrenciaCuentasTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ControlConcurrenciaCuentas control;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(control, "maxIntentos", 3);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    /**
+     * este test verifica que un conflicto de versión se reintenta en una transacción nueva hasta que la operación se confirma
+     */
+    @Test
+    void testReintentaAnteConflictoDeVersion() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        String resultado = control.ejecutar(1L, () -> {
+            if (intentos.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Factura.class, 10L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, intentos.get());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    /**
+     * este test verifica que al agotar los intentos se informa un error en lugar de reintentar sin fin
+     */
+    @Test
+    void testAgotaIntentos() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> control.ejecutar(1L, () -> {
+            intentos.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Factura.class, 10L);
+        }));
+        assertEquals(3, intentos.get());
+    }
+
+    /**
+     * este test verifica que los errores de negocio no se reintentan
+     */
+    @Test
+    void testNoReintentaErroresDeNegocio() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> control.ejecutar(1L, () -> {
+            intentos.incrementAndGet();
+            throw new IllegalArgumentException("La factura ya se encuentra anulada.");
+        }));
+        assertEquals(1, intentos.get());
+    }
+}
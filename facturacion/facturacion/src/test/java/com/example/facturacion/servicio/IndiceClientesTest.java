@@ -0,0 +1,108 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioCliente.ClienteBuscable;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceClientesTest {
+
+    @Mock
+    private RepositorioCliente repositorioCliente;
+
+    @InjectMocks
+    private IndiceClientes indiceClientes;
+
+    /**
+     * este test verifica que la búsqueda por prefijo encuentra clientes por cualquier palabra de la
+     * razón social, nombre o apellido (sin distinguir mayúsculas ni acentos), por CUIT con guiones y por DNI
+     */
+    @Test
+    void testBuscarPorPrefijo() {
+        cargar();
+
+        assertEquals(List.of(1L), ids(indiceClientes.buscar("telec", 10)));
+        assertEquals(List.of(2L), ids(indiceClientes.buscar("PEREZ", 10)));
+        assertEquals(List.of(1L, 2L), ids(indiceClientes.buscar("gómez", 10)));
+        assertEquals(List.of(2L), ids(indiceClientes.buscar("20-3012", 10)));
+        assertEquals(List.of(1L), ids(indiceClientes.buscar("2745", 10)));
+        assertTrue(indiceClientes.buscar("x", 10).isEmpty());
+        assertTrue(indiceClientes.buscar("  ", 10).isEmpty());
+    }
+
+    /**
+     * este test verifica que con varias palabras cada una debe coincidir y que se respeta el límite
+     */
+    @Test
+    void testBuscarVariasPalabrasYLimite() {
+        cargar();
+
+        assertEquals(List.of(2L), ids(indiceClientes.buscar("gom ana", 10)));
+        assertEquals(List.of(1L), ids(indiceClientes.buscar("go", 1)));
+        verify(repositorioCliente, times(1)).findBuscablesSiguientes(eq(EstadoCliente.ACTIVO), anyLong(), any());
+    }
+
+    /**
+     * este test verifica que el índice se actualiza con las altas, modificaciones y bajas,
+     * y que dentro de una transacción el cambio se aplica recién al confirmarla
+     */
+    @Test
+    void testActualizarIncremental() {
+        cargar();
+        // La primera búsqueda arma el índice; antes no hay nada que actualizar
+        assertEquals(List.of(1L, 2L), ids(indiceClientes.buscar("go", 10)));
+
+        Cliente nuevo = cliente(3L, "Distribuidora Norte", "Luis", "Ruiz", "30711111112", "11111111");
+        indiceClientes.actualizar(nuevo);
+        assertEquals(List.of(3L), ids(indiceClientes.buscar("norte", 10)));
+
+        nuevo.setRazonSocial("Distribuidora Sur");
+        indiceClientes.actualizar(nuevo);
+        assertTrue(indiceClientes.buscar("norte", 10).isEmpty());
+        assertEquals(List.of(3L), ids(indiceClientes.buscar("sur", 10)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            nuevo.darDeBaja();
+            indiceClientes.actualizar(nuevo);
+            assertEquals(List.of(3L), ids(indiceClientes.buscar("sur", 10)));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(indiceClientes.buscar("sur", 10).isEmpty());
+        assertEquals(2, indiceClientes.getCantidad());
+    }
+
+    private void cargar() {
+        when(repositorioCliente.findBuscablesSiguientes(eq(EstadoCliente.ACTIVO), anyLong(), any())).thenReturn(List.of(
+            ClienteBuscable.de(cliente(1L, "Telecomunicaciones Gómez SA", "Raúl", "Gómez", "30712345678", "27451234")),
+            ClienteBuscable.de(cliente(2L, "Pérez Ana", "Ana", "Gomez Pérez", "20301234567", "30123456"))));
+    }
+
+    private static List<Long> ids(List<ClienteBuscable> clientes) {
+        return clientes.stream().map(ClienteBuscable::id).toList();
+    }
+
+    private static Cliente cliente(Long id, String razonSocial, String nombre, String apellido, String cuit, String dni) {
+        return Cliente.builder().id(id).razonSocial(razonSocial).nombre(nombre).apellido(apellido)
+            .cuit(cuit).dni(dni).estado(EstadoCliente.ACTIVO).build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.enums.EstadoCliente;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class MotorFacturacionMasivaTest {
+
+    @Mock
+    private RepositorioCliente repositorioCliente;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private MotorFacturacionMasiva motor;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(motor, "paralelismo", 3);
+        ReflectionTestUtils.setField(motor, "limpiarCada", 4);
+    }
+
+    /**
+     * este test verifica que el paralelismo se reduce si el pool de conexiones no alcanza
+     * para dos conexiones por hilo más una libre, y se mantiene si alcanza
+     */
+    @Test
+    void testAjustarParalelismoAlPool() throws Exception {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setMaximumPoolSize(6);
+            ReflectionTestUtils.setField(motor, "dataSource", pool);
+
+            motor.ajustarParalelismoAlPool();
+            assertEquals(2, ReflectionTestUtils.getField(motor, "paralelismo"));
+
+            pool.setMaximumPoolSize(10);
+            ReflectionTestUtils.setField(motor, "paralelismo", 4);
+            motor.ajustarParalelismoAlPool();
+            assertEquals(4, ReflectionTestUtils.getField(motor, "paralelismo"));
+        }
+    }
+
+    /**
+     * este test verifica que las particiones cubren todo el rango de IDs sin solaparse
+     */
+    @Test
+    void testParticionarCubreRangoCompleto() {
+        List<MotorFacturacionMasiva.RangoClientes> rangos = MotorFacturacionMasiva.particionar(5, 104, 8);
+
+        assertEquals(5L, rangos.get(0).desdeId());
+        assertEquals(104L, rangos.get(rangos.size() - 1).hastaId());
+        for (int i = 1; i < rangos.size(); i++) {
+            assertEquals(rangos.get(i - 1).hastaId() + 1, rangos.get(i).desdeId());
+        }
+        assertTrue(rangos.size() <= 8);
+    }
+
+    /**
+     * este test verifica que el resultado combinado incluye a todos los clientes una sola vez
+     */
+    @Test
+    void testEjecutarCombinaResultadosDeTodasLasParticiones() {
+        when(repositorioCliente.findMinIdByEstado(EstadoCliente.ACTIVO)).thenReturn(1L);
+        when(repositorioCliente.findMaxIdByEstado(EstadoCliente.ACTIVO)).thenReturn(120L);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repositorioCliente.findSiguienteLote(eq(EstadoCliente.ACTIVO), anyLong(), anyLong(), any(Limit.class)))
+            .thenAnswer(inv -> {
+                long ultimoId = inv.getArgument(1);
+                long hasta = inv.getArgument(2);
+                Limit limite = inv.getArgument(3);
+                return LongStream.rangeClosed(ultimoId + 1, hasta)
+                    .limit(limite.max())
+                    .mapToObj(id -> Cliente.builder().id(id).razonSocial("Cliente " + id).build())
+                    .toList();
+            });
+
+        Set<Long> procesados = ConcurrentHashMap.newKeySet();
+        ResultadoFacturacionMasiva resultado = motor.ejecutar((particion, lote, parcial) -> lote.forEach(cliente -> {
+            assertTrue(procesados.add(cliente.getId()), "Cliente procesado dos veces: " + cliente.getId());
+            parcial.agregarExitoso(cliente.getId(), cliente.getRazonSocial(), cliente.getId(), BigDecimal.ONE);
+        }));
+
+        assertEquals(120, resultado.getExitosas());
+        assertEquals(new BigDecimal("120"), resultado.getMontoTotalFacturado());
+        assertEquals(120, procesados.size());
+        verify(entityManager, atLeastOnce()).clear();
+    }
+
+    /**
+     * este test verifica que sin clientes activos no se procesa nada
+     */
+    @Test
+    void testEjecutarSinClientesActivos() {
+        when(repositorioCliente.findMinIdByEstado(EstadoCliente.ACTIVO)).thenReturn(null);
+        when(repositorioCliente.findMaxIdByEstado(EstadoCliente.ACTIVO)).thenReturn(null);
+
+        ResultadoFacturacionMasiva resultado = motor.ejecutar((particion, lote, parcial) -> fail("No debería procesar clientes"));
+
+        assertEquals(0, resultado.getTotal());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.servicio.PlanificadorBusqueda.Plan;
+import com.example.facturacion.servicio.PlanificadorBusqueda.Ruta;
+
+@ExtendWith(MockitoExtension.class)
+class PlanificadorBusquedaTest {
+
+    @Mock
+    private RepositorioCliente repositorioCliente;
+
+    @InjectMocks
+    private PlanificadorBusqueda planificadorBusqueda;
+
+    /**
+     * este test verifica que un texto vacío no filtra y que el texto libre se busca normalizado
+     * (sin acentos ni mayúsculas) en la columna de búsqueda, sin consultar CUIT ni DNI
+     */
+    @Test
+    void testTextoLibre() {
+        assertEquals(Ruta.TODOS, planificadorBusqueda.planificar(null).ruta());
+        assertEquals(Ruta.TODOS, planificadorBusqueda.planificar("  ").ruta());
+
+        Plan plan = planificadorBusqueda.planificar("  Gómez  PÉREZ ");
+        assertEquals(new Plan(Ruta.TEXTO, null, "%gomez perez%"), plan);
+        assertEquals("%2030%", planificadorBusqueda.planificar("20-30").patron());
+        verifyNoInteractions(repositorioCliente);
+    }
+
+    /**
+     * este test verifica que un CUIT completo, con o sin guiones, se busca en forma exacta
+     * y que si no existe no hay resultados
+     */
+    @Test
+    void testCuitExacto() {
+        when(repositorioCliente.findIdByCuit("20301234567")).thenReturn(Optional.of(7L));
+        when(repositorioCliente.findIdByCuit("20999999999")).thenReturn(Optional.empty());
+
+        assertEquals(new Plan(Ruta.CLIENTE, 7L, null), planificadorBusqueda.planificar("20-30123456-7"));
+        assertEquals(Ruta.NINGUNO, planificadorBusqueda.planificar("20999999999").ruta());
+    }
+
+    /**
+     * este test verifica que un DNI completo se busca en forma exacta y que si no existe
+     * se busca como texto (puede ser parte de un CUIT)
+     */
+    @Test
+    void testDniExactoOTexto() {
+        when(repositorioCliente.findIdByDni("30123456")).thenReturn(Optional.of(3L));
+        when(repositorioCliente.findIdByDni("12345678")).thenReturn(Optional.empty());
+
+        assertEquals(new Plan(Ruta.CLIENTE, 3L, null), planificadorBusqueda.planificar("30.123.456"));
+        assertEquals(new Plan(Ruta.TEXTO, null, "%12345678%"), planificadorBusqueda.planificar("12345678"));
+        verify(repositorioCliente, never()).findIdByCuit(anyString());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class ResultadoFacturacionMasivaTest {
+    /**
+     * este test verifica que los resultados parciales se combinan sumando contadores y montos
+    */
+    @Test
+    void testRegistrarYCombinar() {
+        ResultadoFacturacionMasiva parcial = new ResultadoFacturacionMasiva();
+        parcial.agregarExitoso(1L, "Cliente 1", 10L, new BigDecimal("100.50"));
+        parcial.agregarFallido(2L, "Cliente 2", "Error");
+        parcial.agregarOmitido(3L, "Cliente 3", "Sin servicios activos");
+
+        ResultadoFacturacionMasiva total = new ResultadoFacturacionMasiva();
+        total.agregarExitoso(4L, "Cliente 4", 11L, new BigDecimal("49.50"));
+        total.combinar(parcial);
+
+        assertEquals(2, total.getExitosas());
+        assertEquals(1, total.getFallidas());
+        assertEquals(1, total.getOmitidas());
+        assertEquals(4, total.getTotal());
+        assertEquals(new BigDecimal("150.00"), total.getMontoTotalFacturado());
+    }
+}
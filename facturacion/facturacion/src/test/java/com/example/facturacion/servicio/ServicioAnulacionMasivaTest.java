@@ -0,0 +1,158 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.DetalleFactura;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.NotaCredito;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.ClienteFactura;
+import com.example.facturacion.repositorio.RepositorioNotaCredito;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class ServicioAnulacionMasivaTest {
+
+    @Mock
+    private RepositorioFactura repositorioFactura;
+
+    @Mock
+    private RepositorioNotaCredito repositorioNotaCredito;
+
+    @Mock
+    private ServicioCliente servicioCliente;
+
+    @Mock
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ServicioNotaCredito servicioNotaCredito;
+
+    @InjectMocks
+    private ServicioAnulacionMasiva servicioAnulacionMasiva;
+
+    /**
+     * este test verifica que la anulación de un período anula las facturas del lote en una sola operación,
+     * arma NC espejo con sus detalles, agrupa la reversión por cliente y cuenta las ya anuladas como omitidas
+     */
+    @Test
+    void testAnularPeriodoPorLote() {
+        Factura f1 = factura(10L, 1L, "1000.00");
+        Factura f2 = factura(11L, 1L, "500.00");
+        Factura f3 = factura(12L, 2L, "300.00");
+        // La factura 13 ya fue anulada entre la lectura del período y la transacción del lote
+        when(repositorioFactura.findIdsNoAnuladasDelPeriodo(anyString(), anyLong(), any()))
+            .thenReturn(List.of(10L, 11L, 12L, 13L));
+        when(repositorioFactura.findClientesDeFacturas(anyList())).thenReturn(List.of(
+            new ClienteFactura(10L, 1L), new ClienteFactura(11L, 1L), new ClienteFactura(12L, 2L), new ClienteFactura(13L, 2L)));
+        when(repositorioFactura.findParaAnular(anyList())).thenReturn(List.of(f1, f2, f3));
+        when(controlConcurrencia.ejecutar(anyCollection(), any())).thenAnswer(i -> i.<Supplier<?>>getArgument(1).get());
+
+        ResultadoAnulacionMasiva resultado = servicioAnulacionMasiva.anularPeriodo(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null);
+
+        assertEquals(3, resultado.getAnuladas());
+        assertEquals(1, resultado.getOmitidas());
+        assertEquals(0, new BigDecimal("1800.00").compareTo(resultado.getMontoAnulado()));
+        assertTrue(f1.isAnulada() && f2.isAnulada() && f3.isAnulada());
+        assertEquals(EstadoFactura.ANULADA, f3.getEstado());
+        verify(controlConcurrencia, times(1)).ejecutar(eq(List.of(1L, 2L)), any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotaCredito>> notas = ArgumentCaptor.forClass(List.class);
+        verify(repositorioNotaCredito).saveAll(notas.capture());
+        assertEquals(3, notas.getValue().size());
+        assertEquals(2, notas.getValue().get(0).getDetalles().size());
+        assertEquals("Anulación masiva del período 2025-01-01 a 2025-01-31", notas.getValue().get(0).getMotivo());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, List<MovimientoCuentaCorriente>>> movimientos = ArgumentCaptor.forClass(Map.class);
+        verify(servicioCliente).registrarMovimientos(movimientos.capture());
+        assertEquals(2, movimientos.getValue().get(1L).size());
+        assertEquals(1, movimientos.getValue().get(2L).size());
+    }
+
+    /**
+     * este test verifica que un lote que agota los reintentos se informa como fallido sin detener la anulación
+     */
+    @Test
+    void testAnularPeriodoLoteFallido() {
+        when(repositorioFactura.findIdsNoAnuladasDelPeriodo(anyString(), anyLong(), any())).thenReturn(List.of(10L));
+        when(repositorioFactura.findClientesDeFacturas(anyList())).thenReturn(List.of(new ClienteFactura(10L, 1L)));
+        when(controlConcurrencia.ejecutar(anyCollection(), any())).thenThrow(new IllegalStateException("conflicto"));
+
+        ResultadoAnulacionMasiva resultado = servicioAnulacionMasiva.anularPeriodo(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), "Error de precios");
+
+        assertEquals(0, resultado.getAnuladas());
+        assertEquals(1, resultado.getFallidas());
+        verify(servicioCliente, never()).registrarMovimientos(anyMap());
+    }
+
+    /**
+     * este test verifica que la anulación continúa después de la clave indicada e informa
+     * al observador el resultado y la clave de cada lote
+     */
+    @Test
+    void testAnularPeriodoDesdeClaveInformaCadaLote() {
+        Factura f1 = factura(20L, 1L, "100.00");
+        when(repositorioFactura.findIdsNoAnuladasDelPeriodo(anyString(), eq(15L), any())).thenReturn(List.of(20L));
+        when(repositorioFactura.findClientesDeFacturas(anyList())).thenReturn(List.of(new ClienteFactura(20L, 1L)));
+        when(repositorioFactura.findParaAnular(anyList())).thenReturn(List.of(f1));
+        when(controlConcurrencia.ejecutar(anyCollection(), any())).thenAnswer(i -> i.<Supplier<?>>getArgument(1).get());
+        List<Long> claves = new ArrayList<>();
+        List<Integer> anuladas = new ArrayList<>();
+
+        servicioAnulacionMasiva.anularPeriodo(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null, 15L,
+            (lote, ultimoId) -> {
+                claves.add(ultimoId);
+                anuladas.add(lote.getAnuladas());
+            });
+
+        assertEquals(List.of(20L), claves);
+        assertEquals(List.of(1), anuladas);
+        verify(repositorioFactura, never()).findIdsNoAnuladasDelPeriodo(anyString(), eq(0L), any());
+    }
+
+    private static Factura factura(Long id, Long clienteId, String total) {
+        Factura factura = new Factura();
+        factura.setId(id);
+        factura.setCliente(Cliente.builder().id(clienteId).build());
+        factura.setTotal(new BigDecimal(total));
+        for (int i = 0; i < 2; i++) {
+            DetalleFactura detalle = new DetalleFactura();
+            detalle.setCantidad(1);
+            detalle.setSubtotal(factura.getTotal().divide(BigDecimal.valueOf(2)));
+            factura.agregarDetalle(detalle);
+        }
+        return factura;
+    }
+}
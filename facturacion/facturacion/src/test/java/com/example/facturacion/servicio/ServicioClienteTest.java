@@ -0,0 +1,80 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.facturacion.configuracion.MetricasFacturacion;
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.MovimientoCuentaCorriente;
+import com.example.facturacion.modelo.enums.TipoMovimiento;
+import com.example.facturacion.repositorio.RepositorioCliente;
+import com.example.facturacion.repositorio.RepositorioMovimientoCuentaCorriente;
+
+@ExtendWith(MockitoExtension.class)
+class ServicioClienteTest {
+
+    @Mock
+    private RepositorioCliente repositorioCliente;
+
+    @Mock
+    private RepositorioMovimientoCuentaCorriente repositorioMovimiento;
+
+    @Spy
+    private MetricasFacturacion metricasFacturacion = new MetricasFacturacion();
+
+    @InjectMocks
+    private ServicioCliente servicioCliente;
+
+    /**
+     * este test verifica que registrar un movimiento aplica el impacto con un UPDATE atómico,
+     * guarda el saldo resultante e inserta el movimiento sin cargar ni guardar el cliente
+     */
+    @Test
+    void testRegistrarMovimientoSoloAgrega() {
+        Cliente referencia = Cliente.builder().id(7L).build();
+        when(repositorioCliente.sumarSaldo(7L, new BigDecimal("-400.00"))).thenReturn(1);
+        when(repositorioCliente.findSaldoById(7L)).thenReturn(new BigDecimal("600.00"));
+        when(repositorioCliente.getReferenceById(7L)).thenReturn(referencia);
+        when(repositorioMovimiento.save(any(MovimientoCuentaCorriente.class))).thenAnswer(i -> i.getArgument(0));
+
+        MovimientoCuentaCorriente pago = new MovimientoCuentaCorriente();
+        pago.setTipoMovimiento(TipoMovimiento.PAGO);
+        pago.setMonto(new BigDecimal("400.00"));
+
+        MovimientoCuentaCorriente guardado = servicioCliente.registrarMovimiento(7L, pago);
+
+        assertEquals(new BigDecimal("600.00"), guardado.getSaldoResultante());
+        assertSame(referencia, guardado.getCliente());
+        assertNotNull(guardado.getFechaMovimiento());
+        verify(repositorioMovimiento).save(pago);
+        verify(repositorioCliente, never()).findById(anyLong());
+        verify(repositorioCliente, never()).findByIdParaActualizar(anyLong());
+        verify(repositorioCliente, never()).save(any(Cliente.class));
+    }
+
+    /**
+     * este test verifica que registrar un movimiento de un cliente inexistente falla sin insertar nada
+     */
+    @Test
+    void testRegistrarMovimientoClienteInexistente() {
+        when(repositorioCliente.sumarSaldo(anyLong(), any())).thenReturn(0);
+
+        MovimientoCuentaCorriente cargo = new MovimientoCuentaCorriente();
+        cargo.setTipoMovimiento(TipoMovimiento.CARGO);
+        cargo.setMonto(BigDecimal.TEN);
+
+        assertThrows(IllegalArgumentException.class, () -> servicioCliente.registrarMovimiento(99L, cargo));
+        verify(repositorioMovimiento, never()).save(any());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.facturacion.modelo.Cliente;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.enums.EstadoFactura;
+import com.example.facturacion.modelo.enums.MedioPago;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioFactura.ClienteFactura;
+import com.example.facturacion.repositorio.RepositorioPago;
+import com.example.facturacion.servicio.ServicioImportacionPagos.FilaPago;
+
+@ExtendWith(MockitoExtension.class)
+class ServicioImportacionPagosTest {
+
+    @Mock
+    private RepositorioFactura repositorioFactura;
+
+    @Mock
+    private RepositorioPago repositorioPago;
+
+    @Mock
+    private ServicioCliente servicioCliente;
+
+    @Mock
+    private ControlConcurrenciaCuentas controlConcurrencia;
+
+    @Spy
+    private ServicioPago servicioPago;
+
+    @InjectMocks
+    private ServicioImportacionPagos servicioImportacion;
+
+    /**
+     * este test verifica que una fila completa con ';' se interpreta con coma decimal, medio, fecha y referencia
+     */
+    @Test
+    void testParsearFilaCompleta() {
+        FilaPago fila = FilaPago.parsear(3, "15; 1500,50 ;efectivo;2025-03-10;Rendición 42");
+
+        assertEquals(3, fila.linea());
+        assertEquals(15L, fila.facturaId());
+        assertEquals(new BigDecimal("1500.50"), fila.monto());
+        assertEquals(MedioPago.EFECTIVO, fila.medioPago());
+        assertEquals(LocalDate.of(2025, 3, 10), fila.fecha());
+        assertEquals("Rendición 42", fila.referencia());
+    }
+
+    /**
+     * este test verifica que una fila con solo factura y monto toma los valores por defecto
+     */
+    @Test
+    void testParsearFilaMinima() {
+        FilaPago fila = FilaPago.parsear(1, "7,200.00");
+
+        assertEquals(new BigDecimal("200.00"), fila.monto());
+        assertEquals(MedioPago.TRANSFERENCIA, fila.medioPago());
+        assertNull(fila.fecha());
+        assertNull(fila.referencia());
+    }
+
+    /**
+     * este test verifica que las filas con montos, medios o fechas inválidos se rechazan
+     */
+    @Test
+    void testParsearFilasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "abc;100"));
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "1;-5"));
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "1;10,123"));
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "1;10;BITCOIN"));
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "1;10;;10/03/2025"));
+        assertThrows(IllegalArgumentException.class, () -> FilaPago.parsear(1, "1"));
+    }
+
+    /**
+     * este test verifica que la importación aplica los pagos válidos de un cliente en una sola operación
+     * y deja en el informe las filas sin factura, con sobrepago o ilegibles
+     */
+    @Test
+    void testImportarConciliaFilas() {
+        Cliente cliente = Cliente.builder().id(1L).build();
+        Factura factura = new Factura();
+        factura.setId(10L);
+        factura.setCliente(cliente);
+        factura.setTotal(new BigDecimal("1000.00"));
+
+        when(repositorioFactura.findClientesDeFacturas(anyList())).thenReturn(List.of(new ClienteFactura(10L, 1L)));
+        when(repositorioFactura.findAllById(anyList())).thenReturn(List.of(factura));
+        when(controlConcurrencia.ejecutar(eq(1L), any())).thenAnswer(i -> i.<Supplier<?>>getArgument(1).get());
+
+        String archivo = "factura;monto;medio\n"
+                       + "10;300\n"
+                       + "10;200\n"
+                       + "99;50\n"
+                       + "10;900\n"
+                       + "no es una fila\n";
+        ResultadoImportacionPagos resultado = servicioImportacion.importar(
+            new ByteArrayInputStream(archivo.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, resultado.getTotal());
+        assertEquals(2, resultado.getAplicados());
+        assertEquals(1, resultado.getSinFactura());
+        assertEquals(1, resultado.getSobrepagos());
+        assertEquals(1, resultado.getRechazados());
+        assertEquals(0, new BigDecimal("500").compareTo(resultado.getMontoAplicado()));
+        assertEquals(0, new BigDecimal("950").compareTo(resultado.getMontoNoAplicado()));
+        assertEquals(0, new BigDecimal("500").compareTo(factura.getMontoPagado()));
+        assertEquals(EstadoFactura.PARCIALMENTE_PAGADA, factura.getEstado());
+        verify(controlConcurrencia, times(1)).ejecutar(anyLong(), any());
+        verify(repositorioPago).saveAll(argThat(pagos -> ((List<?>) pagos).size() == 2));
+        verify(servicioCliente).registrarMovimientos(eq(1L), argThat(movimientos -> movimientos.size() == 2));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.example.facturacion.modelo.Servicio;
+import com.example.facturacion.modelo.enums.Alicuota;
+import com.example.facturacion.repositorio.RepositorioServicio;
+
+/**
+ * Caché del catálogo de servicios con un contexto mínimo (sin base de datos): ServicioServicio
+ * con el proxy de caché real y el repositorio simulado.
+ */
+@SpringJUnitConfig
+class ServicioServicioCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(ServicioServicio.class)
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                ServicioServicio.CACHE_SERVICIOS, ServicioServicio.CACHE_SERVICIOS_ACTIVOS);
+            cacheManager.setCacheSpecification("maximumSize=100,recordStats");
+            return cacheManager;
+        }
+    }
+
+    @MockitoBean
+    private RepositorioServicio repositorioServicio;
+
+    @Autowired
+    private ServicioServicio servicioServicio;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void limpiarCache() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+    }
+
+    /**
+     * este test verifica que las lecturas repetidas del catálogo van una sola vez al repositorio
+     * y que las estadísticas cuentan los aciertos y fallos
+     */
+    @Test
+    void testLecturasRepetidasUsanLaCache() {
+        Servicio internet = servicio(1L, "Internet");
+        when(repositorioServicio.findByActivoTrue()).thenReturn(List.of(internet));
+        when(repositorioServicio.findById(1L)).thenReturn(Optional.of(internet));
+        // Las estadísticas son acumuladas desde que se creó la caché
+        Map<String, Object> antes = servicioServicio.obtenerEstadisticasCache().get(ServicioServicio.CACHE_SERVICIOS_ACTIVOS);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, servicioServicio.obtenerTodosLosServicios().size());
+            assertEquals(1, servicioServicio.obtenerServiciosActivos().size());
+            assertSame(internet, servicioServicio.obtenerServicioPorId(1L));
+        }
+
+        verify(repositorioServicio, times(1)).findByActivoTrue();
+        verify(repositorioServicio, times(1)).findById(1L);
+        Map<String, Object> despues = servicioServicio.obtenerEstadisticasCache().get(ServicioServicio.CACHE_SERVICIOS_ACTIVOS);
+        assertEquals(1L, (Long) despues.get("misses") - (Long) antes.get("misses"));
+        assertEquals(5L, (Long) despues.get("hits") - (Long) antes.get("hits"));
+    }
+
+    /**
+     * este test verifica que un servicio inexistente no queda en caché
+     */
+    @Test
+    void testServicioInexistenteNoSeCachea() {
+        when(repositorioServicio.findById(9L)).thenReturn(Optional.empty());
+
+        assertNull(servicioServicio.obtenerServicioPorId(9L));
+        assertNull(servicioServicio.obtenerServicioPorId(9L));
+
+        verify(repositorioServicio, times(2)).findById(9L);
+    }
+
+    /**
+     * este test verifica que alta, modificación, baja y reactivación invalidan el catálogo cacheado
+     */
+    @Test
+    void testCambiosInvalidanLaCache() {
+        Servicio internet = servicio(1L, "Internet");
+        when(repositorioServicio.findByActivoTrue()).thenReturn(List.of(internet));
+        when(repositorioServicio.findById(1L)).thenReturn(Optional.of(internet));
+        when(repositorioServicio.existsById(1L)).thenReturn(true);
+
+        servicioServicio.obtenerServiciosActivos();
+        servicioServicio.obtenerServicioPorId(1L);
+
+        servicioServicio.darDeBajaServicioPorId(1L);
+        servicioServicio.obtenerServiciosActivos();
+        servicioServicio.obtenerServicioPorId(1L);
+
+        servicioServicio.reactivarServicioPorId(1L);
+        servicioServicio.obtenerServiciosActivos();
+
+        servicioServicio.actualizarServicio(internet);
+        servicioServicio.obtenerServiciosActivos();
+
+        servicioServicio.guardarServicio(servicio(null, "Telefonía"));
+        servicioServicio.obtenerServiciosActivos();
+
+        verify(repositorioServicio, times(5)).findByActivoTrue();
+        // 2 lecturas + las de darDeBaja y reactivar (que leen el servicio para modificarlo)
+        verify(repositorioServicio, times(4)).findById(1L);
+    }
+
+    private static Servicio servicio(Long id, String nombre) {
+        Servicio servicio = new Servicio();
+        servicio.setId(id);
+        servicio.setNombre(nombre);
+        servicio.setDescripcion(nombre);
+        servicio.setPrecio(new BigDecimal("1000.00"));
+        servicio.setAlicuota(Alicuota.ALICUOTA_21);
+        return servicio;
+    }
+}
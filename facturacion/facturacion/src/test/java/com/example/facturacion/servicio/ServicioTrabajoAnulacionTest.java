@@ -0,0 +1,93 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.facturacion.modelo.TrabajoAnulacion;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioFactura;
+import com.example.facturacion.repositorio.RepositorioTrabajoAnulacion;
+
+@ExtendWith(MockitoExtension.class)
+class ServicioTrabajoAnulacionTest {
+
+    @Mock
+    private RepositorioTrabajoAnulacion repositorioTrabajoAnulacion;
+
+    @Mock
+    private RepositorioFactura repositorioFactura;
+
+    @Mock
+    private ServicioAnulacionMasiva servicioAnulacionMasiva;
+
+    @InjectMocks
+    private ServicioTrabajoAnulacion servicioTrabajoAnulacion;
+
+    /**
+     * este test verifica que una anulación nueva cuenta las facturas del período, guarda el avance
+     * de cada lote con su clave y queda completada
+     */
+    @Test
+    void testEjecutarAnulacionNuevaDelPeriodo() {
+        TrabajoAnulacion anulacion = anulacionDelPeriodo();
+        when(repositorioTrabajoAnulacion.findById(1L)).thenReturn(Optional.of(anulacion));
+        when(repositorioTrabajoAnulacion.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repositorioFactura.countNoAnuladasDelPeriodo("2025-01-01/2025-01-31")).thenReturn(3L);
+        when(servicioAnulacionMasiva.anularPeriodo(any(), any(), any(), eq(0L), any())).thenAnswer(i -> {
+            ResultadoAnulacionMasiva lote = new ResultadoAnulacionMasiva();
+            lote.agregarAnulada(new BigDecimal("100.00"));
+            lote.agregarOmitidas(2);
+            i.<ObservadorAnulacion>getArgument(4).loteProcesado(lote, 42L);
+            return lote;
+        });
+
+        servicioTrabajoAnulacion.ejecutar(1L);
+
+        assertEquals(3L, anulacion.getTotalFacturas());
+        assertEquals(EstadoTrabajoFacturacion.COMPLETADO, anulacion.getEstado());
+        verify(repositorioTrabajoAnulacion).sumarProgreso(1L, 3, 1, 2, 0, new BigDecimal("100.00"), 42L);
+    }
+
+    /**
+     * este test verifica que una anulación que quedó en curso se retoma después de la última
+     * clave guardada sin reiniciar sus contadores
+     */
+    @Test
+    void testEjecutarRetomaAnulacionEnCurso() {
+        TrabajoAnulacion anulacion = anulacionDelPeriodo();
+        anulacion.iniciar(1000L);
+        anulacion.setProcesadas(400);
+        anulacion.setUltimoId(5000L);
+        when(repositorioTrabajoAnulacion.findById(1L)).thenReturn(Optional.of(anulacion));
+
+        servicioTrabajoAnulacion.ejecutar(1L);
+
+        verify(servicioAnulacionMasiva).anularPeriodo(any(), any(), any(), eq(5000L), any());
+        verify(repositorioFactura, never()).countNoAnuladasDelPeriodo(any());
+        assertEquals(400, anulacion.getProcesadas());
+        assertEquals(EstadoTrabajoFacturacion.COMPLETADO, anulacion.getEstado());
+        verify(servicioAnulacionMasiva, never()).anularPeriodo(any(), any(), any(), eq(0L), any());
+        verify(servicioAnulacionMasiva, never()).anularTrabajo(anyLong(), any(), anyLong(), any());
+    }
+
+    private static TrabajoAnulacion anulacionDelPeriodo() {
+        TrabajoAnulacion anulacion = new TrabajoAnulacion();
+        anulacion.setId(1L);
+        anulacion.setPeriodoInicio(LocalDate.of(2025, 1, 1));
+        anulacion.setPeriodoFin(LocalDate.of(2025, 1, 31));
+        return anulacion;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.facturacion.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.facturacion.benchmark.GeneradorDatosSinteticos;
+import com.example.facturacion.modelo.Factura;
+import com.example.facturacion.modelo.TrabajoFacturacion;
+import com.example.facturacion.modelo.enums.EstadoTrabajoFacturacion;
+import com.example.facturacion.repositorio.RepositorioTrabajoFacturacion;
+
+/**
+ * Reanudación de un trabajo de facturación masiva cortado en medio de un lote, sobre la base H2
+ * embebida del perfil de benchmarks.
+ *
+ * El corte se simula con un error (no una excepción: la facturación masiva no lo captura como
+ * cliente fallido) al empezar a facturar un cliente en medio de un lote, con un solo hilo para que
+ * el punto de corte sea siempre el mismo. Después el trabajo se deja EN_CURSO, como lo dejaría
+ * un apagado abrupto, y se vuelve a ejecutar.
+ */
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class ServicioTrabajoFacturacionTest {
+
+    private static final int CLIENTES = 120;
+    // Con un hilo el motor arma 4 particiones de 30 clientes (un lote cada una): el corte cae en
+    // medio de la última, con 9 de sus clientes ya facturados. Al ser la última, no queda otra
+    // partición encolada que el hilo pueda tomar mientras el motor se detiene
+    private static final int CORTE_EN_CLIENTE = 100;
+    private static final long CLIENTES_ANTES_DEL_LOTE_CORTADO = 90;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServicioTrabajoFacturacion servicioTrabajoFacturacion;
+
+    @Autowired
+    private ServicioAnulacionMasiva servicioAnulacionMasiva;
+
+    @Autowired
+    private RepositorioTrabajoFacturacion repositorioTrabajo;
+
+    @Autowired
+    private MotorFacturacionMasiva motorFacturacionMasiva;
+
+    @Autowired
+    private ServicioFacturacion servicioFacturacion;
+
+    @Autowired
+    private UnidadFacturacionCliente unidadFacturacionCliente;
+
+    private Object paralelismoOriginal;
+
+    @BeforeEach
+    void setUp() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(jdbcTemplate);
+        generador.vaciarTablas();
+        generador.insertarClientes(CLIENTES, 0);
+        generador.insertarServicios(5);
+        generador.asignarServicios(2);
+
+        paralelismoOriginal = ReflectionTestUtils.getField(motorFacturacionMasiva, "paralelismo");
+        ReflectionTestUtils.setField(motorFacturacionMasiva, "paralelismo", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(motorFacturacionMasiva, "paralelismo", paralelismoOriginal);
+        usarUnidadFacturacion(unidadFacturacionCliente);
+    }
+
+    /**
+     * este test verifica que al retomar un trabajo cortado en medio de un lote, los clientes de
+     * ese lote que ya se habían facturado cuentan como exitosos con su factura y su monto, y que
+     * la anulación del trabajo alcanza a todas sus facturas
+     */
+    @Test
+    void testRetomaTrabajoCortadoEnMedioDeUnLote() {
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
+        TrabajoFacturacion trabajo = new TrabajoFacturacion();
+        trabajo.setFechaEmision(LocalDate.now());
+        trabajo.setPeriodoInicio(inicio);
+        trabajo.setPeriodoFin(fin);
+        Long id = repositorioTrabajo.save(trabajo).getId();
+
+        cortarEnCliente(CORTE_EN_CLIENTE);
+        servicioTrabajoFacturacion.ejecutar(id);
+        // El apagado abrupto deja el trabajo EN_CURSO con los contadores del último lote completo
+        jdbcTemplate.update("UPDATE trabajo_facturacion SET estado = 'EN_CURSO', fecha_fin = NULL, mensaje_error = NULL WHERE id = ?", id);
+        assertEquals(CLIENTES_ANTES_DEL_LOTE_CORTADO, repositorioTrabajo.findById(id).orElseThrow().getExitosas());
+        assertEquals(CORTE_EN_CLIENTE - 1, contarFacturas(inicio, fin));
+
+        servicioTrabajoFacturacion.ejecutar(id);
+
+        trabajo = repositorioTrabajo.findById(id).orElseThrow();
+        assertEquals(EstadoTrabajoFacturacion.COMPLETADO, trabajo.getEstado());
+        assertEquals(CLIENTES, contarFacturas(inicio, fin));
+        assertEquals(CLIENTES, trabajo.getProcesados());
+        assertEquals(CLIENTES, trabajo.getExitosas());
+        assertEquals(0, trabajo.getOmitidas());
+        assertEquals(0, trabajo.getFallidas());
+        BigDecimal montoFacturado = jdbcTemplate.queryForObject(
+            "SELECT SUM(total) FROM factura WHERE periodo = ?", BigDecimal.class, Factura.periodo(inicio, fin));
+        assertEquals(0, montoFacturado.compareTo(trabajo.getMontoTotalFacturado()));
+
+        ResultadoAnulacionMasiva anulacion = servicioAnulacionMasiva.anularTrabajo(id, null);
+
+        assertEquals(CLIENTES, anulacion.getAnuladas());
+        assertEquals(0, montoFacturado.compareTo(anulacion.getMontoAnulado()));
+        assertEquals(0, contarFacturas(inicio, fin));
+    }
+
+    /**
+     * Reemplaza la unidad de facturación que usa ServicioFacturacion por una que delega en la real
+     * y corta el recorrido al llegar al cliente número 'cliente'.
+     */
+    private void cortarEnCliente(int cliente) {
+        AtomicInteger llamadas = new AtomicInteger();
+        Answer<Object> real = delegatesTo(unidadFacturacionCliente);
+        UnidadFacturacionCliente conCorte = mock(UnidadFacturacionCliente.class, real);
+        doAnswer(invocacion -> {
+            if (llamadas.incrementAndGet() == cliente) {
+                throw new CorteSimulado();
+            }
+            return real.answer(invocacion);
+        }).when(conCorte).procesarCliente(any(), any(), any(), any(), any(), anyBoolean(), any(), any());
+        usarUnidadFacturacion(conCorte);
+    }
+
+    private void usarUnidadFacturacion(UnidadFacturacionCliente unidad) {
+        ServicioFacturacion destino = AopTestUtils.getUltimateTargetObject(servicioFacturacion);
+        ReflectionTestUtils.setField(destino, "unidadFacturacionCliente", unidad);
+    }
+
+    private int contarFacturas(LocalDate inicio, LocalDate fin) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM factura WHERE periodo = ? AND anulada = false",
+            Integer.class, Factura.periodo(inicio, fin));
+    }
+
+    private static class CorteSimulado extends Error {
+    }
+}